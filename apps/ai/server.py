@@ -1,3 +1,5 @@
+from typing import List
+
 from fastapi import FastAPI, UploadFile, File
 import numpy as np
 import cv2
@@ -13,8 +15,25 @@ async def analyze_frame(session_id: str, file: UploadFile = File(...)):
     프론트 또는 백엔드에서 전달한 프레임을 분석해 딴짓 여부를 반환합니다.
     딴짓이 감지되면 activity 정보도 포함해 응답합니다.
     """
-    # 프레임 읽기
     data = await file.read()
+    return {"sessionId": session_id, **_analyze(data)}
+
+
+@app.post("/analyze-frames/{session_id}")
+async def analyze_frames(session_id: str, files: List[UploadFile] = File(...)):
+    """
+    연속으로 찍은 프레임 여러 장을 한 번에 분석합니다.
+    results 는 받은 순서대로 담기며, 각 항목은 /analyze-frame 응답과 같은 형태입니다.
+    """
+    results = []
+    for file in files:
+        data = await file.read()
+        results.append(_analyze(data))
+    return {"sessionId": session_id, "results": results}
+
+
+def _analyze(data: bytes) -> dict:
+    # 프레임 읽기
     frame = cv2.imdecode(np.frombuffer(data, np.uint8), cv2.IMREAD_COLOR)
 
     # 감지 수행
@@ -31,7 +50,6 @@ async def analyze_frame(session_id: str, file: UploadFile = File(...)):
 
     # 응답 구성
     return {
-        "sessionId": session_id,
         "phone": result.get("phone"),
         "drowsy": result.get("drowsy"),
         "left_seat": result.get("left_seat"),
@@ -42,5 +60,3 @@ async def analyze_frame(session_id: str, file: UploadFile = File(...)):
         "ts": result.get("ts"),
         "latency_ms": result.get("latency_ms"),
     }
-
-
@@ -25,6 +25,7 @@ public class Board {
     private Instant createdAt;
 
     private List<BoardEntry> entries;
+    private Integer entrySeq;             // 마지막으로 할당한 entryNo (없으면 entries 의 최대 entryNo)
 
 
 }
@@ -0,0 +1,10 @@
+package board.dto;
+
+/**
+ * 한 번에 여러 질문을 보드에 추가할 때 질문 하나의 내용.
+ * entryId 를 호출자가 정해 두면 같은 질문을 다시 추가해도 중복되지 않습니다.
+ */
+public record BoardEntryDraft(
+        String entryId,
+        String questionNote
+) {}
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface BoardRepository extends MongoRepository<Board, String> {
+public interface BoardRepository extends MongoRepository<Board, String>, BoardRepositoryCustom {
     Optional<Board> findByMatchId(String matchId);
     Optional<Board> findByPairKey(String pairKey);
 
@@ -0,0 +1,20 @@
+package board.repository;
+
+import board.domain.Board;
+import board.domain.BoardEntry;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * boards 도큐먼트를 통째로 다시 쓰지 않고 질문을 추가하는 원자적 쓰기 경로입니다.
+ */
+public interface BoardRepositoryCustom {
+
+    /**
+     * 보드 멤버가 작성한 질문들을 한 번의 조건부 갱신으로 추가합니다.
+     * 연속된 entryNo 구간을 할당해 각 질문에 채우고, 이미 같은 entryId 가 있는 질문은 건너뜁니다.
+     * 보드가 없거나 작성자가 멤버가 아니면 빈 Optional 을 반환합니다.
+     */
+    Optional<Board> appendEntries(String boardId, String authorUserId, List<BoardEntry> entries);
+}
@@ -0,0 +1,98 @@
+package board.repository;
+
+import board.domain.Board;
+import board.domain.BoardEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * {@link BoardRepositoryCustom} 의 MongoTemplate 구현체.
+ */
+@RequiredArgsConstructor
+public class BoardRepositoryImpl implements BoardRepositoryCustom {
+
+    private static final int MAX_ATTEMPTS = 10;
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<Board> appendEntries(String boardId, String authorUserId, List<BoardEntry> entries) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Board header = findHeader(boardId, authorUserId);
+            if (header == null) {
+                return Optional.empty();
+            }
+
+            Set<String> existingIds = header.getEntries() == null ? Set.of() : header.getEntries().stream()
+                    .map(BoardEntry::getEntryId)
+                    .collect(Collectors.toSet());
+            List<BoardEntry> toAppend = entries.stream()
+                    .filter(entry -> !existingIds.contains(entry.getEntryId()))
+                    .toList();
+            if (toAppend.isEmpty()) {
+                return Optional.ofNullable(mongoTemplate.findById(boardId, Board.class));
+            }
+
+            // entrySeq 가 없는 기존 보드는 지금까지의 최대 entryNo 부터 이어서 번호를 매김
+            int last = header.getEntrySeq() != null ? header.getEntrySeq() : maxEntryNo(header);
+            for (int i = 0; i < toAppend.size(); i++) {
+                toAppend.get(i).setEntryNo(last + i + 1);
+            }
+
+            // 읽은 시점의 entrySeq 가 그대로일 때만 번호 구간과 질문들을 함께 반영 (CAS)
+            Query query = Query.query(where("_id").is(boardId)
+                    .and("entrySeq").is(header.getEntrySeq())
+                    .and("entries.entryId").nin(toAppend.stream().map(BoardEntry::getEntryId).toList()));
+            Update update = new Update()
+                    .set("entrySeq", last + toAppend.size())
+                    .push("entries").each(toAppend.toArray());
+            Board updated = mongoTemplate.findAndModify(query, update, RETURN_NEW, Board.class);
+            if (updated != null) {
+                return Optional.of(updated);
+            }
+            backOff(attempt);
+        }
+        throw new OptimisticLockingFailureException("Board " + boardId + " is being modified concurrently.");
+    }
+
+    /**
+     * 번호 할당과 중복 확인에 필요한 필드만 읽습니다. 보드가 없거나 멤버가 아니면 null.
+     */
+    private Board findHeader(String boardId, String authorUserId) {
+        Query query = Query.query(where("_id").is(boardId).and("memberUserIds").is(authorUserId));
+        query.fields().include("entrySeq", "entries.entryId", "entries.entryNo");
+        return mongoTemplate.findOne(query, Board.class);
+    }
+
+    /**
+     * 같은 보드에 동시에 추가하는 쪽과 번갈아 다시 맞붙지 않도록 조금씩 늘어나는 임의 시간만큼 쉽니다.
+     */
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 5L * (attempt + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OptimisticLockingFailureException("Interrupted while appending board entries.");
+        }
+    }
+
+    private static int maxEntryNo(Board header) {
+        if (header.getEntries() == null) {
+            return 0;
+        }
+        return header.getEntries().stream().mapToInt(BoardEntry::getEntryNo).max().orElse(0);
+    }
+}
@@ -4,6 +4,7 @@ import board.domain.Board;
 import board.domain.BoardComment;
 import board.domain.BoardEntry;
 import board.domain.EntryStatus;
+import board.dto.BoardEntryDraft;
 import board.repository.BoardRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -23,33 +24,36 @@ public class BoardService {
 
     @Transactional
     public Board addEntryToBoard(String boardId, String authorUserId, String title, String questionNote) {
-        Board board = boardRepository.findById(boardId)
-                .orElseThrow(() -> new IllegalArgumentException("Board not found: " + boardId));
-
-        if (!board.getMemberUserIds().contains(authorUserId)) {
-            throw new IllegalStateException("You are not a member of this board.");
-        }
+        return addEntriesToBoard(boardId, authorUserId, title,
+                List.of(new BoardEntryDraft(UUID.randomUUID().toString(), questionNote)));
+    }
 
-        // 새로운 질문 번호 계산
-        int newEntryNo = (board.getEntries() == null) ? 1 : board.getEntries().size() + 1;
+    /**
+     * 같은 제목으로 여러 질문을 한 번에 추가합니다.
+     * 보드를 다시 저장하지 않고 연속된 질문 번호를 할당해 한 번의 갱신으로 붙이며,
+     * 이미 같은 entryId 의 질문이 있으면 건너뜁니다. (세션 종료 후처리처럼 재시도될 수 있는 호출용)
+     */
+    @Transactional
+    public Board addEntriesToBoard(String boardId, String authorUserId, String title, List<BoardEntryDraft> drafts) {
         String normalizedTitle = stripWrappingBrackets(title);
-
-        BoardEntry newEntry = BoardEntry.builder()
-                .entryId(UUID.randomUUID().toString())
-                .authorUserId(authorUserId)
-                .title(normalizedTitle)
-                .questionNote(questionNote)
-                .createdAt(Instant.now())
-                .entryNo(newEntryNo) // 질문 번호 설정
-                .status(EntryStatus.INCOMPLETE) // 상태를 '미완료'로 초기화
-                .build();
-
-        if (board.getEntries() == null) {
-            board.setEntries(new ArrayList<>());
-        }
-        board.getEntries().add(newEntry);
-
-        return sanitizeBoard(boardRepository.save(board));
+        Instant now = Instant.now();
+
+        List<BoardEntry> entries = drafts.stream()
+                .map(draft -> BoardEntry.builder()
+                        .entryId(draft.entryId())
+                        .authorUserId(authorUserId)
+                        .title(normalizedTitle)
+                        .questionNote(draft.questionNote())
+                        .createdAt(now)
+                        .status(EntryStatus.INCOMPLETE) // 상태를 '미완료'로 초기화 (질문 번호는 저장소에서 할당)
+                        .build())
+                .toList();
+
+        Board board = boardRepository.appendEntries(boardId, authorUserId, entries)
+                .orElseThrow(() -> boardRepository.existsById(boardId)
+                        ? new IllegalStateException("You are not a member of this board.")
+                        : new IllegalArgumentException("Board not found: " + boardId));
+        return sanitizeBoard(board);
     }
 
     @Transactional
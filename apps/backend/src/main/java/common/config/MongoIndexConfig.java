@@ -0,0 +1,67 @@
+package common.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import report.domain.Report;
+import session.domain.SessionEventBucket;
+import session.domain.StudySession;
+
+import java.util.List;
+
+/**
+ * auto-index-creation 을 전체로 켜지 않고, 조회/정합성이 인덱스에 의존하는 컬렉션만 시작 시 인덱스를 보장합니다.
+ * <p>
+ * - 모든 빈을 만든 직후, 웹 서버가 요청을 받기 전에 만듭니다. 인덱스 없이 첫 요청을 처리하지 않습니다.<br>
+ * - 조회용 인덱스는 만들지 못해도 느려질 뿐이므로 경고만 남기고 애플리케이션을 띄웁니다.<br>
+ * - 유니크 인덱스는 정합성(매칭당 진행 중 세션 하나, 세션당 리포트 하나 등)을 지키는 유일한 장치이므로,
+ * 기존 중복 데이터나 서버 버전 때문에 만들지 못하면 시작을 실패시킵니다. 배포 전 중복 정리는 README 를 참고하세요.
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig implements SmartInitializingSingleton {
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(
+            SessionEventBucket.class,
+            StudySession.class,
+            Report.class
+    );
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ensureIndexes();
+    }
+
+    public void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (Class<?> type : INDEXED_DOCUMENTS) {
+            IndexOperations indexOps = mongoTemplate.indexOps(type);
+            for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+                try {
+                    indexOps.createIndex(index);
+                } catch (RuntimeException e) {
+                    if (isUnique(index)) {
+                        throw new IllegalStateException("Failed to create unique index " + index.getIndexKeys()
+                                + " on " + type.getSimpleName() + "; remove duplicate documents before starting", e);
+                    }
+                    log.warn("Failed to create index {} on {}: {}", index.getIndexKeys(), type.getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean isUnique(IndexDefinition index) {
+        return Boolean.TRUE.equals(index.getIndexOptions().get("unique"));
+    }
+}
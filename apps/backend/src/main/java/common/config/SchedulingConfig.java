@@ -3,6 +3,9 @@ package common.config;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
+/**
+ * 스케줄러 스레드 수는 spring.task.scheduling.pool.size 로 정합니다. (기본 1개면 한 작업이 막힐 때 나머지 작업도 모두 멈춤)
+ */
 @Configuration
 @EnableScheduling
 public class SchedulingConfig {
@@ -6,6 +6,7 @@ import auth.local.service.RefreshTokenService;
 import auth.social.kakao.service.KakaoService;
 import common.security.jwt.JwtAuthenticationFilter;
 import common.security.jwt.JwtUtil;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -46,6 +47,7 @@ public class SecurityConfig {
 
                 .authorizeHttpRequests(auth -> auth
 
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // SSE 종료 시 재디스패치 (최초 요청에서 이미 인가됨)
                                 .requestMatchers("/oauth2/**", "/login/oauth2/**").permitAll() //social
                                 .requestMatchers("/swagger-ui/**","/v3/api-docs/**").permitAll() //swagger
                                 .requestMatchers("/api/auth/**").permitAll() //local
@@ -54,6 +56,9 @@ public class SecurityConfig {
                                 .requestMatchers("/api/boards/**").authenticated() //board
                                 .requestMatchers("/api/sessions/**").authenticated() // session
                                 .requestMatchers("/api/reports/**").authenticated() // reports
+                                .requestMatchers("/ws/**").permitAll() // websocket (핸드셰이크 인터셉터에서 JWT 인증)
+                                .requestMatchers("/actuator/health").permitAll() // health check
+                                .requestMatchers("/actuator/**").authenticated() // metrics
                                 .anyRequest().denyAll() // 화면은 3000이 담당, 허용된 경로 외 접근 금지
                 )
 
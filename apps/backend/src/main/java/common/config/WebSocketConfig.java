@@ -0,0 +1,26 @@
+package common.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import session.websocket.SessionFrameHandshakeInterceptor;
+import session.websocket.SessionFrameWebSocketHandler;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final CorsProperties corsProperties;
+    private final SessionFrameWebSocketHandler sessionFrameWebSocketHandler;
+    private final SessionFrameHandshakeInterceptor sessionFrameHandshakeInterceptor;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(sessionFrameWebSocketHandler, SessionFrameHandshakeInterceptor.PATH)
+                .addInterceptors(sessionFrameHandshakeInterceptor)
+                .setAllowedOrigins(corsProperties.getAllowedOrigins().toArray(String[]::new));
+    }
+}
@@ -32,6 +32,11 @@ public enum ErrorCode {
     INVALID_SESSION_STATE("INVALID_SESSION_STATE", "유효하지 않은 세션 상태입니다."),
     STUDY_LOG_NOT_FOUND("STUDY_LOG_NOT_FOUND", "스터디 로그를 찾을 수 없습니다."),
     DISTRACTION_LOG_NOT_FOUND("DISTRACTION_LOG_NOT_FOUND", "집중 방해 로그를 찾을 수 없습니다."),
+    FRAME_QUEUE_FULL("FRAME_QUEUE_FULL", "프레임 분석 대기열이 가득 찼습니다. 잠시 후 다시 시도해 주세요."),
+    FRAME_TOO_LARGE("FRAME_TOO_LARGE", "프레임 크기가 허용 한도를 넘었습니다."),
+    TOO_MANY_FRAMES("TOO_MANY_FRAMES", "한 번에 보낼 수 있는 프레임 수를 넘었습니다."),
+    INVALID_SESSION_IMPORT("INVALID_SESSION_IMPORT", "가져올 세션 기록이 올바르지 않습니다."),
+    SESSION_CONFLICT("SESSION_CONFLICT", "세션이 동시에 변경되었습니다. 잠시 후 다시 시도해 주세요."),
 
     // 매칭 관련
     MATCH_NOT_FOUND("MATCH_NOT_FOUND", "매칭을 찾을 수 없습니다."),
@@ -0,0 +1,56 @@
+package common.security.jwt;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import user.domain.Role;
+import user.repository.UserRepository;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 액세스 토큰 하나를 검증해 인증 객체로 바꿉니다.
+ * HTTP 필터({@link JwtAuthenticationFilter})와 WebSocket 핸드셰이크가 같은 규칙(블랙리스트, 서명/만료, 사용자 존재)을 쓰도록 분리했습니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtTokenAuthenticator {
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public Optional<UsernamePasswordAuthenticationToken> authenticate(String token) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
+
+        // Redis에서 해당 토큰이 로그아웃 처리되었는지 확인
+        String isBlocked = redisTemplate.opsForValue().get("BLOCKED:" + token);
+
+        // 토큰이 블랙리스트에 없고(isBlocked == null) 유효할 경우에만 인증 절차 진행
+        if (isBlocked != null || !jwtUtil.validateToken(token)) {
+            return Optional.empty();
+        }
+
+        String userId = jwtUtil.getUserId(token);
+        return userRepository.findByUserId(userId).map(user -> {
+            Role role = user.getRole();
+
+            List<GrantedAuthority> authorities;
+            if (role != null) {
+                authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+            } else {
+                authorities = Collections.emptyList();
+            }
+
+            return new UsernamePasswordAuthenticationToken(userId, null, authorities);
+        });
+    }
+}
@@ -7,6 +7,7 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import report.domain.MatchStats;
 import report.domain.Report;
 import report.dto.AddFeedbackRequest;
 import report.service.ReportService;
@@ -28,6 +29,13 @@ public class ReportController {
         return ApiResponse.ok(reportService.getReportsByMatchId(matchId, actingUserId));
     }
 
+    @Operation(summary = "매칭별 누적 학습 통계 조회", description = "특정 매칭(matchId)의 세션 수, 누적 학습/순공/딴짓 시간, 딴짓 횟수, 마지막 세션 시각을 조회합니다.")
+    @GetMapping("/stats/by-match/{matchId}")
+    public ApiResponse<MatchStats> getMatchStats(@PathVariable String matchId, Authentication auth) {
+        String actingUserId = auth.getName();
+        return ApiResponse.ok(reportService.getMatchStats(matchId, actingUserId));
+    }
+
     @Operation(summary = "특정 보고서 상세 조회", description = "보고서의 고유 ID(reportId)로 상세 내용을 조회합니다.")
     @GetMapping("/{reportId}")
     public ApiResponse<Report> getReportById(@PathVariable String reportId, Authentication auth) {
@@ -0,0 +1,41 @@
+package report.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 매칭별 누적 학습 통계. 리포트가 만들어질 때마다 $inc 로 갱신되므로 리포트 전체를 읽지 않고 바로 조회할 수 있습니다.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("match_stats")
+public class MatchStats {
+
+    @Id
+    private String matchId;
+
+    private long sessionCount;           // 리포트가 만들어진 세션 수
+    private double totalStudyMinutes;    // 전체 학습 시간(분) 합계
+    private double netStudyMinutes;      // 순 공부 시간(분) 합계
+    private double distractionMinutes;   // 딴짓 시간(분) 합계
+    private long distractionCount;       // 딴짓 로그 수 합계
+    private Instant lastSessionAt;       // 가장 최근 세션 종료 시각
+
+    // 같은 세션이 두 번 반영되지 않도록 최근 반영한 세션 ID 를 몇 개만 기억
+    @Builder.Default
+    private List<String> recentSessionIds = new ArrayList<>();
+
+    private Instant updatedAt;
+}
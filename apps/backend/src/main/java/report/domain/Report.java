@@ -4,6 +4,7 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -20,6 +21,9 @@ public class Report {
     private String matchId;      // 어떤 멘토-멘티의 보고서인지 식별
     private String menteeUserId; // 보고서의 주체 (멘티)
 
+    @Indexed(unique = true, sparse = true)
+    private String sessionId;    // 보고서를 만든 학습 세션 (세션당 하나)
+
     private String aiSummary;    // AI가 요약한 학습 내용
 
     private List<DistractionLog> distractionLogs; // '딴짓 로그' 목록
@@ -0,0 +1,9 @@
+package report.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import report.domain.MatchStats;
+
+@Repository
+public interface MatchStatsRepository extends MongoRepository<MatchStats, String>, MatchStatsRepositoryCustom {
+}
@@ -0,0 +1,19 @@
+package report.repository;
+
+import report.domain.MatchStats;
+
+import java.time.Instant;
+
+/**
+ * match_stats 의 원자적 누적 경로입니다.
+ */
+public interface MatchStatsRepositoryCustom {
+
+    /**
+     * 세션 하나의 결과를 매칭 통계에 $inc 로 더하고 갱신된 통계를 반환합니다.
+     * 같은 세션을 다시 반영하면 더하지 않고 현재 통계를 그대로 반환합니다.
+     * 통계가 아직 없는 매칭은 기존 리포트로 먼저 채우며, 이때 집계된 세션(이 세션 포함)은 반영된 것으로 봅니다.
+     */
+    MatchStats recordSession(String matchId, String sessionId, double totalMinutes, double netMinutes,
+                             double distractionMinutes, int distractionCount, Instant endedAt);
+}
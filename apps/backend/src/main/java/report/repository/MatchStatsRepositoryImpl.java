@@ -0,0 +1,115 @@
+package report.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import report.domain.MatchStats;
+import report.domain.Report;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * {@link MatchStatsRepositoryCustom} 의 MongoTemplate 구현체.
+ */
+@RequiredArgsConstructor
+public class MatchStatsRepositoryImpl implements MatchStatsRepositoryCustom {
+
+    private static final int RECENT_SESSIONS = 50;
+    private static final FindAndModifyOptions UPSERT_RETURN_NEW = FindAndModifyOptions.options().upsert(true).returnNew(true);
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public MatchStats recordSession(String matchId, String sessionId, double totalMinutes, double netMinutes,
+                                    double distractionMinutes, int distractionCount, Instant endedAt) {
+        if (!mongoTemplate.exists(Query.query(where("_id").is(matchId)), MatchStats.class)) {
+            seedFromReports(matchId);
+        }
+
+        // 이 세션이 아직 반영되지 않은 통계만 갱신. 이미 반영되었으면 조건이 맞지 않아 upsert 가 _id 중복으로 실패함
+        Query query = Query.query(where("_id").is(matchId).and("recentSessionIds").ne(sessionId));
+        Update update = new Update()
+                .inc("sessionCount", 1)
+                .inc("totalStudyMinutes", totalMinutes)
+                .inc("netStudyMinutes", netMinutes)
+                .inc("distractionMinutes", distractionMinutes)
+                .inc("distractionCount", distractionCount)
+                .max("lastSessionAt", endedAt)
+                .set("updatedAt", Instant.now());
+        update.push("recentSessionIds").slice(-RECENT_SESSIONS).each(sessionId);
+        try {
+            return mongoTemplate.findAndModify(query, update, UPSERT_RETURN_NEW, MatchStats.class);
+        } catch (DuplicateKeyException e) {
+            return mongoTemplate.findById(matchId, MatchStats.class);
+        }
+    }
+
+    /**
+     * 이미 만들어진 리포트를 한 번 집계해 통계 도큐먼트를 만듭니다.
+     * 리포트는 통계 반영보다 먼저 저장되므로, 지금 반영하려는 세션이나 반영을 재시도 중인 세션의 리포트도 집계에 들어갈 수 있습니다.
+     * 집계한 세션 ID 를 recentSessionIds 에 함께 넣어, 그 세션들이 나중에 반영될 때 두 번 더해지지 않게 합니다.
+     */
+    private void seedFromReports(String matchId) {
+        TypedAggregation<Report> aggregation = Aggregation.newAggregation(Report.class,
+                match(where("matchId").is(matchId)),
+                sort(Sort.Direction.ASC, "createdAt"),
+                project("sessionId", "createdAt", "totalStudyMinutes", "netStudyMinutes", "distractionMinutes")
+                        .and(ArrayOperators.Size.lengthOfArray(
+                                ConditionalOperators.ifNull("distractionLogs").then(List.of()))).as("distractions"),
+                group()
+                        .count().as("sessionCount")
+                        .sum("totalStudyMinutes").as("totalStudyMinutes")
+                        .sum("netStudyMinutes").as("netStudyMinutes")
+                        .sum("distractionMinutes").as("distractionMinutes")
+                        .sum("distractions").as("distractionCount")
+                        .max("createdAt").as("lastSessionAt")
+                        .push("sessionId").as("sessionIds"));
+        Document totals = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (totals == null) {
+            return; // 기존 리포트가 없으면 첫 $inc 의 upsert 로 만들어짐
+        }
+
+        Date lastSessionAt = totals.getDate("lastSessionAt");
+        List<String> sessionIds = totals.getList("sessionIds", String.class, List.of());
+        MatchStats seeded = MatchStats.builder()
+                .matchId(matchId)
+                .sessionCount(((Number) totals.get("sessionCount")).longValue())
+                .totalStudyMinutes(number(totals, "totalStudyMinutes"))
+                .netStudyMinutes(number(totals, "netStudyMinutes"))
+                .distractionMinutes(number(totals, "distractionMinutes"))
+                .distractionCount((long) number(totals, "distractionCount"))
+                .lastSessionAt(lastSessionAt == null ? null : lastSessionAt.toInstant())
+                .recentSessionIds(new ArrayList<>(
+                        sessionIds.subList(Math.max(0, sessionIds.size() - RECENT_SESSIONS), sessionIds.size())))
+                .updatedAt(Instant.now())
+                .build();
+        try {
+            mongoTemplate.insert(seeded);
+        } catch (DuplicateKeyException e) {
+            // 다른 요청이 먼저 만든 경우
+        }
+    }
+
+    private static double number(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number n ? n.doubleValue() : 0.0;
+    }
+}
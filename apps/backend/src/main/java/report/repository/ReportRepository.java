@@ -19,4 +19,6 @@ public interface ReportRepository extends MongoRepository<Report, String> {
      * @return Report 리스트
      */
     List<Report> findByMatchId(String matchId);
+
+    boolean existsBySessionId(String sessionId);
 }
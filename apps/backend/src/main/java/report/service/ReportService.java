@@ -3,10 +3,13 @@ package report.service;
 import lombok.RequiredArgsConstructor;
 import match.domain.Match;
 import match.repository.MatchRepository;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import report.domain.MatchStats;
 import report.domain.MentorFeedback;
 import report.domain.Report;
+import report.repository.MatchStatsRepository;
 import report.repository.ReportRepository;
 import session.domain.StudySession;
 import session.service.StudySessionMetrics;
@@ -21,45 +24,75 @@ import java.util.List;
 public class ReportService {
 
     private final ReportRepository reportRepository;
+    private final MatchStatsRepository matchStatsRepository;
     private final MatchRepository matchRepository;
 
     private final AiSummaryService aiSummaryService;
     /**
-     * StudySession이 종료된 후 호출되어 학습 리포트를 생성하고 저장합니다.
+     * StudySession이 종료된 후 호출되어 학습 리포트를 생성하고 저장한 뒤, 매칭 통계에 이 세션을 더합니다.
+     * 종료 후처리가 재시도되어도 세션당 리포트는 하나만 만들어지고 통계에도 한 번만 반영됩니다.
      * @param endedSession 종료된 학습 세션 객체
+     * @return 이 세션까지 반영된 매칭 통계
      */
     @Transactional
-    public void createReportFromSession(StudySession endedSession) {
-        // 2. 학습 로그(studyLogs)를 하나의 문자열로 합칩니다.
-        String studyContents = endedSession.getStudyLogs().stream()
-                .map(log -> log.getContent())
-                .collect(Collectors.joining("\n"));
-
-        // 3. AiSummaryService를 호출하여 요약된 내용을 받습니다.
-        String summary = aiSummaryService.summarize(studyContents);
-
-        // 4. 세션의 딴짓 로그를 리포트의 딴짓 로그 형식으로 변환합니다. (이전 단계에서 완성)
-        List<report.domain.DistractionLog> reportDistractionLogs = endedSession.getDistractionLogs().stream()
-                .map(this::toReportDistractionLog)
-                .collect(Collectors.toList());
-
-        // 5. 변환된 데이터를 바탕으로 새로운 Report 객체를 생성합니다.
+    public MatchStats createReportFromSession(StudySession endedSession) {
         DurationSnapshot durationSnapshot = calculateDurations(endedSession);
 
-        Report report = Report.builder()
-                .matchId(endedSession.getMatchId())
-                .menteeUserId(endedSession.getMenteeUserId())
-                .aiSummary(summary) // AI가 생성한 요약문을 저장
-                .distractionLogs(reportDistractionLogs)
-                .totalStudyMinutes(durationSnapshot.totalMinutes())
-                .distractionMinutes(durationSnapshot.distractionMinutes())
-                .netStudyMinutes(durationSnapshot.netMinutes())
-                .createdAt(Instant.now())
-                .build();
+        if (!reportRepository.existsBySessionId(endedSession.getSessionId())) { // 이전 시도에서 이미 생성되었으면 통계만 반영
+            // 2. 학습 로그(studyLogs)를 하나의 문자열로 합칩니다.
+            String studyContents = endedSession.getStudyLogs().stream()
+                    .map(log -> log.getContent())
+                    .collect(Collectors.joining("\n"));
+
+            // 3. AiSummaryService를 호출하여 요약된 내용을 받습니다.
+            String summary = aiSummaryService.summarize(studyContents);
+
+            // 4. 세션의 딴짓 로그를 리포트의 딴짓 로그 형식으로 변환합니다. (이전 단계에서 완성)
+            List<report.domain.DistractionLog> reportDistractionLogs = endedSession.getDistractionLogs().stream()
+                    .map(this::toReportDistractionLog)
+                    .collect(Collectors.toList());
+
+            // 5. 변환된 데이터를 바탕으로 새로운 Report 객체를 생성합니다.
+            Report report = Report.builder()
+                    .matchId(endedSession.getMatchId())
+                    .sessionId(endedSession.getSessionId())
+                    .menteeUserId(endedSession.getMenteeUserId())
+                    .aiSummary(summary) // AI가 생성한 요약문을 저장
+                    .distractionLogs(reportDistractionLogs)
+                    .totalStudyMinutes(durationSnapshot.totalMinutes())
+                    .distractionMinutes(durationSnapshot.distractionMinutes())
+                    .netStudyMinutes(durationSnapshot.netMinutes())
+                    .createdAt(Instant.now())
+                    .build();
+
+            try {
+                reportRepository.save(report);
+            } catch (DuplicateKeyException e) {
+                // 점유가 만료되어 다른 노드와 동시에 만든 경우: 먼저 저장된 리포트를 그대로 둠
+            }
+        }
 
-        reportRepository.save(report);
+        // 6. 매칭 통계에 $inc 로 더합니다. (리포트 전체를 다시 읽지 않고 회차/누적 시간을 알 수 있도록)
+        return matchStatsRepository.recordSession(
+                endedSession.getMatchId(),
+                endedSession.getSessionId(),
+                orZero(durationSnapshot.totalMinutes()),
+                orZero(durationSnapshot.netMinutes()),
+                orZero(durationSnapshot.distractionMinutes()),
+                endedSession.getDistractionLogs().size(),
+                endedSession.getEndedAt() != null ? endedSession.getEndedAt() : Instant.now());
     }
 
+    /**
+     * API: GET /api/reports/stats/by-match/{matchId}
+     * 특정 매칭의 누적 학습 통계를 조회합니다. 아직 리포트가 없으면 0 으로 채운 통계를 반환합니다.
+     */
+    @Transactional(readOnly = true)
+    public MatchStats getMatchStats(String matchId, String actingUserId) {
+        checkMatchMembership(matchId, actingUserId); // 권한 체크
+        return matchStatsRepository.findById(matchId)
+                .orElseGet(() -> MatchStats.builder().matchId(matchId).build());
+    }
 
     /**
      * API: GET /api/reports/by-match/{matchId}
@@ -160,6 +193,10 @@ public class ReportService {
         return new DurationSnapshot(totalMinutes, distractionMinutes, netMinutes);
     }
 
+    private static double orZero(Double value) {
+        return value == null ? 0.0 : value;
+    }
+
     private double roundToOneDecimal(double value) {
         return Math.round(value * 10.0) / 10.0;
     }
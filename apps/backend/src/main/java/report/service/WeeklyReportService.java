@@ -24,6 +24,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -87,6 +88,8 @@ public class WeeklyReportService {
         List<Match> acceptedMatches = matchRepository.findAll().stream()
                 .filter(match -> match.getStatus() == MatchStatus.ACCEPTED)
                 .collect(Collectors.toList());
+        // 이번 주에 끝난 세션이 있는 매칭만 세션을 조회함 (종료 후처리 성공 여부와 관계없이 세션 자체로 판단)
+        Set<String> matchesWithSessions = studySessionRepository.findMatchIdsEndedBetween(startInstant, endInstant);
 
         int generated = 0;
         int skipped = 0;
@@ -109,6 +112,14 @@ public class WeeklyReportService {
                 continue;
             }
 
+            if (!matchesWithSessions.contains(match.getMatchId())) {
+                skipped++;
+                if (log.isDebugEnabled()) {
+                    log.debug("Skipping matchId={} because no session ended within {} - {}", match.getMatchId(), startInstant, endInstant);
+                }
+                continue;
+            }
+
             List<StudySession> sessions = studySessionRepository
                     .findByMatchIdAndEndedAtBetween(match.getMatchId(), startInstant, endInstant);
             if (log.isDebugEnabled()) {
@@ -195,7 +206,18 @@ public class WeeklyReportService {
         int distractionCount = 0;
 
         for (StudySession session : sessions) {
-            double effectiveMinutes = StudySessionMetrics.calculateNetMinutes(session);
+            double effectiveMinutes;
+            int sessionDistractions;
+            if (session.hasRunningMetrics()) {
+                // 헤더의 누적 지표만으로 계산 (로그를 읽지 않음)
+                effectiveMinutes = StudySessionMetrics.calculateNetMinutes(session);
+                sessionDistractions = session.getDistractionCount() == null ? 0 : session.getDistractionCount();
+            } else {
+                // 지표 도입 이전 세션: 딴짓 로그는 이벤트 버킷에 있으므로 세션별로 한 번만 읽음
+                List<DistractionLog> distractionLogs = studySessionRepository.findDistractionLogs(session);
+                effectiveMinutes = StudySessionMetrics.calculateNetMinutes(session, distractionLogs);
+                sessionDistractions = distractionLogs.size();
+            }
             if (effectiveMinutes <= 0) {
                 continue;
             }
@@ -207,7 +229,7 @@ public class WeeklyReportService {
                 studyHours.merge(dayLabel, effectiveMinutes / 60.0, Double::sum);
             }
 
-            distractionCount += countDistractions(session);
+            distractionCount += sessionDistractions;
         }
 
         studyHours.replaceAll((k, v) -> roundToOneDecimal(v));
@@ -227,11 +249,6 @@ public class WeeklyReportService {
         return buckets;
     }
 
-    private int countDistractions(StudySession session) {
-        List<DistractionLog> logs = session.getDistractionLogs();
-        return logs == null ? 0 : logs.size();
-    }
-
 
     private double roundToOneDecimal(double value) {
         return Math.round(value * 10.0) / 10.0;
@@ -1,27 +1,75 @@
 package session.controller;
 
+import common.dto.ApiError;
 import common.dto.ApiResponse;
+import common.dto.ErrorCode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import match.domain.Match;
+import match.repository.MatchRepository;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import session.domain.SelfFeedback;
 import session.domain.StudySession;
+import session.dto.FrameAnalysisAcceptedDTO;
+import session.dto.SessionAckDTO;
+import session.dto.SessionImportResultDTO;
+import session.dto.SessionTimelineItemDTO;
 import session.dto.StudySessionDTO;
+import session.service.FrameAnalysisPipeline;
+import session.service.FrameNormalizer;
+import session.service.FrameSamplingAdvisor;
+import session.service.SessionImportService;
+import session.service.SessionLiveBroadcaster;
+import session.service.SessionTimelineService;
 import session.service.StudySessionService;
+import session.service.VisionAiProperties;
 import session.dto.DistractionDetectionRequest;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Optional;
+
 @Tag(name = "StudySession API", description = "학습 세션 관련 API")
 @RestController
 @RequestMapping("/api/sessions")
 @RequiredArgsConstructor
 public class StudySessionController {
 
+    /**
+     * 클라이언트가 다음 프레임을 보내기까지 기다릴 시간(ms) 안내 헤더
+     */
+    static final String NEXT_FRAME_AFTER_MS = "X-Next-Frame-After-Ms";
+
+    /**
+     * 클라이언트가 세션마다 증가시키며 붙이는 이벤트 순번 헤더. 재전송된 요청은 한 번만 반영합니다.
+     */
+    static final String CLIENT_SEQ = "X-Client-Seq";
+
+    /**
+     * Prefer: return=minimal 요청에 간단 응답을 보냈음을 알리는 헤더
+     */
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+    static final String RETURN_MINIMAL = "return=minimal";
+
     private final StudySessionService studyService;
+    private final SessionImportService sessionImportService;
+    private final SessionTimelineService sessionTimelineService;
+    private final SessionLiveBroadcaster sessionLiveBroadcaster;
+    private final MatchRepository matchRepository;
+    private final FrameAnalysisPipeline frameAnalysisPipeline;
+    private final FrameSamplingAdvisor frameSamplingAdvisor;
+    private final FrameNormalizer frameNormalizer;
+    private final VisionAiProperties visionAiProperties;
 
     @Operation(summary = "학습 시작", description = "학습 세션 시작")
     @PostMapping("/start")
@@ -32,55 +80,220 @@ public class StudySessionController {
         return ApiResponse.ok(studyService.startSession(matchId, menteeUserId, mentorUserId));
     }
 
+    @Operation(summary = "오프라인 세션 가져오기",
+            description = "오프라인에서 기록한 세션 하나를 NDJSON(application/x-ndjson)으로 받아 한 번에 기록합니다. "
+                    + "START 로 시작해 STUDY_LOG, QUESTION, DISTRACTION, FEEDBACK, RESUME 를 발생 순서대로 보내고 END 로 끝냅니다. "
+                    + "순서가 맞지 않으면 400 과 함께 몇 번째 줄인지 알려 주며, 세션은 만들어지지 않습니다. "
+                    + "START 의 매칭에서 요청한 사용자가 멘티가 아니거나 mentorUserId 가 그 매칭의 멘토가 아니면 403 을 반환합니다.")
+    @PostMapping(path = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ApiResponse<?>> importSession(InputStream body, Authentication auth) throws IOException {
+        try {
+            SessionImportResultDTO imported = sessionImportService.importSession(auth.getName(), body);
+            return ResponseEntity.ok(ApiResponse.ok(imported));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(new ApiError(ErrorCode.INVALID_SESSION_IMPORT, e.getMessage())));
+        }
+    }
+
+    @Operation(summary = "세션 타임라인 조회",
+            description = "학습/딴짓/질문 로그를 기록된 순서대로 합쳐 페이지 단위로 반환합니다. "
+                    + "응답의 nextAfterSeq 를 afterSeq 로 넘기면 다음 페이지를 받고, types 로 로그 종류를 고를 수 있습니다. "
+                    + "limit 은 기본 50, 최대 200 입니다. 세션 매칭의 멘토/멘티만 조회할 수 있으며, 그 밖의 사용자는 403 을 받습니다.")
+    @GetMapping("/{sessionId}/timeline")
+    public ResponseEntity<ApiResponse<?>> timeline(
+            @PathVariable String sessionId,
+            @RequestParam(required = false) Long afterSeq,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<SessionTimelineItemDTO.Type> types,
+            Authentication auth) {
+        return sessionTimelineService.getTimeline(sessionId, auth.getName(), types, afterSeq, limit)
+                .<ResponseEntity<ApiResponse<?>>>map(timeline -> ResponseEntity.ok(ApiResponse.ok(timeline)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error(new ApiError(ErrorCode.SESSION_NOT_FOUND))));
+    }
+
+    @Operation(summary = "실시간 세션 이벤트 구독",
+            description = "매칭의 세션에서 일어나는 상태 변경(STATUS_CHANGED: 딴짓으로 일시정지, 재개, 종료)과 "
+                    + "학습/딴짓/질문 로그(LOGGED)를 Server-Sent Events 로 보냅니다. 매칭의 멘토/멘티만 구독할 수 있습니다. "
+                    + "이벤트를 제때 받지 못해 쌓이면 서버가 연결을 끊으므로, 다시 연결한 뒤 놓친 로그는 타임라인 API 로 받아 옵니다. "
+                    + "매칭이 없으면 404, 권한이 없으면 403, 구독자가 너무 많으면 503 을 본문 없이 반환합니다.")
+    @GetMapping("/live")
+    public ResponseEntity<SseEmitter> live(@RequestParam String matchId, Authentication auth) {
+        Optional<Match> match = matchRepository.findById(matchId);
+        if (match.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        String userId = auth.getName();
+        if (!userId.equals(match.get().getMentorUserId()) && !userId.equals(match.get().getMenteeUserId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return sessionLiveBroadcaster.subscribe(matchId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .build());
+    }
+
     @Operation(summary = "학습 종료", description = "학습 세션 종료") //
     @PostMapping("/{sessionId}/end")
     public ApiResponse<StudySession> end(@PathVariable String sessionId) {
         return ApiResponse.ok(studyService.endSession(sessionId));
     }
 
-    @Operation(summary = "AI 감지 딴짓 로그 저장", description = "AI가 감지한 딴짓 이벤트를 세션에 저장")
+    @Operation(summary = "AI 감지 딴짓 로그 저장",
+            description = "AI가 감지한 딴짓 이벤트를 세션에 저장. X-Client-Seq 헤더로 보낸 순번이 이미 반영되었으면 다시 저장하지 않습니다. "
+                    + "Prefer: return=minimal 헤더를 보내면 로그 배열 없이 상태, 카운터, version 과 추가된 로그만 반환합니다.")
     @PostMapping("/{sessionId}/distractions")
-    public ApiResponse<StudySession> addDistraction(
+    public ResponseEntity<ApiResponse<?>> addDistraction(
             @PathVariable String sessionId,
-            @RequestBody @Valid DistractionDetectionRequest req) { // @RequestParam -> @RequestBody로 변경
-        return ApiResponse.ok(studyService.addDistraction(sessionId, req.activity(), req.detectionType()));
+            @RequestBody @Valid DistractionDetectionRequest req, // @RequestParam -> @RequestBody로 변경
+            @RequestHeader(value = CLIENT_SEQ, required = false) Long clientSeq,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (returnMinimal(prefer)) {
+            return minimal(studyService.addDistractionAck(sessionId, req.activity(), req.detectionType(), clientSeq));
+        }
+        return ResponseEntity.ok(ApiResponse.ok(
+                studyService.addDistraction(sessionId, req.activity(), req.detectionType(), clientSeq)));
     }
 
-    @Operation(summary = "AI 프레임 분석 후 딴짓 감지", description = "Vision AI에 프레임을 전달해 딴짓이 감지되면 세션에 기록합니다.")
+    @Operation(summary = "AI 프레임 분석 후 딴짓 감지",
+            description = "Vision AI에 프레임을 전달해 딴짓이 감지되면 세션에 기록합니다. "
+                    + "Prefer: respond-async 헤더를 보내면 프레임을 분석 대기열에 넣고 바로 202를 반환합니다. "
+                    + "Prefer: return=minimal 헤더를 보내면 로그 배열 없이 상태, 카운터, version 과 추가된 로그만 반환합니다. "
+                    + "X-Next-Frame-After-Ms 헤더로 다음 프레임을 보낼 때까지 기다릴 시간을 안내합니다.")
     @PostMapping(path = "/{sessionId}/distractions/analyze", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ApiResponse<StudySession> analyzeDistraction(
+    public ResponseEntity<ApiResponse<?>> analyzeDistraction(
             @PathVariable String sessionId,
-            @RequestPart("file") MultipartFile frame) {
-        return ApiResponse.ok(studyService.analyzeFrameAndAddDistraction(sessionId, frame));
+            @RequestPart("file") MultipartFile frame,
+            @RequestHeader(value = "Prefer", required = false) String prefer) throws IOException {
+        if (frameNormalizer.isOversized(frame.getSize())) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(ApiResponse.error(new ApiError(ErrorCode.FRAME_TOO_LARGE)));
+        }
+        if (!respondAsync(prefer)) {
+            boolean minimal = returnMinimal(prefer);
+            Object body = minimal
+                    ? studyService.analyzeFrameAndAddDistractionAck(sessionId, frame)
+                    : studyService.analyzeFrameAndAddDistraction(sessionId, frame);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header(NEXT_FRAME_AFTER_MS, String.valueOf(frameSamplingAdvisor.nextFrameAfterMs(sessionId)));
+            if (minimal) {
+                response.header(PREFERENCE_APPLIED, RETURN_MINIMAL);
+            }
+            return response.body(ApiResponse.ok(body));
+        }
+
+        if (!frameAnalysisPipeline.submit(sessionId, FrameNormalizer.read(frame), frame.getOriginalFilename())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(new ApiError(ErrorCode.FRAME_QUEUE_FULL)));
+        }
+        long nextFrameAfterMs = frameSamplingAdvisor.nextFrameAfterMs(sessionId);
+        return ResponseEntity.accepted()
+                .header(NEXT_FRAME_AFTER_MS, String.valueOf(nextFrameAfterMs))
+                .body(ApiResponse.ok(new FrameAnalysisAcceptedDTO(sessionId, frameAnalysisPipeline.queueDepth(),
+                        nextFrameAfterMs)));
     }
 
-    @Operation(summary = "멘티 자기 피드백 기록", description = "딴짓 발생 후 멘티가 자기 피드백을 작성")
+    @Operation(summary = "AI 프레임 묶음 분석 후 딴짓 감지",
+            description = "연속으로 찍은 프레임 여러 장(files)을 한 번에 분석합니다. Vision AI 는 한 번만 호출하고, "
+                    + "감지된 딴짓은 찍은 순서대로 한 번에 기록합니다. "
+                    + "X-Next-Frame-After-Ms 헤더로 다음 묶음을 보낼 때까지 기다릴 시간을 안내합니다.")
+    @PostMapping(path = "/{sessionId}/distractions/analyze-batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ApiResponse<?>> analyzeDistractions(
+            @PathVariable String sessionId,
+            @RequestPart("files") List<MultipartFile> frames) {
+        if (frames.isEmpty()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(new ApiError(ErrorCode.INVALID_REQUEST)));
+        }
+        if (frames.size() > visionAiProperties.getBatch().getMaxFrames()) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(new ApiError(ErrorCode.TOO_MANY_FRAMES)));
+        }
+        for (MultipartFile frame : frames) {
+            if (frameNormalizer.isOversized(frame.getSize())) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                        .body(ApiResponse.error(new ApiError(ErrorCode.FRAME_TOO_LARGE)));
+            }
+        }
+        StudySession session = studyService.analyzeFramesAndAddDistractions(sessionId, frames);
+        return ResponseEntity.ok()
+                .header(NEXT_FRAME_AFTER_MS, String.valueOf(frameSamplingAdvisor.nextFrameAfterMs(sessionId)))
+                .body(ApiResponse.ok(session));
+    }
+
+    @Operation(summary = "멘티 자기 피드백 기록",
+            description = "딴짓 발생 후 멘티가 자기 피드백을 작성. Prefer: return=minimal 헤더를 보내면 상태, 카운터, version 과 피드백만 반환합니다.")
     @PostMapping("/{sessionId}/distractions/selfFeedback")
-    public ApiResponse<StudySession> addSelfFeedback(
+    public ResponseEntity<ApiResponse<?>> addSelfFeedback(
             @PathVariable String sessionId,
-            @RequestBody SelfFeedback selfFeedback) {
-        return ApiResponse.ok(studyService.addSelfFeedback(sessionId, selfFeedback));
+            @RequestBody SelfFeedback selfFeedback,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (returnMinimal(prefer)) {
+            return minimal(studyService.addSelfFeedbackAck(sessionId, selfFeedback));
+        }
+        return ResponseEntity.ok(ApiResponse.ok(studyService.addSelfFeedback(sessionId, selfFeedback)));
     }
 
-    @Operation(summary = "학습 재개", description = "피드백 후 학습을 다시 시작")
+    @Operation(summary = "학습 재개",
+            description = "피드백 후 학습을 다시 시작. Prefer: return=minimal 헤더를 보내면 상태, 카운터, version 만 반환합니다.")
     @PostMapping("/{sessionId}/resume")
-    public ApiResponse<StudySession> resume(@PathVariable String sessionId) {
-        return ApiResponse.ok(studyService.resumeSession(sessionId));
+    public ResponseEntity<ApiResponse<?>> resume(@PathVariable String sessionId,
+                                                 @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (returnMinimal(prefer)) {
+            return minimal(studyService.resumeSessionAck(sessionId));
+        }
+        return ResponseEntity.ok(ApiResponse.ok(studyService.resumeSession(sessionId)));
     }
 
-    @Operation(summary = "학습 내용 입력", description = "세션 진행 동안 학습한 내용 입력")
+    @Operation(summary = "학습 내용 입력",
+            description = "세션 진행 동안 학습한 내용 입력. X-Client-Seq 헤더로 보낸 순번이 이미 반영되었으면 다시 저장하지 않습니다. "
+                    + "Prefer: return=minimal 헤더를 보내면 로그 배열 없이 상태, 카운터, version 과 추가된 로그만 반환합니다.")
     @PostMapping("/{sessionId}/studyLogs")
-    public ApiResponse<StudySession> addStudyLog(@PathVariable String sessionId,
-                                                 @RequestParam String content,
-                                                 Authentication auth) {
-        return ApiResponse.ok(studyService.addStudyLog(sessionId, content));
+    public ResponseEntity<ApiResponse<?>> addStudyLog(@PathVariable String sessionId,
+                                                      @RequestParam String content,
+                                                      @RequestHeader(value = CLIENT_SEQ, required = false) Long clientSeq,
+                                                      @RequestHeader(value = "Prefer", required = false) String prefer,
+                                                      Authentication auth) {
+        if (returnMinimal(prefer)) {
+            return minimal(studyService.addStudyLogAck(sessionId, content, clientSeq));
+        }
+        return ResponseEntity.ok(ApiResponse.ok(studyService.addStudyLog(sessionId, content, clientSeq)));
     }
 
-    @Operation(summary = "질문 내용 입력", description = "세션 진행 중 궁금한 내용을 입력")
+    @Operation(summary = "질문 내용 입력",
+            description = "세션 진행 중 궁금한 내용을 입력. X-Client-Seq 헤더로 보낸 순번이 이미 반영되었으면 다시 저장하지 않습니다. "
+                    + "Prefer: return=minimal 헤더를 보내면 로그 배열 없이 상태, 카운터, version 과 추가된 로그만 반환합니다.")
     @PostMapping("/{sessionId}/questionLogs")
-    public ApiResponse<StudySession> addQuestionLog(@PathVariable String sessionId,
-                                                    @RequestParam String question,
-                                                    Authentication auth) {
-        return ApiResponse.ok(studyService.addQuestionLog(sessionId, question));
+    public ResponseEntity<ApiResponse<?>> addQuestionLog(@PathVariable String sessionId,
+                                                         @RequestParam String question,
+                                                         @RequestHeader(value = CLIENT_SEQ, required = false) Long clientSeq,
+                                                         @RequestHeader(value = "Prefer", required = false) String prefer,
+                                                         Authentication auth) {
+        if (returnMinimal(prefer)) {
+            return minimal(studyService.addQuestionLogAck(sessionId, question, clientSeq));
+        }
+        return ResponseEntity.ok(ApiResponse.ok(studyService.addQuestionLog(sessionId, question, clientSeq)));
+    }
+
+    private static boolean returnMinimal(String prefer) {
+        return prefer != null && prefer.toLowerCase().contains(RETURN_MINIMAL);
+    }
+
+    private static ResponseEntity<ApiResponse<?>> minimal(SessionAckDTO ack) {
+        return ResponseEntity.ok()
+                .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+                .body(ApiResponse.ok(ack));
+    }
+
+    private boolean respondAsync(String prefer) {
+        if (!frameAnalysisPipeline.isEnabled()) {
+            return false;
+        }
+        if (prefer != null && prefer.toLowerCase().contains("respond-async")) {
+            return true;
+        }
+        return frameAnalysisPipeline.isAsyncByDefault();
     }
 }
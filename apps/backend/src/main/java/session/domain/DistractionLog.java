@@ -10,9 +10,11 @@ import java.time.Instant;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class DistractionLog {
+public class DistractionLog implements SessionEvent {
     private Instant detectedAt;   // 딴짓이 감지된 시각 (예: "2025-09-22T23:34:34Z")
     private String activity;      // 감지된 딴짓 내용 (예: "휴대폰 봄")
     private String detectionType; // 감지 소스 (예: VISION_AI)
     private SelfFeedback selfFeedback; // 멘티의 자기 피드백
+    private Long seq;            // 세션 내 이벤트 순번 (버킷 저장 시 부여)
+    private Long clientSeq;      // 클라이언트가 붙인 순번 (재전송 중복 차단, 없으면 null)
 }
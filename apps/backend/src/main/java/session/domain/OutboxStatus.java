@@ -0,0 +1,3 @@
+package session.domain;
+
+public enum OutboxStatus { PENDING, PROCESSING, DONE, FAILED }
@@ -0,0 +1,14 @@
+package session.domain;
+
+/**
+ * 세션 이벤트 버킷에 저장되는 로그 공통 인터페이스.
+ * seq 는 세션 안에서 0부터 증가하는 순번이며, 버킷 도입 전 세션에 임베드된 로그는 null 입니다.
+ * clientSeq 는 클라이언트가 세션마다 증가시키며 붙이는 순번으로, 재전송된 요청을 걸러내는 데 씁니다.
+ */
+public interface SessionEvent {
+    Long getSeq();
+
+    void setSeq(Long seq);
+
+    Long getClientSeq();
+}
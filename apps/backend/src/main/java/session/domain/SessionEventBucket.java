@@ -0,0 +1,51 @@
+package session.domain;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 세션 로그를 고정 용량으로 나눠 담는 버킷 도큐먼트.
+ * 세션의 seq 번째 이벤트는 seq / CAPACITY 번 버킷에 들어가므로, 버킷 하나에는 최대 CAPACITY 개의 로그만 쌓입니다.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document("session_event_buckets")
+@CompoundIndex(name = "session_bucket_idx", def = "{'sessionId': 1, 'bucketNo': 1}", unique = true)
+public class SessionEventBucket {
+
+    public static final int CAPACITY = 200;
+
+    @Id
+    private String id;            // {sessionId}:{bucketNo}
+
+    private String sessionId;
+    private int bucketNo;
+    private int count;            // 이 버킷에 들어간 로그 수
+    private Instant createdAt;
+
+    @Builder.Default
+    private List<StudyLog> studyLogs = new ArrayList<>();
+
+    @Builder.Default
+    private List<DistractionLog> distractionLogs = new ArrayList<>();
+
+    @Builder.Default
+    private List<QuestionLog> questionLogs = new ArrayList<>();
+
+    public static String idOf(String sessionId, int bucketNo) {
+        return sessionId + ":" + bucketNo;
+    }
+
+    public static int bucketNoOf(long seq) {
+        return (int) (seq / CAPACITY);
+    }
+}
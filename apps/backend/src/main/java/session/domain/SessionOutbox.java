@@ -0,0 +1,33 @@
+package session.domain;
+
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * 세션 종료 후처리(리포트 생성, Q&A 보드 등록) 작업.
+ * 세션을 ENDED 로 바꾸는 같은 조건부 갱신에서 세션 헤더에 함께 기록되므로, 종료와 작업 등록이 한 번의 원자적 쓰기로 처리됩니다.
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionOutbox {
+    private OutboxStatus status;
+    private int attempts;          // 지금까지 처리를 시도한 횟수
+    private Instant nextAttemptAt; // 이 시각 이후에 처리 가능
+    private Instant lockedUntil;   // PROCESSING 점유 만료 시각 (만료되면 다른 노드가 다시 가져감)
+    private String lastError;
+    private Instant createdAt;
+    private Instant completedAt;
+
+    public static SessionOutbox pending(Instant now) {
+        return SessionOutbox.builder()
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
@@ -1,3 +1,50 @@
 package session.domain;
 
-public enum SessionStatus { ACTIVE, PAUSED, ENDED}
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 세션 상태와 허용되는 상태 변경.
+ * <pre>
+ * ACTIVE --딴짓 감지--> PAUSED --재개--> ACTIVE
+ * ACTIVE, PAUSED --종료--> ENDED (더 바뀌지 않음)
+ * IMPORTING --가져오기 완료--> ENDED
+ * </pre>
+ * 일시정지 중에 딴짓이 또 감지되면 PAUSED 를 유지합니다.
+ * IMPORTING 은 오프라인 세션을 가져오는 동안의 상태로, 진행 중 세션으로 보지 않으며(시작/정리/실시간 쓰기 대상 아님)
+ * 일반 상태 변경으로는 바뀌지 않고 가져오기를 마칠 때만 ENDED 가 됩니다.
+ */
+public enum SessionStatus {
+    ACTIVE, PAUSED, ENDED, IMPORTING;
+
+    /**
+     * 이 상태에서 next 로 바꿀 수 있는지 여부.
+     */
+    public boolean canTransitionTo(SessionStatus next) {
+        return switch (this) {
+            case ACTIVE -> next == PAUSED || next == ENDED;
+            case PAUSED -> next == PAUSED || next == ACTIVE || next == ENDED;
+            case ENDED, IMPORTING -> false;
+        };
+    }
+
+    /**
+     * 실시간으로 기록 중인 세션인지 여부. (매칭당 하나, 방치 시 정리 대상)
+     */
+    public boolean isOpen() {
+        return this == ACTIVE || this == PAUSED;
+    }
+
+    /**
+     * next 로 바뀔 수 있는 이전 상태들. 조건부 갱신의 status 조건으로 씁니다.
+     */
+    public Set<SessionStatus> sources() {
+        Set<SessionStatus> sources = EnumSet.noneOf(SessionStatus.class);
+        for (SessionStatus status : values()) {
+            if (status.canTransitionTo(this)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
+}
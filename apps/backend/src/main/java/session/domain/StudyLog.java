@@ -8,7 +8,9 @@ import java.time.Instant;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class StudyLog {
+public class StudyLog implements SessionEvent {
     private String content;
     private Instant timestamp;
+    private Long seq;            // 세션 내 이벤트 순번 (버킷 저장 시 부여)
+    private Long clientSeq;      // 클라이언트가 붙인 순번 (재전송 중복 차단, 없으면 null)
 }
\ No newline at end of file
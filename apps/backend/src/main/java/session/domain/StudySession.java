@@ -2,6 +2,8 @@ package session.domain;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
@@ -14,6 +16,14 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document("study_sessions")
+@CompoundIndex(name = "outbox_due_idx", def = "{'outbox.status': 1, 'outbox.nextAttemptAt': 1}", sparse = true)
+// 매칭마다 진행 중(ACTIVE/PAUSED)인 세션은 하나만. 종료된 세션은 인덱스에 들어가지 않음
+@CompoundIndex(name = "open_match_idx", def = "{'matchId': 1}", unique = true,
+        partialFilter = "{'status': {'$in': ['ACTIVE', 'PAUSED']}}")
+// 방치된 진행 중 세션 정리 (IdleSessionReaper)
+@CompoundIndex(name = "open_idle_idx", def = "{'status': 1, 'lastEventAt': 1}")
+// 주간 리포트 대상 매칭과 매칭별 주간 세션 조회 (WeeklyReportService)
+@CompoundIndex(name = "ended_match_idx", def = "{'endedAt': 1, 'matchId': 1}")
 public class StudySession {
     @Id
     private String sessionId;
@@ -24,7 +34,31 @@ public class StudySession {
 
     private Instant startedAt;
     private Instant endedAt;
-    private SessionStatus status; // ENUM [ACTIVE, PAUSED, ENDED]
+    private SessionStatus status; // ENUM [ACTIVE, PAUSED, ENDED, IMPORTING]
+
+    // 로그 본문은 session_event_buckets 에 저장하고 헤더에는 카운터만 둔다.
+    // eventCount 가 null 인 세션은 버킷 도입 이전 세션으로, 아래 임베드 배열에 로그가 들어 있다.
+    private Long eventCount;          // 다음 이벤트 seq (= 지금까지 기록된 이벤트 수)
+    private Integer studyLogCount;
+    private Integer distractionCount;
+    private Integer questionCount;
+
+    // 딴짓 기록/자기 피드백/상태 변경과 같은 원자적 쓰기에서 함께 갱신하는 누적 지표.
+    // distractionMillis 가 null 인 세션은 도입 이전 세션으로, 딴짓 시간을 로그에서 다시 계산한다.
+    private Long distractionMillis;   // 자기 피드백까지 걸린 딴짓 시간 합계
+    private Integer pauseCount;       // PAUSED 로 바뀐 횟수
+    private Instant lastTransitionAt; // 마지막 상태 변경 시각
+    private Instant lastEventAt;      // 마지막 로그/상태 변경/피드백 시각 (방치된 세션 정리 기준, 도입 이전 세션은 null)
+
+    // 클라이언트 순번(clientSeq)의 최댓값. 로그 추가 조건부 갱신에서 이보다 큰 순번만 받아 재전송을 한 번만 반영한다.
+    private Long clientSeqHwm;
+
+    // 헤더를 바꾸는 쓰기마다 올라가는 번호. 클라이언트가 응답 순서를 맞추는 데 쓰고, 상태 변경은 이 값으로 compare-and-set 한다.
+    // save() 도 이 값으로 낙관적 잠금을 걸므로 이미 있는 세션은 save() 대신 조건부 갱신으로 바꾼다. (도입 이전 세션은 첫 쓰기까지 null)
+    @Version
+    private Long version;
+
+    private SessionOutbox outbox; // 종료 후처리 작업 (종료 시 함께 기록)
 
     @Builder.Default
     private List<StudyLog> studyLogs = new ArrayList<>();
@@ -34,4 +68,25 @@ public class StudySession {
 
     @Builder.Default
     private List<QuestionLog> questionLogs = new ArrayList<>();
+
+    /**
+     * 로그를 이벤트 버킷에 저장하는 세션인지 여부.
+     */
+    public boolean hasEventBuckets() {
+        return eventCount != null;
+    }
+
+    /**
+     * 딴짓 시간을 로그를 다시 훑지 않고 누적 지표로 읽을 수 있는 세션인지 여부.
+     */
+    public boolean hasRunningMetrics() {
+        return distractionMillis != null;
+    }
+
+    /**
+     * 클라이언트 순번이 이미 반영된(재전송된) 이벤트인지 여부.
+     */
+    public boolean hasAccepted(Long clientSeq) {
+        return clientSeq != null && clientSeqHwm != null && clientSeq <= clientSeqHwm;
+    }
 }
\ No newline at end of file
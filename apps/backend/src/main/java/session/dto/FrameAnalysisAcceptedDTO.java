@@ -0,0 +1,10 @@
+package session.dto;
+
+/**
+ * 비동기 프레임 분석 요청이 큐에 들어갔음을 알리는 응답
+ */
+public record FrameAnalysisAcceptedDTO(
+        String sessionId,
+        int queueDepth,       // 현재 노드에서 분석을 기다리는 프레임 수
+        long nextFrameAfterMs // 다음 프레임을 보내기까지 기다릴 시간
+) {}
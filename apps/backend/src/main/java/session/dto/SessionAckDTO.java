@@ -0,0 +1,44 @@
+package session.dto;
+
+import session.domain.SessionStatus;
+import session.domain.StudySession;
+
+import java.util.List;
+
+/**
+ * 세션 변경 요청의 간단 응답 (Prefer: return=minimal)
+ * 로그 배열 대신 상태, 카운터, version 과 이번 요청으로 추가된 항목만 담습니다.
+ */
+public record SessionAckDTO(
+        String sessionId,
+        SessionStatus status,
+        Long version,           // 헤더를 바꾸는 쓰기마다 올라가는 번호 (응답 순서 맞추기용)
+        Long eventCount,
+        int studyLogCount,
+        int distractionCount,
+        int questionCount,
+        int pauseCount,
+        Object appended         // 이번 요청으로 추가된 로그나 피드백 (없으면 null)
+) {
+    public static SessionAckDTO of(StudySession session, Object appended) {
+        return new SessionAckDTO(
+                session.getSessionId(),
+                session.getStatus(),
+                session.getVersion(),
+                session.getEventCount(),
+                count(session.getStudyLogCount(), session.getStudyLogs()),
+                count(session.getDistractionCount(), session.getDistractionLogs()),
+                count(session.getQuestionCount(), session.getQuestionLogs()),
+                session.getPauseCount() == null ? 0 : session.getPauseCount(),
+                appended
+        );
+    }
+
+    // 카운터 도입 이전 세션은 임베드 배열 크기로 대신함
+    private static int count(Integer counter, List<?> logs) {
+        if (counter != null) {
+            return counter;
+        }
+        return logs == null ? 0 : logs.size();
+    }
+}
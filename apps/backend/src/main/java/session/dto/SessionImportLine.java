@@ -0,0 +1,28 @@
+package session.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.Instant;
+
+/**
+ * 오프라인 세션 가져오기(NDJSON)의 한 줄. type 에 따라 쓰는 필드가 다릅니다.
+ * <p>
+ * START(matchId, mentorUserId) → STUDY_LOG(content) / QUESTION(question) / DISTRACTION(activity, detectionType)
+ * / FEEDBACK(comment) / RESUME → END 순서로 보내며, 모든 줄에 발생 시각(at)이 있어야 합니다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record SessionImportLine(
+        Type type,
+        Instant at,
+        String matchId,
+        String mentorUserId,
+        String content,
+        String question,
+        String activity,
+        String detectionType,
+        String comment
+) {
+    public enum Type {
+        START, STUDY_LOG, QUESTION, DISTRACTION, FEEDBACK, RESUME, END
+    }
+}
@@ -0,0 +1,13 @@
+package session.dto;
+
+import java.time.Instant;
+
+/**
+ * 오프라인 세션 가져오기 결과
+ */
+public record SessionImportResultDTO(
+        String sessionId,
+        long importedEvents, // 기록된 학습/질문/딴짓 로그 수
+        Instant startedAt,
+        Instant endedAt
+) {}
@@ -0,0 +1,37 @@
+package session.dto;
+
+import session.domain.DistractionLog;
+import session.domain.SessionEvent;
+import session.domain.SessionStatus;
+import session.domain.StudyLog;
+import session.service.StudySessionEvent;
+
+import java.time.Instant;
+
+/**
+ * SSE(/api/sessions/live)로 내려보내는 세션 이벤트 메시지
+ */
+public record SessionLiveMessageDTO(
+        StudySessionEvent.Type type,         // STATUS_CHANGED | LOGGED
+        String sessionId,
+        String matchId,
+        SessionStatus status,                // 바뀐 상태, LOGGED 일 때는 기록 후 상태
+        SessionTimelineItemDTO.Type logType, // LOGGED 일 때만
+        SessionEvent log,                    // LOGGED 일 때만
+        Instant occurredAt
+) {
+    public static SessionLiveMessageDTO from(StudySessionEvent event) {
+        return new SessionLiveMessageDTO(event.type(), event.sessionId(), event.matchId(), event.status(),
+                logTypeOf(event.log()), event.log(), event.occurredAt());
+    }
+
+    private static SessionTimelineItemDTO.Type logTypeOf(SessionEvent log) {
+        if (log == null) {
+            return null;
+        }
+        if (log instanceof StudyLog) {
+            return SessionTimelineItemDTO.Type.STUDY_LOG;
+        }
+        return log instanceof DistractionLog ? SessionTimelineItemDTO.Type.DISTRACTION : SessionTimelineItemDTO.Type.QUESTION;
+    }
+}
@@ -0,0 +1,26 @@
+package session.dto;
+
+import session.domain.SessionStatus;
+import session.service.StudySessionEvent;
+
+import java.time.Instant;
+
+/**
+ * WebSocket 으로 내려보내는 세션 이벤트 메시지
+ */
+public record SessionSocketMessageDTO(
+        StudySessionEvent.Type type,  // FRAME_ANALYZED | STATUS_CHANGED
+        String sessionId,
+        SessionStatus status,         // STATUS_CHANGED 일 때만
+        Boolean detected,             // FRAME_ANALYZED 일 때만
+        String activity,
+        String detectionType,
+        Instant occurredAt,
+        Long nextFrameAfterMs         // 다음 프레임을 보내기까지 기다릴 시간 (종료 시에는 null)
+) {
+    public static SessionSocketMessageDTO from(StudySessionEvent event, Long nextFrameAfterMs) {
+        Boolean detected = event.type() == StudySessionEvent.Type.FRAME_ANALYZED ? event.detected() : null;
+        return new SessionSocketMessageDTO(event.type(), event.sessionId(), event.status(), detected,
+                event.activity(), event.detectionType(), event.occurredAt(), nextFrameAfterMs);
+    }
+}
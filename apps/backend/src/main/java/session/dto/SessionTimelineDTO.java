@@ -0,0 +1,16 @@
+package session.dto;
+
+import session.domain.SessionStatus;
+
+import java.util.List;
+
+/**
+ * 세션 타임라인 한 페이지
+ */
+public record SessionTimelineDTO(
+        String sessionId,
+        SessionStatus status,
+        List<SessionTimelineItemDTO> items,
+        Long nextAfterSeq,      // 다음 페이지 요청에 쓸 afterSeq (마지막 페이지면 null)
+        boolean hasMore
+) {}
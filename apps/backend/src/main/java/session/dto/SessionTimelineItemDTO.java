@@ -0,0 +1,19 @@
+package session.dto;
+
+import java.time.Instant;
+
+/**
+ * 세션 타임라인의 항목 하나. type 에 맞는 필드 하나만 채워집니다.
+ */
+public record SessionTimelineItemDTO(
+        Type type,
+        long seq,               // 세션 안의 순번 (다음 페이지를 요청할 때 afterSeq 로 사용)
+        Instant at,
+        StudyLogDTO studyLog,
+        DistractionLogDTO distraction,
+        QuestionLogDTO question
+) {
+    public enum Type {
+        STUDY_LOG, DISTRACTION, QUESTION
+    }
+}
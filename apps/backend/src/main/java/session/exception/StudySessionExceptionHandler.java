@@ -0,0 +1,30 @@
+package session.exception;
+
+import common.dto.ApiError;
+import common.dto.ApiResponse;
+import common.dto.ErrorCode;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import session.controller.StudySessionController;
+
+@RestControllerAdvice(assignableTypes = StudySessionController.class)
+public class StudySessionExceptionHandler {
+
+    // 상태 변경이 재시도 후에도 다른 쓰기와 겹친 경우: 클라이언트가 다시 시도하면 됨
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ApiResponse<Void> handleConflict(OptimisticLockingFailureException ex) {
+        return ApiResponse.error(new ApiError(ErrorCode.SESSION_CONFLICT));
+    }
+
+    // 세션 매칭의 멘토/멘티가 아닌 사용자가 세션 데이터를 조회한 경우
+    @ResponseStatus(HttpStatus.FORBIDDEN)
+    @ExceptionHandler(AccessDeniedException.class)
+    public ApiResponse<Void> handleForbidden(AccessDeniedException ex) {
+        return ApiResponse.error(new ApiError(ErrorCode.FORBIDDEN));
+    }
+}
@@ -0,0 +1,175 @@
+package session.repository;
+
+import session.domain.DistractionLog;
+import session.domain.QuestionLog;
+import session.domain.SelfFeedback;
+import session.domain.SessionEvent;
+import session.domain.SessionStatus;
+import session.domain.StudyLog;
+import session.domain.StudySession;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * study_sessions 도큐먼트를 통째로 다시 쓰지 않고 조건부 갱신으로 처리하는 원자적 쓰기 경로입니다.
+ * <p>
+ * 로그 본문은 세션 헤더가 아니라 session_event_buckets 의 고정 용량 버킷에 저장하고, 헤더에는 카운터만 $inc 합니다.
+ * 버킷 도입 이전 세션(eventCount 없음)은 기존처럼 헤더의 임베드 배열에 $push 합니다.
+ * 모든 쓰기 메서드는 갱신된 세션 헤더를 반환하며, 세션이 없거나 조건이 맞지 않으면 빈 Optional 을 반환합니다.
+ * 로그에 클라이언트 순번(clientSeq)이 있으면 헤더의 clientSeqHwm 보다 클 때만 추가하고 같은 갱신으로 clientSeqHwm 을 올리므로,
+ * 재전송된 요청은 추가 조회 없이 조건에서 걸러집니다.
+ */
+public interface StudySessionRepositoryCustom {
+
+    /**
+     * 매칭에 진행 중(ACTIVE/PAUSED)인 세션이 있으면 그 세션을, 없으면 fresh 를 새로 넣고 반환합니다. (findAndModify upsert 한 번)
+     * 동시에 시작해도 matchId 의 부분 유니크 인덱스 때문에 진행 중 세션은 하나만 만들어집니다.
+     */
+    StudySession startOrGetOpen(StudySession fresh);
+
+    /**
+     * 종료되지 않은 세션에 학습 로그를 추가합니다.
+     */
+    Optional<StudySession> appendStudyLog(String sessionId, StudyLog log);
+
+    /**
+     * 종료되지 않은 세션에 질문 로그를 추가합니다.
+     */
+    Optional<StudySession> appendQuestionLog(String sessionId, QuestionLog log);
+
+    /**
+     * 종료되지 않은 세션에 딴짓 로그를 추가하고 상태를 PAUSED 로 바꿉니다.
+     * 이미 PAUSED 인 세션은 상태가 바뀌지 않으므로 lastTransitionAt 과 pauseCount 를 그대로 둡니다.
+     */
+    Optional<StudySession> appendDistraction(String sessionId, DistractionLog log);
+
+    /**
+     * 여러 로그를 한 번에 추가합니다. (메모리에 모아 둔 로그를 내려쓰는 용도)
+     * 헤더 갱신 한 번으로 연속된 seq 구간을 할당받고, 버킷마다 한 번의 $push $each 로 기록합니다.
+     * 버킷 도입 이전 세션은 지원하지 않으며 빈 Optional 을 반환합니다.
+     * 클라이언트 순번은 호출하는 쪽에서 이미 걸렀다고 보고, 가장 큰 순번으로 clientSeqHwm 만 올립니다.
+     * 자기 피드백이 붙은 딴짓 로그는 감지부터 피드백까지의 시간을 distractionMillis 에 더합니다.
+     *
+     * 이미 status 인 세션은 상태가 바뀌지 않으므로 lastTransitionAt, pauseCount 와 상태 변경분 version 을 그대로 둡니다.
+     *
+     * @param events          발생 순서대로 정렬된 StudyLog, QuestionLog, DistractionLog
+     * @param status          null 이 아니면 함께 변경할 세션 상태
+     * @param statusChangedAt 상태가 바뀐 시각
+     */
+    Optional<StudySession> appendEvents(String sessionId, List<SessionEvent> events,
+                                        SessionStatus status, Instant statusChangedAt);
+
+    /**
+     * {@link #appendEvents(String, List, SessionStatus, Instant)} 와 같고, 그사이 상태가 실제로 몇 번 바뀌었는지 받아 그대로 싣습니다.
+     * 메모리에 모아 둔 세션이 일시정지와 재개를 함께 내려쓸 때, 변경마다 안내한 version 과 일시정지 횟수를 헤더와 맞추는 데 씁니다.
+     *
+     * @param transitions 모아 둔 상태 변경 횟수 (status 가 null 이면 0)
+     * @param pauses      그중 ACTIVE 에서 PAUSED 로 바뀐 횟수
+     */
+    Optional<StudySession> appendEvents(String sessionId, List<SessionEvent> events,
+                                        SessionStatus status, Instant statusChangedAt, int transitions, int pauses);
+
+    /**
+     * 마지막 딴짓 로그에 자기 피드백을 붙이고, 감지부터 피드백까지의 시간을 헤더의 distractionMillis 에 더합니다.
+     * 이미 피드백이 있으면 갱신하지 않습니다.
+     * 붙이는 사이 더 새로운 딴짓이 들어오면 지난 로그에 붙인 피드백을 되돌리고 다시 읽어 새 로그에 붙입니다.
+     *
+     * @throws org.springframework.dao.OptimisticLockingFailureException 다시 읽어도 새 딴짓이 계속 들어온 경우
+     */
+    Optional<StudySession> attachSelfFeedbackToLastDistraction(String sessionId, SelfFeedback feedback);
+
+    /**
+     * 읽어 둔 헤더의 상태와 version 이 그대로일 때만 상태를 next 로 바꿉니다. (compare-and-set)
+     * 그사이 다른 쓰기가 있었으면 빈 Optional 을 반환하므로 호출자가 다시 읽고 재시도합니다.
+     *
+     * @param expected 마지막으로 읽은 세션 헤더
+     */
+    Optional<StudySession> compareAndSetStatus(StudySession expected, SessionStatus next, Instant at);
+
+    /**
+     * 종료되지 않은 세션을 ENDED 로 바꾸고 종료 시각과 종료 후처리 작업(outbox)을 함께 기록합니다.
+     */
+    Optional<StudySession> endUnlessEnded(String sessionId, Instant endedAt);
+
+    /**
+     * 가져오기(IMPORTING) 중인 세션을 ENDED 로 바꾸고, 재생하며 센 일시정지 횟수와 종료 후처리 작업(outbox)을 함께 기록합니다.
+     */
+    Optional<StudySession> finishImport(String sessionId, Instant endedAt, int pauses);
+
+    /**
+     * 마지막 활동(lastEventAt, 도입 이전 세션은 startedAt)이 idleBefore 보다 이른 진행 중 세션의 헤더를 batchSize 개씩 읽습니다.
+     * 로그 배열 없이 정리에 필요한 필드만 읽으며, 호출자가 스트림을 닫아야 합니다.
+     */
+    Stream<StudySession> streamIdleOpenSessions(Instant idleBefore, int batchSize);
+
+    /**
+     * 진행 중 세션의 마지막 활동 시각(lastEventAt)을 at 까지 당깁니다. ($max, 이미 더 늦으면 그대로)
+     * 분석된 프레임처럼 로그를 남기지 않는 활동용이라 version 은 올리지 않습니다.
+     */
+    void touchLastEventAt(String sessionId, Instant at);
+
+    /**
+     * 읽어 둔 헤더의 version 과 lastEventAt 이 그대로일 때만(그사이 활동이 없었을 때만) 세션을 종료합니다.
+     * 종료 시각과 종료 후처리 작업(outbox)을 {@link #endUnlessEnded} 와 같이 기록합니다.
+     */
+    Optional<StudySession> endIfUnchanged(StudySession seen, Instant endedAt);
+
+    /**
+     * 세션 헤더와 이벤트 버킷을 함께 지웁니다. (가져오기에 실패한 세션 정리용)
+     */
+    void deleteWithEvents(String sessionId);
+
+    /**
+     * 처리할 차례가 된 종료 후처리 작업 하나를 PROCESSING 으로 점유하고 시도 횟수를 올립니다.
+     * 점유가 만료된 PROCESSING 작업(처리 중 노드가 죽은 경우)도 다시 가져옵니다. 없으면 빈 Optional.
+     */
+    Optional<StudySession> claimOutbox(Instant now, Duration lease);
+
+    /**
+     * 점유한 종료 후처리 작업을 완료 처리합니다. 점유가 이미 넘어갔으면 false.
+     */
+    boolean completeOutbox(StudySession claimed, Instant now);
+
+    /**
+     * 점유한 종료 후처리 작업을 nextAttemptAt 이후에 다시 시도하도록 돌려놓습니다.
+     * nextAttemptAt 이 null 이면 더 시도하지 않고 FAILED 로 남깁니다. 점유가 이미 넘어갔으면 false.
+     */
+    boolean releaseOutbox(StudySession claimed, Instant nextAttemptAt, String error);
+
+    /**
+     * endedAt 이 start 와 end 사이(양 끝 포함)인 세션이 하나라도 있는 매칭 ID 를 한 번의 distinct 로 조회합니다. (ended_match_idx)
+     */
+    Set<String> findMatchIdsEndedBetween(Instant start, Instant end);
+
+    /**
+     * 딴짓 로그 개수만 조회합니다. 세션이 없으면 -1 을 반환합니다.
+     */
+    int countDistractionLogs(String sessionId);
+
+    /**
+     * 세션 헤더에 버킷의 로그를 seq 순서로 채워 반환합니다. 버킷 도입 이전 세션은 그대로 반환합니다.
+     */
+    StudySession loadLogs(StudySession session);
+
+    /**
+     * 세션의 딴짓 로그만 버킷에서 읽어 seq 순서로 반환합니다.
+     */
+    List<DistractionLog> findDistractionLogs(StudySession session);
+
+    /**
+     * 버킷에서 seq 가 afterSeq 보다 큰 로그를 seq 순서로 최대 limit 개 읽습니다. (타임라인 페이지)
+     * 요청한 종류의 배열만, 조건을 통과한 원소만 Mongo 에서 내보내고 페이지가 차면 버킷을 더 읽지 않습니다.
+     * 버킷 도입 이전 세션은 빈 목록을 반환합니다.
+     *
+     * @param types    읽을 로그 종류 (StudyLog, DistractionLog, QuestionLog)
+     * @param afterSeq 이 순번 다음부터 (처음부터면 -1)
+     */
+    List<SessionEvent> findEventsAfter(String sessionId, Collection<Class<? extends SessionEvent>> types,
+                                       long afterSeq, int limit);
+}
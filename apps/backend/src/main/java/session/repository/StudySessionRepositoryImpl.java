@@ -0,0 +1,727 @@
+package session.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import session.domain.DistractionLog;
+import session.domain.OutboxStatus;
+import session.domain.QuestionLog;
+import session.domain.SelfFeedback;
+import session.domain.SessionEvent;
+import session.domain.SessionEventBucket;
+import session.domain.SessionOutbox;
+import session.domain.SessionStatus;
+import session.domain.StudyLog;
+import session.domain.StudySession;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.project;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.sort;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.stage;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * {@link StudySessionRepositoryCustom} 의 MongoTemplate 구현체.
+ * Spring Data 가 이름 규칙(Impl)으로 StudySessionRepository 에 합쳐 줍니다.
+ */
+@RequiredArgsConstructor
+public class StudySessionRepositoryImpl implements StudySessionRepositoryCustom {
+
+    private static final FindAndModifyOptions RETURN_NEW = FindAndModifyOptions.options().returnNew(true);
+    private static final Comparator<SessionEvent> BY_SEQ =
+            Comparator.comparing(SessionEvent::getSeq, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /** 피드백을 붙이는 사이 새 딴짓이 들어와 다시 읽는 최대 횟수 */
+    private static final int MAX_FEEDBACK_ATTEMPTS = 3;
+
+    private static final Map<String, String> COUNTERS = Map.of(
+            "studyLogs", "studyLogCount",
+            "questionLogs", "questionCount",
+            "distractionLogs", "distractionCount");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public StudySession startOrGetOpen(StudySession fresh) {
+        Query open = Query.query(where("matchId").is(fresh.getMatchId())
+                .and("status").in(SessionStatus.ACTIVE, SessionStatus.PAUSED));
+        // 새로 넣을 때만 쓸 필드. matchId 는 조건의 일치 값이 그대로 들어감
+        Document inserted = new Document();
+        mongoTemplate.getConverter().write(fresh, inserted);
+        inserted.remove("_id");
+        inserted.remove("matchId");
+        Update update = new Update();
+        inserted.forEach(update::setOnInsert);
+
+        FindAndModifyOptions upsert = FindAndModifyOptions.options().upsert(true).returnNew(true);
+        try {
+            return mongoTemplate.findAndModify(open, update, upsert, StudySession.class);
+        } catch (DuplicateKeyException e) {
+            // 다른 요청이 같은 매칭의 세션을 먼저 넣은 경우: 이제 조건에 맞으므로 한 번 더 시도하면 그 세션을 반환함
+            return mongoTemplate.findAndModify(open, update, upsert, StudySession.class);
+        }
+    }
+
+    @Override
+    public Optional<StudySession> appendStudyLog(String sessionId, StudyLog log) {
+        return appendEvent(sessionId, "studyLogs", "studyLogCount", log, null, null);
+    }
+
+    @Override
+    public Optional<StudySession> appendQuestionLog(String sessionId, QuestionLog log) {
+        return appendEvent(sessionId, "questionLogs", "questionCount", log, null, null);
+    }
+
+    @Override
+    public Optional<StudySession> appendDistraction(String sessionId, DistractionLog log) {
+        return appendEvent(sessionId, "distractionLogs", "distractionCount", log,
+                SessionStatus.PAUSED, log.getDetectedAt()); // 학습 일시정지
+    }
+
+    @Override
+    public Optional<StudySession> appendEvents(String sessionId, List<SessionEvent> events,
+                                               SessionStatus status, Instant statusChangedAt) {
+        return appendEvents(sessionId, events, status, statusChangedAt, status != null ? 1 : 0,
+                status == SessionStatus.PAUSED ? 1 : 0, true);
+    }
+
+    @Override
+    public Optional<StudySession> appendEvents(String sessionId, List<SessionEvent> events, SessionStatus status,
+                                               Instant statusChangedAt, int transitions, int pauses) {
+        return appendEvents(sessionId, events, status, statusChangedAt, transitions, pauses, false);
+    }
+
+    /**
+     * @param unlessAlready true 면 이미 status 인 세션의 상태 필드는 건드리지 않음.
+     *                      false 면 호출 측(메모리에 모아 둔 세션)이 센 상태 변경을 그대로 실음
+     */
+    private Optional<StudySession> appendEvents(String sessionId, List<SessionEvent> events, SessionStatus status,
+                                                Instant statusChangedAt, int transitions, int pauses,
+                                                boolean unlessAlready) {
+        if (events.isEmpty()) {
+            if (status == null) {
+                return Optional.ofNullable(mongoTemplate.findById(sessionId, StudySession.class));
+            }
+            // 쓸 로그가 없으면 상태만 바꿈. 이미 그 상태인 세션은 바꿀 것이 없으므로 헤더를 그대로 읽음
+            Set<SessionStatus> from = EnumSet.copyOf(SessionStatus.ENDED.sources());
+            if (unlessAlready) {
+                from.remove(status);
+            }
+            Update update = transition(new Update(), status, statusChangedAt, pauses).inc("version", Math.max(1, transitions));
+            Optional<StudySession> changed = modify(Query.query(where("sessionId").is(sessionId).and("status").in(from)), update);
+            return changed.isPresent() || !unlessAlready ? changed
+                    : Optional.ofNullable(mongoTemplate.findOne(notEnded(sessionId), StudySession.class));
+        }
+
+        Criteria bucketed = where("sessionId").is(sessionId).and("eventCount").exists(true);
+        Map<String, List<SessionEvent>> byField = new LinkedHashMap<>();
+        for (SessionEvent event : events) {
+            byField.computeIfAbsent(fieldOf(event), key -> new ArrayList<>()).add(event);
+        }
+        Instant lastEventAt = events.stream().map(StudySessionRepositoryImpl::occurredAt).max(Instant::compareTo).orElseThrow();
+        Instant lastActivityAt = status != null && statusChangedAt != null && statusChangedAt.isAfter(lastEventAt)
+                ? statusChangedAt : lastEventAt;
+        // 자기 피드백이 붙은 채로 들어온 딴짓 로그(오프라인 세션 가져오기)는 딴짓 시간을 같은 갱신으로 더함
+        long distractionMillis = byField.getOrDefault("distractionLogs", List.of()).stream()
+                .mapToLong(log -> distractionMillisOf((DistractionLog) log, ((DistractionLog) log).getSelfFeedback()))
+                .sum();
+        HeaderChanges changes = (headerUpdate, statusChanged) -> {
+            // 로그 하나마다, 상태 변경마다 version 을 올림 (메모리에 모아 둔 세션이 안내한 version 과 맞춤)
+            headerUpdate.inc("eventCount", events.size())
+                    .inc("version", events.size() + (statusChanged ? Math.max(1, transitions) : 0));
+            byField.forEach((field, logs) -> headerUpdate.inc(COUNTERS.get(field), logs.size()));
+            events.stream().map(SessionEvent::getClientSeq).filter(Objects::nonNull).max(Long::compare)
+                    .ifPresent(clientSeq -> headerUpdate.max("clientSeqHwm", clientSeq));
+            if (distractionMillis > 0) {
+                headerUpdate.inc("distractionMillis", distractionMillis);
+            }
+            return headerUpdate.max("lastEventAt", lastActivityAt);
+        };
+        StudySession header;
+        if (status == null) {
+            header = mongoTemplate.findAndModify(Query.query(bucketed).addCriteria(where("status").ne(SessionStatus.ENDED)),
+                    changes.applyTo(new Update(), false), RETURN_NEW, StudySession.class);
+        } else if (unlessAlready) {
+            header = modifyWithStatus(bucketed, SessionStatus.ENDED.sources(), status, statusChangedAt, pauses,
+                    changes, null);
+        } else {
+            header = mongoTemplate.findAndModify(Query.query(bucketed).addCriteria(where("status").ne(SessionStatus.ENDED)),
+                    changes.applyTo(transition(new Update(), status, statusChangedAt, pauses), true),
+                    RETURN_NEW, StudySession.class);
+        }
+        if (header == null) {
+            return Optional.empty();
+        }
+
+        // 할당받은 구간 [eventCount - n, eventCount) 을 발생 순서대로 매기고, 버킷별로 모아 한 번씩 push
+        long firstSeq = header.getEventCount() - events.size();
+        Map<Integer, Map<String, List<SessionEvent>>> byBucket = new TreeMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            SessionEvent event = events.get(i);
+            event.setSeq(firstSeq + i);
+            byBucket.computeIfAbsent(SessionEventBucket.bucketNoOf(event.getSeq()), key -> new LinkedHashMap<>())
+                    .computeIfAbsent(fieldOf(event), key -> new ArrayList<>())
+                    .add(event);
+        }
+        byBucket.forEach((bucketNo, logs) -> pushToBucket(sessionId, bucketNo, logs));
+        return Optional.of(header);
+    }
+
+    @Override
+    public Optional<StudySession> attachSelfFeedbackToLastDistraction(String sessionId, SelfFeedback feedback) {
+        for (int attempt = 1; ; attempt++) {
+            StudySession header = findCounters(sessionId);
+            if (header == null) {
+                return Optional.empty();
+            }
+            if (!header.hasEventBuckets()) {
+                return attachSelfFeedbackToEmbeddedLog(sessionId, feedback);
+            }
+            Optional<StudySession> attached = attachSelfFeedbackToBucketLog(header, feedback);
+            if (attached != null) {
+                return attached;
+            }
+            if (attempt >= MAX_FEEDBACK_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("피드백을 붙이는 중 새 딴짓 로그가 계속 들어왔습니다: " + sessionId);
+            }
+        }
+    }
+
+    /**
+     * 읽은 헤더 기준 마지막 딴짓 로그에 피드백을 붙입니다.
+     * 버킷과 헤더는 한 번에 갱신할 수 없으므로, 버킷에 먼저 붙인 뒤 헤더의 distractionCount 가 읽은 값 그대로일 때만 헤더를 갱신합니다.
+     * 그사이 새 딴짓이 들어왔으면 붙인 피드백을 되돌리고 null 을 반환해 호출 측이 다시 읽게 합니다.
+     */
+    private Optional<StudySession> attachSelfFeedbackToBucketLog(StudySession header, SelfFeedback feedback) {
+        String sessionId = header.getSessionId();
+        // 딴짓 로그가 들어 있는 가장 최근 버킷의 마지막(seq 최대) 로그가 대상
+        Query latest = Query.query(where("sessionId").is(sessionId).and("distractionLogs.0").exists(true))
+                .with(Sort.by(Sort.Direction.DESC, "bucketNo"))
+                .limit(1);
+        latest.fields().include("distractionLogs");
+        SessionEventBucket bucket = mongoTemplate.findOne(latest, SessionEventBucket.class);
+        if (bucket == null) {
+            return Optional.empty();
+        }
+        List<DistractionLog> logs = bucket.getDistractionLogs();
+        int index = logs.indexOf(logs.stream().max(BY_SEQ).orElseThrow());
+
+        // 버킷 배열은 push 만 되므로 위치가 바뀌지 않음. 읽은 로그에 여전히 피드백이 비어 있을 때만 갱신 (CAS)
+        String target = "distractionLogs." + index;
+        Query query = Query.query(where("_id").is(bucket.getId())
+                .and(target + ".seq").is(logs.get(index).getSeq())
+                .and(target + ".selfFeedback").is(null));
+        Update update = new Update().set(target + ".selfFeedback", feedback);
+        if (mongoTemplate.updateFirst(query, update, SessionEventBucket.class).getModifiedCount() == 0) {
+            return Optional.empty();
+        }
+
+        StudySession updated = recordFeedback(sessionId, header.getDistractionCount(), logs.get(index), feedback);
+        if (updated == null) {
+            // 읽은 뒤 더 새로운 딴짓이 들어옴: 지난 로그에 붙인 피드백을 되돌림
+            Query attached = Query.query(where("_id").is(bucket.getId())
+                    .and(target + ".seq").is(logs.get(index).getSeq()));
+            mongoTemplate.updateFirst(attached, new Update().unset(target + ".selfFeedback"), SessionEventBucket.class);
+            return null;
+        }
+        return Optional.of(updated);
+    }
+
+    @Override
+    public Optional<StudySession> compareAndSetStatus(StudySession expected, SessionStatus next, Instant at) {
+        Criteria unchanged = where("sessionId").is(expected.getSessionId()).and("status").is(expected.getStatus());
+        // version 도입 이전 세션은 필드가 없을 때만 맞음 (첫 갱신에서 1이 됨)
+        unchanged = expected.getVersion() == null ? unchanged.and("version").exists(false)
+                : unchanged.and("version").is(expected.getVersion());
+        if (expected.getStatus() == next) {
+            return Optional.ofNullable(mongoTemplate.findOne(Query.query(unchanged), StudySession.class)); // 바꿀 것이 없음
+        }
+        Update update = transition(new Update(), next, at, next == SessionStatus.PAUSED ? 1 : 0).inc("version", 1);
+        return modify(Query.query(unchanged), update);
+    }
+
+    @Override
+    public Optional<StudySession> endUnlessEnded(String sessionId, Instant endedAt) {
+        return modify(transitionable(sessionId, SessionStatus.ENDED), endUpdate(endedAt, 0));
+    }
+
+    @Override
+    public Optional<StudySession> finishImport(String sessionId, Instant endedAt, int pauses) {
+        Query importing = Query.query(where("sessionId").is(sessionId).and("status").is(SessionStatus.IMPORTING));
+        return modify(importing, endUpdate(endedAt, pauses));
+    }
+
+    @Override
+    public Stream<StudySession> streamIdleOpenSessions(Instant idleBefore, int batchSize) {
+        Query query = Query.query(where("status").in(SessionStatus.ENDED.sources()).orOperator(
+                        where("lastEventAt").lt(idleBefore),
+                        where("lastEventAt").exists(false).and("startedAt").lt(idleBefore)))
+                .cursorBatchSize(batchSize);
+        query.fields().include("sessionId", "matchId", "status", "version", "startedAt", "lastTransitionAt", "lastEventAt");
+        return mongoTemplate.stream(query, StudySession.class);
+    }
+
+    @Override
+    public void touchLastEventAt(String sessionId, Instant at) {
+        Query open = Query.query(where("_id").is(sessionId)
+                .and("status").in(SessionStatus.ENDED.sources().stream().map(Enum::name).toList()));
+        // 엔티티 타입으로 갱신하면 @Version 필드를 자동으로 올리므로 컬렉션 이름으로 씀
+        mongoTemplate.updateFirst(open, new Update().max("lastEventAt", at),
+                mongoTemplate.getCollectionName(StudySession.class));
+    }
+
+    @Override
+    public Optional<StudySession> endIfUnchanged(StudySession seen, Instant endedAt) {
+        Criteria unchanged = where("sessionId").is(seen.getSessionId()).and("status").in(SessionStatus.ENDED.sources());
+        unchanged = seen.getVersion() == null ? unchanged.and("version").exists(false)
+                : unchanged.and("version").is(seen.getVersion());
+        // 프레임 활동은 version 을 올리지 않으므로 lastEventAt 도 함께 확인
+        unchanged = seen.getLastEventAt() == null ? unchanged.and("lastEventAt").exists(false)
+                : unchanged.and("lastEventAt").is(seen.getLastEventAt());
+        return modify(Query.query(unchanged), endUpdate(endedAt, 0));
+    }
+
+    private static Update endUpdate(Instant endedAt, int pauses) {
+        return transition(new Update(), SessionStatus.ENDED, endedAt, pauses)
+                .set("endedAt", endedAt)
+                .set("outbox", SessionOutbox.pending(endedAt))
+                .inc("version", 1);
+    }
+
+    @Override
+    public void deleteWithEvents(String sessionId) {
+        mongoTemplate.remove(Query.query(where("sessionId").is(sessionId)), SessionEventBucket.class);
+        mongoTemplate.remove(Query.query(where("_id").is(sessionId)), StudySession.class);
+    }
+
+    @Override
+    public Optional<StudySession> claimOutbox(Instant now, Duration lease) {
+        Query query = Query.query(new Criteria().orOperator(
+                        where("outbox.status").is(OutboxStatus.PENDING).and("outbox.nextAttemptAt").lte(now),
+                        where("outbox.status").is(OutboxStatus.PROCESSING).and("outbox.lockedUntil").lte(now)))
+                .with(Sort.by(Sort.Direction.ASC, "outbox.nextAttemptAt"));
+        Update update = new Update()
+                .set("outbox.status", OutboxStatus.PROCESSING)
+                .set("outbox.lockedUntil", now.plus(lease))
+                .inc("outbox.attempts", 1);
+        return modify(query, update);
+    }
+
+    @Override
+    public boolean completeOutbox(StudySession claimed, Instant now) {
+        Update update = new Update()
+                .set("outbox.status", OutboxStatus.DONE)
+                .set("outbox.completedAt", now)
+                .unset("outbox.lockedUntil")
+                .unset("outbox.lastError");
+        return mongoTemplate.updateFirst(ownedOutbox(claimed), update, StudySession.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public boolean releaseOutbox(StudySession claimed, Instant nextAttemptAt, String error) {
+        Update update = new Update()
+                .set("outbox.status", nextAttemptAt == null ? OutboxStatus.FAILED : OutboxStatus.PENDING)
+                .set("outbox.lastError", error)
+                .unset("outbox.lockedUntil");
+        if (nextAttemptAt != null) {
+            update.set("outbox.nextAttemptAt", nextAttemptAt);
+        }
+        return mongoTemplate.updateFirst(ownedOutbox(claimed), update, StudySession.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public Set<String> findMatchIdsEndedBetween(Instant start, Instant end) {
+        Query query = Query.query(where("endedAt").gte(start).lte(end));
+        return new HashSet<>(mongoTemplate.findDistinct(query, "matchId", StudySession.class, String.class));
+    }
+
+    @Override
+    public int countDistractionLogs(String sessionId) {
+        StudySession header = findCounters(sessionId);
+        if (header == null) {
+            return -1;
+        }
+        if (header.hasEventBuckets()) {
+            return header.getDistractionCount() == null ? 0 : header.getDistractionCount();
+        }
+
+        TypedAggregation<StudySession> aggregation = Aggregation.newAggregation(StudySession.class,
+                match(where("sessionId").is(sessionId)),
+                project().and(ArrayOperators.Size.lengthOfArray(
+                        ConditionalOperators.ifNull("distractionLogs").then(List.of()))).as("count"));
+
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        return result == null ? -1 : result.getInteger("count", 0);
+    }
+
+    @Override
+    public StudySession loadLogs(StudySession session) {
+        if (session == null || !session.hasEventBuckets()) {
+            return session;
+        }
+        if (session.getEventCount() == 0) {
+            // 막 시작한 세션: 읽을 버킷이 없음
+            session.setStudyLogs(new ArrayList<>());
+            session.setDistractionLogs(new ArrayList<>());
+            session.setQuestionLogs(new ArrayList<>());
+            return session;
+        }
+
+        List<StudyLog> studyLogs = new ArrayList<>();
+        List<DistractionLog> distractionLogs = new ArrayList<>();
+        List<QuestionLog> questionLogs = new ArrayList<>();
+        try (Stream<SessionEventBucket> buckets = streamBuckets(session.getSessionId(), null)) {
+            buckets.forEach(bucket -> {
+                addSorted(studyLogs, bucket.getStudyLogs());
+                addSorted(distractionLogs, bucket.getDistractionLogs());
+                addSorted(questionLogs, bucket.getQuestionLogs());
+            });
+        }
+
+        session.setStudyLogs(studyLogs);
+        session.setDistractionLogs(distractionLogs);
+        session.setQuestionLogs(questionLogs);
+        return session;
+    }
+
+    @Override
+    public List<DistractionLog> findDistractionLogs(StudySession session) {
+        if (session == null) {
+            return List.of();
+        }
+        if (!session.hasEventBuckets()) {
+            return session.getDistractionLogs() == null ? List.of() : session.getDistractionLogs();
+        }
+
+        List<DistractionLog> logs = new ArrayList<>();
+        try (Stream<SessionEventBucket> buckets = streamBuckets(session.getSessionId(), "distractionLogs")) {
+            buckets.forEach(bucket -> addSorted(logs, bucket.getDistractionLogs()));
+        }
+        return logs;
+    }
+
+    @Override
+    public List<SessionEvent> findEventsAfter(String sessionId, Collection<Class<? extends SessionEvent>> types,
+                                              long afterSeq, int limit) {
+        List<SessionEvent> events = new ArrayList<>();
+        if (types.isEmpty() || limit <= 0) {
+            return events;
+        }
+        // 요청한 배열만, seq 가 afterSeq 보다 큰 원소만 남겨 내보냄
+        Document fields = new Document("bucketNo", 1);
+        for (Class<? extends SessionEvent> type : types) {
+            String field = fieldOf(type);
+            Document after = new Document("input", new Document("$ifNull", List.of("$" + field, List.of())))
+                    .append("as", "event")
+                    .append("cond", new Document("$gt", List.of("$$event.seq", afterSeq)));
+            fields.append(field, new Document("$filter", after));
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                match(where("sessionId").is(sessionId).and("bucketNo").gte(SessionEventBucket.bucketNoOf(afterSeq + 1))),
+                sort(Sort.Direction.ASC, "bucketNo"),
+                stage(new Document("$project", fields)))
+                // 버킷은 seq 구간으로 나뉘므로 앞 버킷부터 조금씩 받다가 페이지가 차면 멈춤
+                .withOptions(AggregationOptions.builder().cursorBatchSize(2).build());
+
+        try (Stream<SessionEventBucket> buckets =
+                     mongoTemplate.aggregateStream(aggregation, SessionEventBucket.class, SessionEventBucket.class)) {
+            Iterator<SessionEventBucket> iterator = buckets.iterator();
+            while (events.size() < limit && iterator.hasNext()) {
+                SessionEventBucket bucket = iterator.next();
+                // 버킷 안에서는 동시 쓰기로 push 순서와 seq 순서가 다를 수 있으므로 버킷 단위로 정렬
+                List<SessionEvent> inBucket = new ArrayList<>();
+                Stream.of(bucket.getStudyLogs(), bucket.getDistractionLogs(), bucket.getQuestionLogs())
+                        .filter(Objects::nonNull)
+                        .forEach(inBucket::addAll);
+                inBucket.sort(BY_SEQ);
+                events.addAll(inBucket);
+            }
+        }
+        return events.size() > limit ? new ArrayList<>(events.subList(0, limit)) : events;
+    }
+
+    /**
+     * 1) 헤더의 eventCount/카운터를 $inc 해 이 로그의 seq 를 할당받고,
+     * 2) seq 가 속한 버킷에 upsert 로 $push 합니다.
+     * 헤더 갱신 뒤 버킷 쓰기가 실패하면 해당 seq 는 비어 있는 채로 남습니다.
+     *
+     * @param status       null 이 아니면 함께 변경할 세션 상태
+     * @param transitionAt 상태 변경 시각
+     */
+    private Optional<StudySession> appendEvent(String sessionId, String field, String counter,
+                                               SessionEvent log, SessionStatus status, Instant transitionAt) {
+        // 상태를 함께 바꾸면 그 상태로 바뀔 수 있는 세션에만, 아니면 종료되지 않은 세션에만 씀
+        Set<SessionStatus> writable = status != null ? status.sources() : SessionStatus.ENDED.sources();
+        int pauses = status == SessionStatus.PAUSED ? 1 : 0;
+        StudySession header = modifyWithStatus(where("sessionId").is(sessionId).and("eventCount").exists(true),
+                writable, status, transitionAt, pauses,
+                (update, statusChanged) -> update.inc("eventCount", 1).inc(counter, 1).inc("version", 1)
+                        .max("lastEventAt", occurredAt(log)),
+                log.getClientSeq());
+
+        if (header == null) {
+            // 버킷 도입 이전 세션이거나, 없거나, 이미 종료되었거나, 재전송된 로그
+            return Optional.ofNullable(modifyWithStatus(
+                    where("sessionId").is(sessionId).and("eventCount").exists(false),
+                    writable, status, transitionAt, pauses,
+                    (update, statusChanged) -> update.push(field, log).inc("version", 1)
+                            .max("lastEventAt", occurredAt(log)),
+                    log.getClientSeq()));
+        }
+
+        long seq = header.getEventCount() - 1;
+        log.setSeq(seq);
+        pushToBucket(sessionId, SessionEventBucket.bucketNoOf(seq), field, log);
+        return Optional.of(header);
+    }
+
+    private void pushToBucket(String sessionId, int bucketNo, String field, SessionEvent log) {
+        pushToBucket(sessionId, bucketNo, Map.of(field, List.of(log)));
+    }
+
+    private void pushToBucket(String sessionId, int bucketNo, Map<String, List<SessionEvent>> logsByField) {
+        Query query = Query.query(where("_id").is(SessionEventBucket.idOf(sessionId, bucketNo)));
+        Update update = new Update()
+                .setOnInsert("sessionId", sessionId)
+                .setOnInsert("bucketNo", bucketNo)
+                .setOnInsert("createdAt", Instant.now());
+        int count = 0;
+        for (Map.Entry<String, List<SessionEvent>> entry : logsByField.entrySet()) {
+            update.push(entry.getKey()).each(entry.getValue().toArray());
+            count += entry.getValue().size();
+        }
+        update.inc("count", count);
+        try {
+            mongoTemplate.upsert(query, update, SessionEventBucket.class);
+        } catch (DuplicateKeyException e) {
+            // 같은 버킷을 동시에 처음 만들려던 경우: 이제 버킷이 있으므로 한 번 더 시도하면 갱신으로 처리됨
+            mongoTemplate.upsert(query, update, SessionEventBucket.class);
+        }
+    }
+
+    /**
+     * 클라이언트 순번이 있으면 clientSeqHwm 보다 클 때만 갱신되도록 조건을 걸고, 같은 갱신으로 clientSeqHwm 을 올립니다.
+     * clientSeqHwm 이 없는 세션은 $not $gte 조건을 만족하므로 첫 순번부터 받습니다.
+     */
+    private static void acceptOnce(Query query, Update update, Long clientSeq) {
+        if (clientSeq != null) {
+            query.addCriteria(where("clientSeqHwm").not().gte(clientSeq));
+            update.set("clientSeqHwm", clientSeq);
+        }
+    }
+
+    /**
+     * 상태 변경에 누적 지표(마지막 상태 변경 시각, 일시정지 횟수)를 같은 갱신으로 싣습니다.
+     */
+    private static Update transition(Update update, SessionStatus status, Instant at, int pauses) {
+        Instant transitionAt = at != null ? at : Instant.now();
+        update.set("status", status).set("lastTransitionAt", transitionAt).max("lastEventAt", transitionAt);
+        if (pauses > 0) {
+            update.inc("pauseCount", pauses);
+        }
+        return update;
+    }
+
+    /**
+     * target 세션 중 from 상태인 세션을 갱신하고, status 가 null 이 아니면 상태도 status 로 바꿉니다.
+     * 다른 상태에서 실제로 바뀌는 세션에만 상태 변경({@link #transition})을 싣고,
+     * 이미 status 인 세션은 상태 필드(마지막 상태 변경 시각, 일시정지 횟수)를 그대로 두고 나머지만 갱신합니다.
+     * 한 번의 갱신으로는 현재 상태에 따라 다르게 쓸 수 없으므로, 바뀌는 경우를 먼저 시도하고 맞지 않으면 그대로인 경우를 시도합니다.
+     *
+     * @return 갱신된 헤더. 맞는 세션이 없으면 null
+     */
+    private StudySession modifyWithStatus(Criteria target, Set<SessionStatus> from, SessionStatus status, Instant at,
+                                          int pauses, HeaderChanges changes, Long clientSeq) {
+        if (status == null) {
+            return modifyAcceptingOnce(Query.query(target).addCriteria(where("status").in(from)),
+                    changes.applyTo(new Update(), false), clientSeq);
+        }
+        Set<SessionStatus> others = EnumSet.copyOf(from);
+        others.remove(status);
+        if (!others.isEmpty()) {
+            StudySession changed = modifyAcceptingOnce(Query.query(target).addCriteria(where("status").in(others)),
+                    changes.applyTo(transition(new Update(), status, at, pauses), true), clientSeq);
+            if (changed != null) {
+                return changed;
+            }
+        }
+        if (!from.contains(status)) {
+            return null;
+        }
+        return modifyAcceptingOnce(Query.query(target).addCriteria(where("status").is(status)),
+                changes.applyTo(new Update(), false), clientSeq);
+    }
+
+    private StudySession modifyAcceptingOnce(Query query, Update update, Long clientSeq) {
+        acceptOnce(query, update, clientSeq);
+        return mongoTemplate.findAndModify(query, update, RETURN_NEW, StudySession.class);
+    }
+
+    /**
+     * 상태 필드 외에 헤더에 함께 쓸 갱신. 상태가 실제로 바뀌는지에 따라 version 을 다르게 올릴 수 있게 받습니다.
+     */
+    @FunctionalInterface
+    private interface HeaderChanges {
+        Update applyTo(Update update, boolean statusChanged);
+    }
+
+    /**
+     * 버킷의 딴짓 로그에 피드백을 붙인 뒤 헤더의 version 을 올리고, 딴짓 시간(감지 ~ 피드백)을 누적 값에 더해 헤더를 반환합니다.
+     * 누적 지표 도입 이전 세션(distractionMillis 없음)은 더하지 않습니다. 로그로 다시 계산하기 때문.
+     * 헤더의 distractionCount 가 읽은 값과 달라졌으면(더 새로운 딴짓이 있음) 갱신하지 않고 null 을 반환합니다.
+     */
+    private StudySession recordFeedback(String sessionId, Integer distractionCount, DistractionLog log,
+                                        SelfFeedback feedback) {
+        Criteria unchanged = where("sessionId").is(sessionId);
+        unchanged = distractionCount == null ? unchanged.and("distractionCount").exists(false)
+                : unchanged.and("distractionCount").is(distractionCount);
+        long millis = distractionMillisOf(log, feedback);
+        if (millis > 0) {
+            Query query = Query.query(unchanged).addCriteria(where("distractionMillis").exists(true));
+            StudySession updated = mongoTemplate.findAndModify(query,
+                    feedbackUpdate(feedback).inc("distractionMillis", millis), RETURN_NEW, StudySession.class);
+            if (updated != null) {
+                return updated;
+            }
+        }
+        return mongoTemplate.findAndModify(Query.query(unchanged),
+                feedbackUpdate(feedback), RETURN_NEW, StudySession.class);
+    }
+
+    private static Update feedbackUpdate(SelfFeedback feedback) {
+        return new Update().inc("version", 1)
+                .max("lastEventAt", feedback.getCreatedAt() != null ? feedback.getCreatedAt() : Instant.now());
+    }
+
+    private static Instant occurredAt(SessionEvent event) {
+        Instant at = null;
+        if (event instanceof StudyLog log) {
+            at = log.getTimestamp();
+        } else if (event instanceof QuestionLog log) {
+            at = log.getCreatedAt();
+        } else if (event instanceof DistractionLog log) {
+            at = log.getDetectedAt();
+        }
+        return at != null ? at : Instant.now();
+    }
+
+    private static long distractionMillisOf(DistractionLog log, SelfFeedback feedback) {
+        if (feedback == null || log.getDetectedAt() == null || feedback.getCreatedAt() == null) {
+            return 0;
+        }
+        return Math.max(0, feedback.getCreatedAt().toEpochMilli() - log.getDetectedAt().toEpochMilli());
+    }
+
+    private static String fieldOf(SessionEvent event) {
+        return fieldOf(event.getClass());
+    }
+
+    private static String fieldOf(Class<? extends SessionEvent> type) {
+        if (type == StudyLog.class) {
+            return "studyLogs";
+        }
+        if (type == QuestionLog.class) {
+            return "questionLogs";
+        }
+        if (type == DistractionLog.class) {
+            return "distractionLogs";
+        }
+        throw new IllegalArgumentException("Unknown session event: " + type.getSimpleName());
+    }
+
+    private Optional<StudySession> attachSelfFeedbackToEmbeddedLog(String sessionId, SelfFeedback feedback) {
+        int count = countDistractionLogs(sessionId);
+        if (count <= 0) {
+            return Optional.empty();
+        }
+
+        // 읽은 시점의 마지막 원소가 여전히 마지막이고 피드백이 비어 있을 때만 갱신 (CAS)
+        String last = "distractionLogs." + (count - 1);
+        Query query = Query.query(where("sessionId").is(sessionId)
+                .and(last).exists(true)
+                .and("distractionLogs." + count).exists(false)
+                .and(last + ".selfFeedback").is(null));
+        return modify(query, feedbackUpdate(feedback).set(last + ".selfFeedback", feedback));
+    }
+
+    /**
+     * 로그 배열 없이 헤더의 카운터만 읽습니다. 세션이 없으면 null.
+     */
+    private StudySession findCounters(String sessionId) {
+        Query query = Query.query(where("sessionId").is(sessionId));
+        query.fields().include("eventCount", "distractionCount");
+        return mongoTemplate.findOne(query, StudySession.class);
+    }
+
+    private Stream<SessionEventBucket> streamBuckets(String sessionId, String onlyField) {
+        Query query = Query.query(where("sessionId").is(sessionId))
+                .with(Sort.by(Sort.Direction.ASC, "bucketNo"));
+        if (onlyField != null) {
+            query.fields().include(onlyField);
+        }
+        return mongoTemplate.stream(query, SessionEventBucket.class);
+    }
+
+    private static <T extends SessionEvent> void addSorted(List<T> target, List<T> bucketLogs) {
+        if (bucketLogs == null || bucketLogs.isEmpty()) {
+            return;
+        }
+        // 버킷 안에서는 동시 쓰기로 push 순서와 seq 순서가 다를 수 있음
+        List<T> sorted = new ArrayList<>(bucketLogs);
+        sorted.sort(BY_SEQ);
+        target.addAll(sorted);
+    }
+
+    /**
+     * 점유했던 그 작업일 때만 맞는 조건. 점유 만료 후 다른 노드가 다시 가져갔다면 lockedUntil 이 달라 갱신되지 않습니다.
+     */
+    private Query ownedOutbox(StudySession claimed) {
+        return Query.query(where("sessionId").is(claimed.getSessionId())
+                .and("outbox.status").is(OutboxStatus.PROCESSING)
+                .and("outbox.lockedUntil").is(claimed.getOutbox().getLockedUntil()));
+    }
+
+    private Query notEnded(String sessionId) {
+        return Query.query(where("sessionId").is(sessionId).and("status").ne(SessionStatus.ENDED));
+    }
+
+    /**
+     * 상태 전이 규칙({@link SessionStatus#canTransitionTo})상 next 로 바뀔 수 있는 세션만 맞는 조건.
+     */
+    private Query transitionable(String sessionId, SessionStatus next) {
+        return Query.query(where("sessionId").is(sessionId).and("status").in(next.sources()));
+    }
+
+    private Optional<StudySession> modify(Query query, Update update) {
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, update, RETURN_NEW, StudySession.class));
+    }
+}
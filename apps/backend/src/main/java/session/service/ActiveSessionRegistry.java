@@ -0,0 +1,340 @@
+package session.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import session.domain.*;
+import session.repository.StudySessionRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 진행 중(ACTIVE/PAUSED) 세션의 노드 로컬 레지스트리.
+ * <p>
+ * 로그 추가와 상태 변경을 메모리의 세션 사본에 먼저 반영하고, 주기적으로(또는 종료/피드백 직전에)
+ * 세션별로 모아 헤더 갱신 한 번과 버킷 push 몇 번으로 내려씁니다.
+ * 같은 세션의 변경은 세션 ID 해시로 고른 락으로 직렬화합니다.
+ * 비활성화되어 있거나, 버킷 도입 이전 세션이거나, 레지스트리가 가득 차면 빈 Optional 을 반환하므로 호출자는 바로 Mongo 에 씁니다.
+ */
+@Slf4j
+@Component
+public class ActiveSessionRegistry {
+
+    private final StudySessionRepository studyRepo;
+    private final SessionRegistryProperties properties;
+    private final Map<String, ActiveSession> sessions = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final Counter flushedEvents;
+    private final Counter flushes;
+
+    public ActiveSessionRegistry(StudySessionRepository studyRepo, SessionRegistryProperties properties,
+                                 MeterRegistry meterRegistry) {
+        this.studyRepo = studyRepo;
+        this.properties = properties;
+        this.stripes = new ReentrantLock[Math.max(1, properties.getLockStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.flushedEvents = meterRegistry.counter("session.registry.flushed.events");
+        this.flushes = meterRegistry.counter("session.registry.flushes");
+        meterRegistry.gauge("session.registry.sessions", sessions, Map::size);
+    }
+
+    /**
+     * 로그를 메모리의 세션에 추가합니다. status 가 null 이 아니면 상태도 함께 바꿉니다.
+     * 클라이언트 순번이 이미 반영된 로그면 아무것도 바꾸지 않습니다.
+     *
+     * @return 변경이 반영된 세션 사본. 레지스트리가 처리하지 않으면 빈 Optional
+     */
+    public Optional<StudySession> append(String sessionId, SessionEvent event, SessionStatus status) {
+        return withSession(sessionId, session -> {
+            if (session.state.hasAccepted(event.getClientSeq())) {
+                return session.snapshot(); // 재전송: 이미 반영된 상태를 그대로 돌려줌
+            }
+            session.apply(event);
+            if (status != null) {
+                session.changeStatus(status, occurredAt(event));
+            }
+            return session.snapshot();
+        });
+    }
+
+    /**
+     * 로그 여러 개를 발생 순서대로 메모리의 세션에 한 번에 추가합니다. status 가 null 이 아니면 상태도 함께 바꿉니다.
+     *
+     * @return 변경이 반영된 세션 사본. 레지스트리가 처리하지 않으면 빈 Optional
+     */
+    public Optional<StudySession> appendAll(String sessionId, List<? extends SessionEvent> events, SessionStatus status) {
+        return withSession(sessionId, session -> {
+            for (SessionEvent event : events) {
+                if (!session.state.hasAccepted(event.getClientSeq())) {
+                    session.apply(event);
+                }
+            }
+            if (status != null) {
+                session.changeStatus(status, events.isEmpty() ? Instant.now() : occurredAt(events.get(events.size() - 1)));
+            }
+            return session.snapshot();
+        });
+    }
+
+    /**
+     * 메모리의 세션 상태를 바꿉니다. 이미 그 상태면 아무것도 바꾸지 않습니다.
+     *
+     * @return 변경이 반영된 세션 사본. 레지스트리가 처리하지 않으면 빈 Optional
+     * @throws IllegalStateException 상태 전이 규칙상 바꿀 수 없는 경우
+     */
+    public Optional<StudySession> updateStatus(String sessionId, SessionStatus status) {
+        return withSession(sessionId, session -> {
+            SessionStatus current = session.state.getStatus();
+            if (current == status) {
+                return session.snapshot();
+            }
+            if (!current.canTransitionTo(status)) {
+                throw new IllegalStateException(current + " 상태의 세션은 " + status + " 로 바꿀 수 없습니다.");
+            }
+            session.changeStatus(status, Instant.now());
+            return session.snapshot();
+        });
+    }
+
+    /**
+     * 메모리에 올라와 있는 세션의 사본을 반환합니다. (Mongo 를 읽지 않음)
+     */
+    public Optional<StudySession> find(String sessionId) {
+        if (!sessions.containsKey(sessionId)) {
+            return Optional.empty();
+        }
+        return locked(sessionId, () -> Optional.ofNullable(sessions.get(sessionId)).map(ActiveSession::snapshot));
+    }
+
+    /**
+     * 모아 둔 변경을 내려쓰고 세션을 메모리에서 내립니다.
+     * 종료나 자기 피드백처럼 Mongo 의 조건부 갱신을 거쳐야 하는 변경 전에 호출합니다.
+     */
+    public void flushAndEvict(String sessionId) {
+        if (!sessions.containsKey(sessionId)) {
+            return;
+        }
+        locked(sessionId, () -> {
+            ActiveSession session = sessions.get(sessionId);
+            if (session != null) {
+                flush(session);
+                sessions.remove(sessionId);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 변경이 쌓인 세션을 모두 내려쓰고, 오래 변경이 없는 세션은 메모리에서 내립니다.
+     */
+    @Scheduled(fixedDelayString = "${session.registry.flush-interval:5s}")
+    public void flushAll() {
+        Instant idleBefore = Instant.now().minus(properties.getIdleTimeout());
+        for (String sessionId : sessions.keySet()) {
+            try {
+                locked(sessionId, () -> {
+                    ActiveSession session = sessions.get(sessionId);
+                    if (session == null) {
+                        return null;
+                    }
+                    flush(session);
+                    if (session.lastTouchedAt.isBefore(idleBefore)) {
+                        sessions.remove(sessionId);
+                    }
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                // 모아 둔 변경은 남아 있으므로 다음 주기에 다시 시도
+                log.warn("Failed to flush active session {}: {}", sessionId, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flushAll();
+    }
+
+    int size() {
+        return sessions.size();
+    }
+
+    // 딴짓으로 인한 일시정지는 감지 시각을 상태 변경 시각으로 씀
+    private static Instant occurredAt(SessionEvent event) {
+        return event instanceof DistractionLog log && log.getDetectedAt() != null ? log.getDetectedAt() : Instant.now();
+    }
+
+    /**
+     * 세션 락을 잡고, 메모리에 없으면 Mongo 에서 올린 뒤 변경을 적용합니다.
+     */
+    private Optional<StudySession> withSession(String sessionId, Function<ActiveSession, StudySession> mutation) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        return locked(sessionId, () -> {
+            ActiveSession session = sessions.get(sessionId);
+            if (session == null) {
+                if (sessions.size() >= properties.getMaxSessions()) {
+                    return Optional.empty();
+                }
+                session = load(sessionId);
+                if (session == null) {
+                    return Optional.empty();
+                }
+                sessions.put(sessionId, session);
+            }
+            return Optional.of(mutation.apply(session));
+        });
+    }
+
+    /**
+     * 버킷에 로그를 쓰는 진행 중 세션만 올립니다. 없거나 종료(또는 가져오는 중)이거나 버킷 도입 이전 세션이면 null.
+     */
+    private ActiveSession load(String sessionId) {
+        StudySession header = studyRepo.findById(sessionId).orElse(null);
+        if (header == null || header.getStatus() == null || !header.getStatus().isOpen() || !header.hasEventBuckets()) {
+            return null;
+        }
+        return new ActiveSession(studyRepo.loadLogs(header));
+    }
+
+    /**
+     * 락을 잡은 상태에서 호출합니다. 실패하면 모아 둔 변경을 그대로 두고 예외를 던집니다.
+     */
+    private void flush(ActiveSession session) {
+        if (session.pendingEvents.isEmpty() && session.pendingStatus == null) {
+            return;
+        }
+        List<SessionEvent> events = List.copyOf(session.pendingEvents);
+        Optional<StudySession> written = studyRepo.appendEvents(session.state.getSessionId(), events,
+                session.pendingStatus, session.state.getLastTransitionAt(), session.pendingTransitions,
+                session.pendingPauses);
+        if (written.isEmpty()) {
+            // 다른 경로로 이미 종료된 세션: 더 쓸 곳이 없으므로 버림
+            log.warn("Dropping {} buffered events of session {} that is no longer active",
+                    events.size(), session.state.getSessionId());
+            sessions.remove(session.state.getSessionId());
+        } else {
+            session.state.setEventCount(written.get().getEventCount());
+            session.state.setVersion(written.get().getVersion());
+        }
+        session.pendingEvents.clear();
+        session.pendingStatus = null;
+        session.pendingTransitions = 0;
+        session.pendingPauses = 0;
+        flushes.increment();
+        flushedEvents.increment(events.size());
+    }
+
+    private <T> T locked(String sessionId, Supplier<T> action) {
+        ReentrantLock lock = stripes[Math.floorMod(sessionId.hashCode(), stripes.length)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 메모리에 올라온 세션 하나. 모든 접근은 해당 세션의 락 안에서 이뤄집니다.
+     */
+    private static final class ActiveSession {
+        private final StudySession state;
+        private final List<SessionEvent> pendingEvents = new ArrayList<>();
+        private SessionStatus pendingStatus;
+        private int pendingTransitions;
+        private int pendingPauses;
+        private Instant lastTouchedAt = Instant.now();
+
+        private ActiveSession(StudySession state) {
+            this.state = state;
+        }
+
+        private void apply(SessionEvent event) {
+            if (event instanceof StudyLog log) {
+                state.getStudyLogs().add(log);
+                state.setStudyLogCount(increment(state.getStudyLogCount()));
+            } else if (event instanceof QuestionLog log) {
+                state.getQuestionLogs().add(log);
+                state.setQuestionCount(increment(state.getQuestionCount()));
+            } else if (event instanceof DistractionLog log) {
+                state.getDistractionLogs().add(log);
+                state.setDistractionCount(increment(state.getDistractionCount()));
+            }
+            if (event.getClientSeq() != null) {
+                state.setClientSeqHwm(event.getClientSeq());
+            }
+            pendingEvents.add(event);
+            lastTouchedAt = Instant.now();
+        }
+
+        /**
+         * 실제로 다른 상태로 바뀔 때만 상태 변경 시각을 찍고, ACTIVE 에서 PAUSED 로 바뀐 경우만 일시정지로 셉니다.
+         * (일시정지 중에 딴짓이 또 감지되어도 PAUSED 를 유지할 뿐 새 일시정지가 아님)
+         */
+        private void changeStatus(SessionStatus status, Instant at) {
+            if (state.getStatus() == status) {
+                return;
+            }
+            if (status == SessionStatus.PAUSED) {
+                state.setPauseCount(increment(state.getPauseCount()));
+                pendingPauses++;
+            }
+            state.setStatus(status);
+            state.setLastTransitionAt(at);
+            pendingStatus = status;
+            pendingTransitions++;
+            lastTouchedAt = Instant.now();
+        }
+
+        private StudySession snapshot() {
+            return StudySession.builder()
+                    .sessionId(state.getSessionId())
+                    .matchId(state.getMatchId())
+                    .menteeUserId(state.getMenteeUserId())
+                    .mentorUserId(state.getMentorUserId())
+                    .startedAt(state.getStartedAt())
+                    .endedAt(state.getEndedAt())
+                    .status(state.getStatus())
+                    .eventCount(state.getEventCount() + pendingEvents.size())
+                    .version(pendingVersion())
+                    .studyLogCount(state.getStudyLogCount())
+                    .distractionCount(state.getDistractionCount())
+                    .questionCount(state.getQuestionCount())
+                    .distractionMillis(state.getDistractionMillis())
+                    .pauseCount(state.getPauseCount())
+                    .lastTransitionAt(state.getLastTransitionAt())
+                    .clientSeqHwm(state.getClientSeqHwm())
+                    .studyLogs(new ArrayList<>(state.getStudyLogs()))
+                    .distractionLogs(new ArrayList<>(state.getDistractionLogs()))
+                    .questionLogs(new ArrayList<>(state.getQuestionLogs()))
+                    .build();
+        }
+
+        /**
+         * 내려쓸 때 저장소가 올릴 만큼(로그마다 1, 상태 변경마다 1)을 미리 더한 version.
+         */
+        private long pendingVersion() {
+            long persisted = state.getVersion() == null ? 0 : state.getVersion();
+            return persisted + pendingEvents.size() + pendingTransitions;
+        }
+
+        private static Integer increment(Integer count) {
+            return count == null ? 1 : count + 1;
+        }
+    }
+}
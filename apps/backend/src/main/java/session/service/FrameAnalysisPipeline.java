@@ -0,0 +1,269 @@
+package session.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 프레임 분석 요청을 요청 스레드에서 분리하기 위한 노드 로컬 큐와 워커 풀입니다.
+ * <p>
+ * - 큐는 노드 전체 용량과 세션별 용량으로 제한되며, 세션별 용량을 넘으면 그 세션의 가장 오래된 프레임을 버립니다.<br>
+ * - 한 세션의 프레임은 한 번에 하나의 워커만 처리하므로 Vision AI 서버가 받는 세션별 프레임 순서가 유지됩니다.<br>
+ * - 종료 시에는 새 프레임을 받지 않고, 대기 중인 프레임을 shutdownTimeout 동안 처리한 뒤 워커를 멈춥니다.
+ */
+@Slf4j
+@Component
+public class FrameAnalysisPipeline implements SmartLifecycle {
+
+    /**
+     * 웹 서버가 먼저 멈춘 뒤(새 요청 차단) 남은 프레임을 비우도록 웹 서버보다 늦게 정지합니다.
+     */
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final StudySessionService studySessionService;
+    private final VisionAiProperties.Pipeline properties;
+
+    private final Counter droppedFrames;
+    private final Counter rejectedFrames;
+    private final Counter processedFrames;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Map<String, ArrayDeque<PendingFrame>> pendingBySession = new HashMap<>();
+    private final ArrayDeque<String> readySessions = new ArrayDeque<>(); // 대기 프레임이 있고 처리 중이 아닌 세션
+    private final Set<String> inFlightSessions = new HashSet<>();
+    private int depth;
+
+    private volatile boolean accepting;
+    private volatile boolean running;
+    private ExecutorService workers;
+
+    public FrameAnalysisPipeline(StudySessionService studySessionService,
+                                 VisionAiProperties visionAiProperties,
+                                 MeterRegistry meterRegistry) {
+        this.studySessionService = studySessionService;
+        this.properties = visionAiProperties.getPipeline();
+
+        Gauge.builder("vision.frames.queue.depth", this, FrameAnalysisPipeline::queueDepth)
+                .description("Frames waiting for Vision AI analysis on this node")
+                .register(meterRegistry);
+        this.droppedFrames = Counter.builder("vision.frames.dropped")
+                .description("Frames replaced by a newer frame of the same session")
+                .register(meterRegistry);
+        this.rejectedFrames = Counter.builder("vision.frames.rejected")
+                .description("Frames refused because the queue was full or shutting down")
+                .register(meterRegistry);
+        this.processedFrames = Counter.builder("vision.frames.processed")
+                .description("Frames analyzed by the pipeline workers")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isAsyncByDefault() {
+        return properties.isAsyncByDefault();
+    }
+
+    /**
+     * 프레임을 큐에 넣습니다. 큐가 가득 찼거나 종료 중이면 false 를 반환합니다.
+     */
+    public boolean submit(String sessionId, byte[] frame, String filename) {
+        lock.lock();
+        try {
+            if (!accepting) {
+                rejectedFrames.increment();
+                return false;
+            }
+
+            ArrayDeque<PendingFrame> frames = pendingBySession.computeIfAbsent(sessionId, id -> new ArrayDeque<>());
+            boolean scheduled = !frames.isEmpty() || inFlightSessions.contains(sessionId);
+
+            // drop-oldest: 같은 세션의 오래된 프레임은 새 프레임보다 가치가 낮다
+            if (!frames.isEmpty()
+                    && (frames.size() >= properties.getPerSessionCapacity() || depth >= properties.getQueueCapacity())) {
+                frames.pollFirst();
+                depth--;
+                droppedFrames.increment();
+            }
+            if (depth >= properties.getQueueCapacity()) {
+                if (frames.isEmpty()) {
+                    pendingBySession.remove(sessionId);
+                }
+                rejectedFrames.increment();
+                return false;
+            }
+
+            frames.addLast(new PendingFrame(sessionId, frame, filename));
+            depth++;
+            if (!scheduled) {
+                readySessions.addLast(sessionId);
+                workAvailable.signal();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queueDepth() {
+        lock.lock();
+        try {
+            return depth;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled() || running) {
+            return;
+        }
+        AtomicInteger sequence = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(properties.getWorkers(), runnable -> {
+            Thread thread = new Thread(runnable, "frame-analysis-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        accepting = true;
+        for (int i = 0; i < properties.getWorkers(); i++) {
+            workers.execute(this::workLoop);
+        }
+        log.info("Frame analysis pipeline started. workers={}, queueCapacity={}, perSessionCapacity={}",
+                properties.getWorkers(), properties.getQueueCapacity(), properties.getPerSessionCapacity());
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        lock.lock();
+        try {
+            accepting = false;
+            running = false;
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Frame analysis pipeline did not drain in {}. Discarding {} frames.",
+                        properties.getShutdownTimeout(), queueDepth());
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        log.info("Frame analysis pipeline stopped.");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void workLoop() {
+        while (true) {
+            PendingFrame frame;
+            try {
+                frame = take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (frame == null) {
+                return;
+            }
+
+            try {
+                analyze(frame);
+            } catch (Exception e) {
+                log.warn("Frame analysis failed for session {}", frame.sessionId(), e);
+            } finally {
+                complete(frame.sessionId());
+            }
+        }
+    }
+
+    private void analyze(PendingFrame frame) {
+        try {
+            studySessionService.analyzeFrame(frame.sessionId(), frame.content(), frame.filename());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // 분석 중 세션이 종료되었거나 삭제된 경우
+            log.debug("Skipping verdict for session {}: {}", frame.sessionId(), e.getMessage());
+        }
+        processedFrames.increment();
+    }
+
+    /**
+     * 처리할 프레임을 꺼냅니다. 종료 중이고 더 처리할 프레임이 없으면 null 을 반환합니다.
+     */
+    private PendingFrame take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (readySessions.isEmpty()) {
+                if (!running && inFlightSessions.isEmpty()) {
+                    return null;
+                }
+                workAvailable.await();
+            }
+
+            String sessionId = readySessions.pollFirst();
+            ArrayDeque<PendingFrame> frames = pendingBySession.get(sessionId);
+            PendingFrame frame = frames.pollFirst();
+            if (frames.isEmpty()) {
+                pendingBySession.remove(sessionId);
+            }
+            depth--;
+            inFlightSessions.add(sessionId);
+            return frame;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void complete(String sessionId) {
+        lock.lock();
+        try {
+            inFlightSessions.remove(sessionId);
+            if (pendingBySession.containsKey(sessionId)) {
+                readySessions.addLast(sessionId);
+                workAvailable.signal();
+            } else if (!running && inFlightSessions.isEmpty()) {
+                workAvailable.signalAll(); // 대기 중인 워커들이 종료할 수 있도록 깨움
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private record PendingFrame(String sessionId, byte[] content, String filename) {
+    }
+}
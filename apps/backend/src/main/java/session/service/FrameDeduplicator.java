@@ -0,0 +1,211 @@
+package session.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Vision AI 호출 앞단에서 거의 같은 프레임을 걸러내는 세션별 dHash 단계입니다.
+ * <p>
+ * - 마지막으로 분석한 프레임과의 해밍 거리가 임계값 미만이면 원격 호출 없이 직전 판정을 재사용합니다.<br>
+ * - 재사용은 verdictTtl 동안만 허용되며, 그 이후에는 같은 프레임이라도 다시 분석합니다.<br>
+ * - 원격 호출이 실패한 결과는 판정이 아니므로 기억하지 않고, 다음 프레임은 다시 분석합니다.<br>
+ * - ImageIO 가 디코딩하지 못하는 포맷(webp 등)은 해시를 만들 수 없으므로 항상 원격 호출로 넘깁니다.
+ */
+@Slf4j
+@Component
+public class FrameDeduplicator {
+
+    private static final int HASH_WIDTH = 9;  // 가로로 인접한 픽셀 8쌍을 비교
+    private static final int HASH_HEIGHT = 8;
+
+    private final VisionAiProperties.Dedup properties;
+    private final Clock clock;
+    private final Counter deduplicatedFrames;
+    private final ConcurrentHashMap<String, AnalyzedFrame> lastAnalyzed = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FrameDeduplicator(VisionAiProperties visionAiProperties, MeterRegistry meterRegistry) {
+        this(visionAiProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    FrameDeduplicator(VisionAiProperties visionAiProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = visionAiProperties.getDedup();
+        this.clock = clock;
+        this.deduplicatedFrames = Counter.builder("vision.frames.deduplicated")
+                .description("Frames answered from the previous verdict without calling Vision AI")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 직전 프레임과 충분히 비슷하면 직전 판정을 재사용(REUSED)하고, 아니면 analyzer 로 분석한 뒤 성공한 판정만 기억합니다.
+     */
+    public VisionAiClient.FrameVerdict analyze(String sessionId, byte[] frame,
+                                               Supplier<VisionAiClient.FrameVerdict> analyzer) {
+        if (!properties.isEnabled()) {
+            return analyzer.get();
+        }
+
+        Long hash = differenceHash(frame);
+        if (hash == null) {
+            return analyzer.get();
+        }
+
+        Instant now = clock.instant();
+        AnalyzedFrame previous = lastAnalyzed.get(sessionId);
+        if (previous != null
+                && now.isBefore(previous.analyzedAt().plus(properties.getVerdictTtl()))
+                && Long.bitCount(previous.hash() ^ hash) < properties.getHammingThreshold()) {
+            deduplicatedFrames.increment();
+            return VisionAiClient.FrameVerdict.reused(previous.detection());
+        }
+
+        VisionAiClient.FrameVerdict verdict = analyzer.get();
+        if (!verdict.failed()) {
+            remember(sessionId, new AnalyzedFrame(hash, verdict.detection(), now));
+        }
+        return verdict;
+    }
+
+    /**
+     * 한 세션의 프레임 여러 장을 순서대로 걸러냅니다. 직전 프레임(배치 안에서는 앞서 보낼 프레임)과 거의 같은 프레임은
+     * 빼고, 나머지만 analyzer 에 한 번에 넘긴 뒤 빠진 프레임에는 기준 프레임의 판정을 채워 프레임 순서대로 반환합니다.
+     *
+     * 기준 프레임의 분석이 실패했으면 빠진 프레임도 실패로 채웁니다.
+     *
+     * @param analyzer 보낼 프레임 목록을 받아 같은 순서의 판정 목록을 반환
+     */
+    public List<VisionAiClient.FrameVerdict> analyzeBatch(
+            String sessionId, List<byte[]> frames,
+            Function<List<byte[]>, List<VisionAiClient.FrameVerdict>> analyzer) {
+        if (!properties.isEnabled()) {
+            return analyzer.apply(frames);
+        }
+
+        Instant now = clock.instant();
+        AnalyzedFrame previous = lastAnalyzed.get(sessionId);
+        Long referenceHash = null;
+        int reference = -1; // -1 이면 직전 요청의 판정을 재사용
+        if (previous != null && now.isBefore(previous.analyzedAt().plus(properties.getVerdictTtl()))) {
+            referenceHash = previous.hash();
+        }
+
+        List<byte[]> toAnalyze = new ArrayList<>();
+        int[] source = new int[frames.size()]; // 프레임별 판정 출처 (보낼 목록의 인덱스, -1 은 직전 판정)
+        for (int i = 0; i < frames.size(); i++) {
+            Long hash = differenceHash(frames.get(i));
+            if (hash != null && referenceHash != null
+                    && Long.bitCount(referenceHash ^ hash) < properties.getHammingThreshold()) {
+                source[i] = reference;
+                deduplicatedFrames.increment();
+                continue;
+            }
+            source[i] = toAnalyze.size();
+            toAnalyze.add(frames.get(i));
+            reference = source[i];
+            referenceHash = hash;
+        }
+
+        List<VisionAiClient.FrameVerdict> analyzed = toAnalyze.isEmpty()
+                ? List.of() : analyzer.apply(toAnalyze);
+        List<VisionAiClient.FrameVerdict> verdicts = new ArrayList<>(frames.size());
+        boolean[] sent = new boolean[toAnalyze.size()];
+        for (int index : source) {
+            if (index < 0) {
+                verdicts.add(VisionAiClient.FrameVerdict.reused(previous.detection()));
+            } else if (!sent[index]) {
+                sent[index] = true; // 보낸 프레임 자신
+                verdicts.add(analyzed.get(index));
+            } else {
+                verdicts.add(analyzed.get(index).failed() ? analyzed.get(index)
+                        : VisionAiClient.FrameVerdict.reused(analyzed.get(index).detection()));
+            }
+        }
+        if (reference >= 0 && referenceHash != null && !analyzed.get(reference).failed()) {
+            // 마지막으로 보낸 프레임을 다음 요청의 비교 기준으로 기억
+            remember(sessionId, new AnalyzedFrame(referenceHash, analyzed.get(reference).detection(), now));
+        }
+        return Collections.unmodifiableList(verdicts);
+    }
+
+    /**
+     * 세션이 끝났을 때 기억해 둔 프레임을 지웁니다.
+     */
+    public void forget(String sessionId) {
+        lastAnalyzed.remove(sessionId);
+    }
+
+    int trackedSessions() {
+        return lastAnalyzed.size();
+    }
+
+    private void remember(String sessionId, AnalyzedFrame frame) {
+        if (lastAnalyzed.size() >= properties.getMaxSessions() && !lastAnalyzed.containsKey(sessionId)) {
+            // 만료된 항목부터 정리하고, 그래도 가득 차 있으면 이번 프레임은 기억하지 않음
+            Instant expiredBefore = frame.analyzedAt().minus(properties.getVerdictTtl());
+            lastAnalyzed.values().removeIf(entry -> !entry.analyzedAt().isAfter(expiredBefore));
+            if (lastAnalyzed.size() >= properties.getMaxSessions()) {
+                return;
+            }
+        }
+        lastAnalyzed.put(sessionId, frame);
+    }
+
+    /**
+     * 9x8 회색조로 축소한 뒤 가로로 인접한 픽셀의 밝기 대소를 64비트로 만든 dHash.
+     * 디코딩할 수 없는 이미지면 null 을 반환합니다.
+     */
+    static Long differenceHash(byte[] frame) {
+        BufferedImage source;
+        try {
+            source = ImageIO.read(new MemoryCacheImageInputStream(new ByteArrayInputStream(frame))); // 임시 파일 캐시를 쓰지 않음
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to decode frame for hashing", e);
+            return null;
+        }
+        if (source == null) {
+            return null;
+        }
+
+        BufferedImage scaled = new BufferedImage(HASH_WIDTH, HASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, HASH_WIDTH, HASH_HEIGHT, null);
+        } finally {
+            graphics.dispose();
+        }
+
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                int left = scaled.getRaster().getSample(x, y, 0);
+                int right = scaled.getRaster().getSample(x + 1, y, 0);
+                hash = (hash << 1) | (left > right ? 1L : 0L);
+            }
+        }
+        return hash;
+    }
+
+    private record AnalyzedFrame(long hash, Optional<VisionAiClient.DetectedDistraction> detection, Instant analyzedAt) {
+    }
+}
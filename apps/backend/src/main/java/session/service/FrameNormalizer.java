@@ -0,0 +1,202 @@
+package session.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Vision AI 로 보내기 전에 프레임을 탐지 서버의 작업 해상도로 줄이고 JPEG 로 다시 인코딩합니다.
+ * <p>
+ * - 크기 제한을 넘는 프레임은 디코딩 전에 거절합니다. (진입점에서 {@link #isOversized} 로 확인)<br>
+ * - 이미 작업 해상도 이하인 JPEG 는 디코딩하지 않고 그대로 보냅니다.<br>
+ * - 큰 프레임은 디코딩 단계에서 정수 배로 건너뛰며 읽고(subsampling), 남은 만큼만 보간해 축소합니다.<br>
+ * - JPEG 인코더와 출력 버퍼는 스레드별로 재사용합니다.<br>
+ * - ImageIO 가 디코딩하지 못하는 포맷(webp 등)은 그대로 넘깁니다.
+ */
+@Slf4j
+@Component
+public class FrameNormalizer {
+
+    private static final String NORMALIZED_FILENAME = "frame.jpg";
+
+    private final VisionAiProperties.Normalize properties;
+    private final DistributionSummary bytesIn;
+    private final DistributionSummary bytesOut;
+    private final Timer normalizeTimer;
+    private final Counter oversizedFrames;
+    private final ThreadLocal<JpegEncoder> encoders = ThreadLocal.withInitial(JpegEncoder::new);
+
+    public FrameNormalizer(VisionAiProperties visionAiProperties, MeterRegistry meterRegistry) {
+        this.properties = visionAiProperties.getNormalize();
+        this.bytesIn = DistributionSummary.builder("vision.frames.bytes")
+                .tag("stage", "in")
+                .baseUnit("bytes")
+                .description("Frame size before and after normalization")
+                .register(meterRegistry);
+        this.bytesOut = DistributionSummary.builder("vision.frames.bytes")
+                .tag("stage", "out")
+                .baseUnit("bytes")
+                .description("Frame size before and after normalization")
+                .register(meterRegistry);
+        this.normalizeTimer = Timer.builder("vision.frames.normalize")
+                .description("Time spent decoding, downscaling and re-encoding frames")
+                .register(meterRegistry);
+        this.oversizedFrames = Counter.builder("vision.frames.rejected")
+                .tag("reason", "too_large")
+                .description("Frames rejected before analysis")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 업로드된 프레임을 정확한 크기의 배열 하나로 읽습니다.
+     * MultipartFile.getBytes() 는 늘어나는 버퍼에 복사한 뒤 다시 잘라내므로 프레임마다 여러 배를 할당합니다.
+     */
+    public static byte[] read(MultipartFile frame) throws IOException {
+        byte[] content = new byte[Math.toIntExact(frame.getSize())];
+        try (InputStream input = frame.getInputStream()) {
+            int read = input.readNBytes(content, 0, content.length);
+            if (read != content.length) {
+                throw new IOException("프레임을 끝까지 읽지 못했습니다. (" + read + "/" + content.length + ")");
+            }
+        }
+        return content;
+    }
+
+    /**
+     * 프레임이 받을 수 있는 크기를 넘는지 확인합니다. 넘으면 거절 지표를 올립니다.
+     */
+    public boolean isOversized(long size) {
+        if (size <= properties.getMaxInputBytes()) {
+            return false;
+        }
+        oversizedFrames.increment();
+        return true;
+    }
+
+    /**
+     * 프레임을 작업 해상도의 JPEG 로 정규화합니다. 바꿀 필요가 없거나 바꿀 수 없으면 받은 프레임을 그대로 반환합니다.
+     */
+    public NormalizedFrame normalize(byte[] frame, String filename) {
+        if (!properties.isEnabled()) {
+            return new NormalizedFrame(frame, filename);
+        }
+        bytesIn.record(frame.length);
+        NormalizedFrame normalized = normalizeTimer.record(() -> transcode(frame, filename));
+        bytesOut.record(normalized.content().length);
+        return normalized;
+    }
+
+    private NormalizedFrame transcode(byte[] frame, String filename) {
+        // ImageIO.createImageInputStream 은 임시 파일 캐시를 쓸 수 있으므로 메모리 캐시 스트림을 직접 만듦
+        try (ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(frame))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return new NormalizedFrame(frame, filename); // 디코딩할 수 없는 포맷
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                boolean jpeg = "jpeg".equalsIgnoreCase(reader.getFormatName());
+                if (jpeg && fits(width, height)) {
+                    return new NormalizedFrame(frame, filename);
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.min(width / properties.getTargetWidth(), height / properties.getTargetHeight()));
+                if (step > 1) {
+                    param.setSourceSubsampling(step, step, 0, 0);
+                }
+                BufferedImage decoded = reader.read(0, param);
+                byte[] encoded = encoders.get().encode(resize(decoded), properties.getJpegQuality());
+                if (jpeg && encoded.length >= frame.length) {
+                    return new NormalizedFrame(frame, filename);
+                }
+                return new NormalizedFrame(encoded, NORMALIZED_FILENAME);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to normalize frame, forwarding as is", e);
+            return new NormalizedFrame(frame, filename);
+        }
+    }
+
+    private boolean fits(int width, int height) {
+        return width <= properties.getTargetWidth() && height <= properties.getTargetHeight();
+    }
+
+    /**
+     * 작업 해상도 상자에 들어가도록 비율을 유지해 줄이고, JPEG 로 쓸 수 있게 알파 없는 BGR 로 옮깁니다.
+     */
+    private BufferedImage resize(BufferedImage source) {
+        double scale = Math.min(1.0, Math.min((double) properties.getTargetWidth() / source.getWidth(),
+                (double) properties.getTargetHeight() / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        if (scale == 1.0 && source.getType() == BufferedImage.TYPE_3BYTE_BGR) {
+            return source;
+        }
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * 정규화된 프레임과 전송할 파일 이름
+     */
+    public record NormalizedFrame(byte[] content, String filename) {
+    }
+
+    /**
+     * 스레드별로 재사용하는 JPEG 인코더와 출력 버퍼.
+     */
+    private static final class JpegEncoder {
+        private final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+        private byte[] encode(BufferedImage image, float quality) throws IOException {
+            buffer.reset();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(buffer)) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.reset();
+            }
+            return buffer.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package session.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import session.domain.SessionStatus;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 세션 상태와 최근 판정을 보고, 클라이언트가 다음 프레임을 보내기까지 기다릴 시간(nextFrameAfterMs)을 정합니다.
+ * <p>
+ * - 깨끗한 프레임이 이어지면 간격을 두 배씩 늘립니다. (maxInterval 까지)<br>
+ * - 딴짓 판정 직후와 PAUSED 상태(자리 복귀 대기)에는 짧은 간격으로 당깁니다.
+ * 평활화 창이 차기 전의 판정도 딴짓이면 당기므로, 확정까지 걸리는 시간이 늘어나지 않습니다.<br>
+ * - Vision AI 응답이 느려지면 모든 세션의 간격을 늘리고, 모든 서버의 서킷 브레이커가 열려 있으면 가장 긴 간격을 안내합니다.
+ * 분석 부하가 접속자 수가 아니라 실제 딴짓 발생량을 따라가게 하는 것이 목적입니다.
+ */
+@Component
+public class FrameSamplingAdvisor {
+
+    private static final double LATENCY_EWMA_WEIGHT = 0.2;
+    private static final int MAX_BACKOFF_STEPS = 16;
+    // 다른 노드에서 종료된 세션처럼 종료 이벤트를 받지 못한 상태를 정리하는 기준
+    private static final Duration IDLE_EVICTION = Duration.ofMinutes(10);
+
+    private final VisionAiProperties.Sampling properties;
+    private final VisionAiEndpoints endpoints;
+    private final Clock clock;
+    private final ConcurrentHashMap<String, SamplingState> states = new ConcurrentHashMap<>();
+    private double latencyEwmaMillis;
+
+    @Autowired
+    public FrameSamplingAdvisor(VisionAiProperties visionAiProperties, VisionAiEndpoints endpoints,
+                                MeterRegistry meterRegistry) {
+        this(visionAiProperties, endpoints, meterRegistry, Clock.systemUTC());
+    }
+
+    FrameSamplingAdvisor(VisionAiProperties visionAiProperties, VisionAiEndpoints endpoints,
+                         MeterRegistry meterRegistry, Clock clock) {
+        this.properties = visionAiProperties.getSampling();
+        this.endpoints = endpoints;
+        this.clock = clock;
+        Gauge.builder("vision.sampling.latency", this, FrameSamplingAdvisor::latencyEwmaMillis)
+                .description("Moving average of Vision AI call latency in milliseconds used to throttle frame sampling")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 평활화 전의 프레임 판정을 기록합니다.
+     */
+    public void recordVerdict(String sessionId, Optional<VisionAiClient.DetectedDistraction> verdict) {
+        SamplingState state = stateOf(sessionId);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            state.lastSeenAt = clock.instant();
+            if (verdict.isPresent()) {
+                state.cleanStreak = 0;
+                state.boostUntil = clock.instant().plus(properties.getBoostDuration());
+            } else {
+                state.cleanStreak++;
+            }
+        }
+    }
+
+    /**
+     * 실제로 Vision AI 를 호출한 응답 시간을 기록합니다.
+     */
+    public synchronized void recordLatency(long latencyMillis) {
+        latencyEwmaMillis = latencyEwmaMillis == 0 ? latencyMillis
+                : LATENCY_EWMA_WEIGHT * latencyMillis + (1 - LATENCY_EWMA_WEIGHT) * latencyEwmaMillis;
+    }
+
+    /**
+     * 세션 상태가 바뀌면 간격 상태에 반영합니다. 응답/소켓 메시지에 싣기 전에 반영되도록 먼저 실행됩니다.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSessionEvent(StudySessionEvent event) {
+        if (event.type() != StudySessionEvent.Type.STATUS_CHANGED) {
+            return;
+        }
+        if (event.status() == SessionStatus.ENDED) {
+            states.remove(event.sessionId());
+            return;
+        }
+        SamplingState state = stateOf(event.sessionId());
+        if (state != null) {
+            synchronized (state) {
+                state.status = event.status();
+            }
+        }
+    }
+
+    /**
+     * 클라이언트가 다음 프레임을 보내기까지 기다릴 시간(ms)을 반환합니다.
+     */
+    public long nextFrameAfterMs(String sessionId) {
+        long min = properties.getMinInterval().toMillis();
+        long max = Math.max(min, properties.getMaxInterval().toMillis());
+        long base = properties.getBaseInterval().toMillis();
+        if (!properties.isEnabled()) {
+            return base;
+        }
+        if (endpoints.isUnavailable()) {
+            return max; // 모든 서버의 회로가 열려 있어 어차피 분석하지 못함
+        }
+
+        long interval = base;
+        SamplingState state = states.get(sessionId);
+        if (state != null) {
+            synchronized (state) {
+                if (state.status == SessionStatus.PAUSED || clock.instant().isBefore(state.boostUntil)) {
+                    interval = min;
+                } else {
+                    int steps = Math.min(state.cleanStreak / Math.max(1, properties.getCleanFramesPerStep()),
+                            MAX_BACKOFF_STEPS);
+                    interval = base << steps;
+                }
+            }
+        }
+
+        double latency = latencyEwmaMillis();
+        long target = properties.getLatencyTarget().toMillis();
+        if (target > 0 && latency > target) {
+            interval = (long) (interval * (latency / target));
+        }
+        return Math.min(max, Math.max(min, interval));
+    }
+
+    int trackedSessions() {
+        return states.size();
+    }
+
+    private synchronized double latencyEwmaMillis() {
+        return latencyEwmaMillis;
+    }
+
+    private SamplingState stateOf(String sessionId) {
+        SamplingState state = states.get(sessionId);
+        if (state != null) {
+            return state;
+        }
+        if (states.size() >= properties.getMaxSessions()) {
+            Instant idleBefore = clock.instant().minus(IDLE_EVICTION);
+            states.values().removeIf(entry -> entry.lastSeenAt.isBefore(idleBefore));
+            if (states.size() >= properties.getMaxSessions()) {
+                return null; // 가득 차면 기억하지 않고 기본 간격을 안내
+            }
+        }
+        return states.computeIfAbsent(sessionId, key -> new SamplingState(clock.instant()));
+    }
+
+    private static final class SamplingState {
+        private volatile Instant lastSeenAt;
+        private SessionStatus status = SessionStatus.ACTIVE;
+        private int cleanStreak;
+        private Instant boostUntil = Instant.EPOCH;
+
+        private SamplingState(Instant createdAt) {
+            this.lastSeenAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package session.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import session.domain.SessionStatus;
+import session.domain.StudySession;
+import session.repository.StudySessionRepository;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 탭을 닫아 방치된 ACTIVE/PAUSED 세션을 주기적으로 종료합니다.
+ * <p>
+ * - 마지막 활동 시각(lastEventAt)이 idle-timeout 보다 오래된 세션을 (status, lastEventAt) 인덱스로 찾아 커서로 나눠 읽습니다.<br>
+ * - 로그 없이 프레임만 분석되는 세션도 살아 있는 것으로 보도록, 분석된 프레임은 세션마다 heartbeat-interval 에 한 번 lastEventAt 을 당깁니다.<br>
+ * - 종료 전에 이 노드가 메모리에 모아 둔 변경을 먼저 내려써, 그 활동이 있었던 세션은 종료하지 않습니다.<br>
+ * - 종료 시각은 정리한 시각이 아니라 마지막 활동 시각으로 기록해 학습 시간이 부풀지 않게 합니다.<br>
+ * - 종료와 함께 후처리 작업(outbox)을 등록하므로 리포트는 일반 종료와 같은 경로로 만들어집니다.<br>
+ * - 읽은 헤더의 version 과 lastEventAt 이 그대로일 때만 종료하므로, 여러 노드가 동시에 돌거나 그사이 로그가 들어와도 한 번만, 방치된 세션만 종료됩니다.
+ */
+@Slf4j
+@Component
+public class IdleSessionReaper {
+
+    private final StudySessionRepository studyRepo;
+    private final ActiveSessionRegistry sessionRegistry;
+    private final VisionAiClient visionAiClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SessionReaperProperties properties;
+    private final Counter reaped;
+    // 세션 ID -> 분석된 프레임으로 마지막으로 lastEventAt 을 당긴 시각
+    private final Map<String, Instant> heartbeats = new ConcurrentHashMap<>();
+
+    public IdleSessionReaper(StudySessionRepository studyRepo, ActiveSessionRegistry sessionRegistry,
+                             VisionAiClient visionAiClient, ApplicationEventPublisher eventPublisher,
+                             SessionReaperProperties properties, MeterRegistry meterRegistry) {
+        this.studyRepo = studyRepo;
+        this.sessionRegistry = sessionRegistry;
+        this.visionAiClient = visionAiClient;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.reaped = meterRegistry.counter("session.reaper.ended");
+    }
+
+    @Scheduled(fixedDelayString = "${session.reaper.interval:5m}")
+    public void reap() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Instant idleBefore = Instant.now().minus(properties.getIdleTimeout());
+        heartbeats.values().removeIf(at -> at.isBefore(idleBefore)); // 다른 노드에서 종료된 세션 등
+        int ended = 0;
+        try (Stream<StudySession> idle = studyRepo.streamIdleOpenSessions(idleBefore, properties.getBatchSize())) {
+            Iterator<StudySession> sessions = idle.iterator();
+            while (sessions.hasNext()) {
+                StudySession seen = sessions.next();
+                try {
+                    if (end(seen)) {
+                        ended++;
+                    }
+                } catch (RuntimeException e) {
+                    // 다음 주기에 다시 시도
+                    log.warn("Failed to end idle session {}: {}", seen.getSessionId(), e.getMessage());
+                }
+            }
+        }
+        if (ended > 0) {
+            log.info("Ended {} idle sessions (inactive since before {})", ended, idleBefore);
+        }
+    }
+
+    /**
+     * 분석된 프레임이 있으면 세션마다 heartbeat-interval 에 한 번 lastEventAt 을 당기고, 종료된 세션은 잊습니다.
+     */
+    @EventListener
+    public void onSessionEvent(StudySessionEvent event) {
+        if (event.type() == StudySessionEvent.Type.STATUS_CHANGED && event.status() == SessionStatus.ENDED) {
+            heartbeats.remove(event.sessionId());
+            return;
+        }
+        if (event.type() != StudySessionEvent.Type.FRAME_ANALYZED || !properties.isEnabled()) {
+            return;
+        }
+        String sessionId = event.sessionId();
+        Instant at = event.occurredAt();
+        Instant last = heartbeats.get(sessionId);
+        if (last != null && at.isBefore(last.plus(properties.getHeartbeatInterval()))) {
+            return;
+        }
+        // 같은 세션의 프레임이 동시에 분석돼도 한 요청만 쓰도록 선점
+        boolean claimed = last == null ? heartbeats.putIfAbsent(sessionId, at) == null
+                : heartbeats.replace(sessionId, last, at);
+        if (!claimed) {
+            return;
+        }
+        try {
+            studyRepo.touchLastEventAt(sessionId, at);
+        } catch (RuntimeException e) {
+            // 프레임 분석 응답은 막지 않고 다음 프레임에서 다시 시도
+            heartbeats.remove(sessionId, at);
+            log.warn("Failed to record frame activity of session {}: {}", sessionId, e.getMessage());
+        }
+    }
+
+    private boolean end(StudySession seen) {
+        // 이 노드가 모아 둔 변경을 먼저 내려씀. 내려쓴 게 있으면 version 이 바뀌어 아래 종료는 건너뜀
+        sessionRegistry.flushAndEvict(seen.getSessionId());
+        if (studyRepo.endIfUnchanged(seen, lastActivityOf(seen)).isEmpty()) {
+            return false; // 다른 노드가 먼저 종료했거나 그사이 활동이 있었음
+        }
+        visionAiClient.forgetSession(seen.getSessionId());
+        eventPublisher.publishEvent(StudySessionEvent.statusChanged(seen, SessionStatus.ENDED));
+        reaped.increment();
+        return true;
+    }
+
+    private static Instant lastActivityOf(StudySession session) {
+        if (session.getLastEventAt() != null) {
+            return session.getLastEventAt();
+        }
+        return session.getLastTransitionAt() != null ? session.getLastTransitionAt() : session.getStartedAt();
+    }
+}
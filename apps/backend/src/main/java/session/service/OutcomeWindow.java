@@ -0,0 +1,56 @@
+package session.service;
+
+/**
+ * 최근 n 개 호출의 실패 여부를 담는 링 버퍼입니다. 동기화는 들고 있는 쪽에서 합니다.
+ */
+final class OutcomeWindow {
+
+    private final boolean[] outcomes;
+    private int recorded;
+    private int failures;
+    private int next;
+
+    OutcomeWindow(int size) {
+        this.outcomes = new boolean[Math.max(1, size)];
+    }
+
+    void record(boolean failure) {
+        if (recorded == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+
+    /**
+     * minimumCalls 개 이상 모였고, 그중 실패율(%)이 ratePercent 이상인지 여부.
+     */
+    boolean failureRateReached(int minimumCalls, int ratePercent) {
+        return recorded >= minimumCalls && failures * 100 >= ratePercent * recorded;
+    }
+
+    boolean hasAtLeast(int calls) {
+        return recorded >= calls;
+    }
+
+    int recorded() {
+        return recorded;
+    }
+
+    int failures() {
+        return failures;
+    }
+
+    void clear() {
+        recorded = 0;
+        failures = 0;
+        next = 0;
+    }
+}
@@ -0,0 +1,284 @@
+package session.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import match.domain.Match;
+import match.repository.MatchRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import session.domain.*;
+import session.dto.SessionImportLine;
+import session.dto.SessionImportResultDTO;
+import session.repository.StudySessionRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 오프라인에서 기록한 세션 하나를 NDJSON 으로 받아 한 번에 재생합니다.
+ * <p>
+ * - START 의 매칭은 요청한 사용자가 멘티이고 mentorUserId 가 그 매칭의 멘토일 때만 받습니다.<br>
+ * - 본문을 한 줄씩 읽으며 순서를 검증하므로 요청 전체를 메모리에 올리지 않습니다.<br>
+ * - 세션은 IMPORTING 상태로 만들어 가져오는 동안 진행 중 세션으로 보이지 않게 합니다.
+ *   (같은 매칭의 실시간 시작이 합류하거나 방치 세션 정리가 종료하지 않음)<br>
+ * - 로그는 버킷 용량만큼 모아 {@link StudySessionRepository#appendEvents} 로 내려씁니다. (헤더 갱신 한 번 + 버킷별 $push 한 번)<br>
+ * - 일시정지/재개는 메모리에서 검증만 하고, 본문을 END 까지 다 읽은 뒤 일시정지 횟수와 함께 세션을 종료합니다.
+ *   종료와 함께 후처리 작업(outbox)을 한 번 등록하므로 리포트는 한 번만 만들어집니다.<br>
+ * - 중간에 실패하면 만들던 세션을 버킷과 함께 지웁니다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionImportService {
+
+    static final int MAX_EVENTS = 20_000;
+    // 기기 시계가 서버보다 조금 빠른 경우는 허용
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(1);
+
+    private final StudySessionRepository studyRepo;
+    private final MatchRepository matchRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * NDJSON 본문을 읽어 세션 하나를 만들고 종료까지 재생합니다.
+     *
+     * @throws IllegalArgumentException 줄을 읽을 수 없거나 순서가 맞지 않는 경우 (몇 번째 줄인지 메시지에 포함)
+     * @throws AccessDeniedException     START 의 매칭에서 요청한 사용자가 멘티가 아니거나 멘토가 다른 경우
+     */
+    public SessionImportResultDTO importSession(String menteeUserId, InputStream body) throws IOException {
+        Replay replay = new Replay(menteeUserId);
+        try (MappingIterator<SessionImportLine> lines = objectMapper.readerFor(SessionImportLine.class).readValues(body)) {
+            int lineNo = 0;
+            while (true) {
+                SessionImportLine line;
+                try {
+                    if (!lines.hasNextValue()) {
+                        break;
+                    }
+                    line = lines.nextValue();
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException((lineNo + 1) + "번째 줄을 읽을 수 없습니다.", e);
+                }
+                lineNo++;
+                try {
+                    replay.apply(line);
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(lineNo + "번째 줄: " + e.getMessage(), e);
+                }
+            }
+            replay.finish();
+        } catch (IOException | RuntimeException e) {
+            replay.discard();
+            throw e;
+        }
+
+        eventPublisher.publishEvent(StudySessionEvent.statusChanged(replay.header, SessionStatus.ENDED));
+        return new SessionImportResultDTO(replay.sessionId, replay.eventCount, replay.startedAt, replay.lastAt);
+    }
+
+    /**
+     * 가져오는 중인 세션 하나의 상태. 줄마다 순서를 검증하고, 로그는 모았다가 한 번에 내려씁니다.
+     */
+    private final class Replay {
+        private final String menteeUserId;
+        private final List<SessionEvent> pending = new ArrayList<>();
+        private StudySession header; // START 로 만든 세션
+        private String sessionId;
+        private SessionStatus status; // 재생 중인 상태 (헤더는 끝날 때까지 IMPORTING)
+        private Instant startedAt;
+        private Instant lastAt;
+        private int pauses; // ACTIVE 에서 PAUSED 로 바뀐 횟수 (종료할 때 기록)
+        private DistractionLog lastDistraction;
+        private long eventCount;
+        private boolean ended;    // END 줄을 읽음
+        private boolean finished; // 종료까지 반영함
+
+        private Replay(String menteeUserId) {
+            this.menteeUserId = menteeUserId;
+        }
+
+        private void apply(SessionImportLine line) {
+            if (line.type() == null) {
+                throw new IllegalArgumentException("type 이 없습니다.");
+            }
+            if (ended) {
+                throw new IllegalArgumentException("END 뒤에는 줄을 보낼 수 없습니다.");
+            }
+            if (sessionId == null && line.type() != SessionImportLine.Type.START) {
+                throw new IllegalArgumentException("START 줄로 시작해야 합니다.");
+            }
+            Instant at = checkTime(line.at());
+
+            switch (line.type()) {
+                case START -> start(line, at);
+                case STUDY_LOG -> add(StudyLog.builder()
+                        .content(required(line.content(), "content"))
+                        .timestamp(at)
+                        .build());
+                case QUESTION -> add(QuestionLog.builder()
+                        .question(required(line.question(), "question"))
+                        .createdAt(at)
+                        .build());
+                case DISTRACTION -> {
+                    lastDistraction = DistractionLog.builder()
+                            .activity(required(line.activity(), "activity"))
+                            .detectedAt(at)
+                            .detectionType((line.detectionType() == null || line.detectionType().isBlank())
+                                    ? "UNKNOWN" : line.detectionType())
+                            .build();
+                    add(lastDistraction);
+                    transition(SessionStatus.PAUSED);
+                }
+                case FEEDBACK -> feedback(line, at);
+                case RESUME -> {
+                    if (status != SessionStatus.PAUSED) {
+                        throw new IllegalArgumentException("일시정지되지 않은 세션은 재개할 수 없습니다.");
+                    }
+                    transition(SessionStatus.ACTIVE);
+                }
+                case END -> ended = true;
+            }
+            lastAt = at;
+        }
+
+        private void start(SessionImportLine line, Instant at) {
+            if (sessionId != null) {
+                throw new IllegalArgumentException("START 는 한 번만 보낼 수 있습니다.");
+            }
+            Match match = checkMatch(required(line.matchId(), "matchId"), required(line.mentorUserId(), "mentorUserId"));
+            // IMPORTING 은 open_match_idx 에 들어가지 않으므로 같은 매칭의 진행 중 세션과 겹쳐도 됨
+            StudySession session = studyRepo.save(StudySession.builder()
+                    .matchId(match.getMatchId())
+                    .menteeUserId(menteeUserId)
+                    .mentorUserId(match.getMentorUserId())
+                    .status(SessionStatus.IMPORTING)
+                    .startedAt(at)
+                    .eventCount(0L)
+                    .studyLogCount(0)
+                    .distractionCount(0)
+                    .questionCount(0)
+                    .distractionMillis(0L)
+                    .pauseCount(0)
+                    .lastTransitionAt(at)
+                    .lastEventAt(at)
+                    .build());
+            header = session;
+            sessionId = session.getSessionId();
+            status = SessionStatus.ACTIVE;
+            startedAt = at;
+        }
+
+        /**
+         * 가져온 세션도 종료 후 리포트와 Q&A 보드로 이어지므로, 요청한 사용자가 멘티인 그 매칭에만 기록합니다.
+         */
+        private Match checkMatch(String matchId, String mentorUserId) {
+            Match match = matchRepository.findById(matchId)
+                    .orElseThrow(() -> new IllegalArgumentException("매칭을 찾을 수 없습니다."));
+            if (!menteeUserId.equals(match.getMenteeUserId()) || !mentorUserId.equals(match.getMentorUserId())) {
+                throw new AccessDeniedException("User " + menteeUserId + " cannot import sessions into match " + matchId);
+            }
+            return match;
+        }
+
+        private void add(SessionEvent event) {
+            if (++eventCount > MAX_EVENTS) {
+                throw new IllegalArgumentException("세션 하나에 기록할 수 있는 로그는 " + MAX_EVENTS + "개까지입니다.");
+            }
+            pending.add(event);
+            if (pending.size() >= SessionEventBucket.CAPACITY) {
+                flush();
+            }
+        }
+
+        private void feedback(SessionImportLine line, Instant at) {
+            if (lastDistraction == null || lastDistraction.getSelfFeedback() != null) {
+                throw new IllegalArgumentException("피드백을 붙일 딴짓 기록이 없습니다.");
+            }
+            SelfFeedback feedback = SelfFeedback.builder()
+                    .comment(required(line.comment(), "comment"))
+                    .createdAt(at)
+                    .build();
+            lastDistraction.setSelfFeedback(feedback);
+            if (!pending.contains(lastDistraction)) {
+                // 딴짓 로그가 이미 내려쓰였으면 조건부 갱신으로 붙임
+                studyRepo.attachSelfFeedbackToLastDistraction(sessionId, feedback)
+                        .orElseThrow(() -> new IllegalStateException("가져오는 중인 세션에 피드백을 붙이지 못했습니다."));
+            }
+        }
+
+        /**
+         * 본문을 끝까지 읽은 뒤 남은 로그를 내려쓰고 세션을 종료합니다. END 뒤에 줄이 더 오면 종료하지 않고 실패합니다.
+         */
+        private void finish() {
+            if (!ended) {
+                throw new IllegalArgumentException("END 줄로 끝나야 합니다.");
+            }
+            flush();
+            studyRepo.finishImport(sessionId, lastAt, pauses)
+                    .orElseThrow(() -> new IllegalStateException("가져오는 중인 세션을 종료하지 못했습니다."));
+            finished = true;
+        }
+
+        /**
+         * 실제로 다른 상태로 바뀔 때만 일시정지로 셉니다. (일시정지 중의 딴짓은 PAUSED 를 유지할 뿐)
+         * 헤더의 상태는 끝날 때까지 IMPORTING 이므로 내려쓰지 않고 종료할 때 횟수만 기록합니다.
+         */
+        private void transition(SessionStatus next) {
+            if (status == next) {
+                return;
+            }
+            if (next == SessionStatus.PAUSED) {
+                pauses++;
+            }
+            status = next;
+        }
+
+        /**
+         * 모아 둔 로그만 내려씁니다. 상태는 쓰지 않으므로 헤더는 IMPORTING 그대로입니다.
+         */
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            studyRepo.appendEvents(sessionId, List.copyOf(pending), null, null)
+                    .orElseThrow(() -> new IllegalStateException("가져오는 중인 세션에 로그를 쓰지 못했습니다."));
+            pending.clear();
+        }
+
+        private Instant checkTime(Instant at) {
+            if (at == null) {
+                throw new IllegalArgumentException("at 이 없습니다.");
+            }
+            if (lastAt != null && at.isBefore(lastAt)) {
+                throw new IllegalArgumentException("발생 시각이 앞 줄보다 이릅니다.");
+            }
+            if (at.isAfter(Instant.now().plus(MAX_CLOCK_SKEW))) {
+                throw new IllegalArgumentException("발생 시각이 미래입니다.");
+            }
+            return at;
+        }
+
+        private void discard() {
+            if (sessionId != null && !finished) {
+                log.warn("Discarding partially imported session {}", sessionId);
+                studyRepo.deleteWithEvents(sessionId);
+            }
+        }
+    }
+
+    private static String required(String value, String field) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(field + " 가 없습니다.");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,261 @@
+package session.service;
+
+import common.dto.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import session.dto.SessionLiveMessageDTO;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 매칭별 SSE 구독자에게 이 노드에서 일어난 세션 이벤트(상태 변경, 학습/딴짓/질문 로그)를 나눠 보냅니다.
+ * <p>
+ * - 이벤트를 발행한 요청 스레드는 구독자별 버퍼에 넣기만 하고, 실제 전송은 sender-threads 개의 고정된 전송 스레드가 나눠 합니다.
+ *   구독자의 버퍼가 비어 있다가 채워질 때만 그 구독자의 전송 작업을 하나 예약하므로, 구독자가 많아도 스레드와 작업 수가 늘지 않습니다.<br>
+ * - 전송 작업 하나는 최대 buffer-size 개까지만 보내고 남은 이벤트는 다시 줄을 세워, 한 구독자가 전송 스레드를 오래 붙잡지 않게 합니다.<br>
+ * - 버퍼가 buffer-size 를 넘으면 느린 구독자로 보고 연결을 끊으므로, 느린 브라우저 때문에 메모리가 계속 늘지 않습니다.
+ *   끊긴 클라이언트는 다시 연결한 뒤 놓친 로그를 타임라인 API 로 받아 옵니다.<br>
+ * - 전송 하나가 send-time-limit 보다 오래 막혀 있으면 그 구독자를 끊고 전송 스레드를 인터럽트해 돌려받습니다.
+ *   응답하지 않는 브라우저 몇 개가 전송 스레드를 모두 잡아 정상 구독자까지 밀려 끊기는 일을 막습니다.<br>
+ * - 구독은 매칭 단위라서 세션이 끝나고 새 세션이 시작되어도 연결을 유지합니다.<br>
+ * - 이벤트는 발행한 노드의 구독자에게만 갑니다. 재전송된 요청의 로그는 한 번 더 올 수 있습니다.
+ */
+@Slf4j
+@Component
+public class SessionLiveBroadcaster {
+
+    private static final String HEARTBEAT = "ping";
+
+    private final SessionLiveProperties properties;
+    private final Counter evictedSubscribers;
+
+    // matchId -> 구독자
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicInteger threadSequence = new AtomicInteger();
+
+    // SseEmitter.send 는 synchronized 라 가상 스레드를 고정시키므로 고정 개수의 플랫폼 스레드를 씀
+    private final ExecutorService senders;
+
+    public SessionLiveBroadcaster(SessionLiveProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.senders = Executors.newFixedThreadPool(Math.max(1, properties.getSenderThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "session-live-" + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("session.live.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open live session event streams on this node")
+                .register(meterRegistry);
+        this.evictedSubscribers = Counter.builder("session.live.evicted")
+                .description("Live streams closed because the subscriber fell behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 매칭의 세션 이벤트를 받는 SSE 연결을 엽니다. 노드의 구독자 수가 한도에 닿았으면 빈 Optional.
+     */
+    public Optional<SseEmitter> subscribe(String matchId) {
+        if (subscriberCount.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+        SseEmitter emitter = newEmitter(properties.getTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(matchId, emitter, properties.getBufferSize());
+        subscribers.compute(matchId, (id, current) -> {
+            Set<Subscriber> matched = current == null ? ConcurrentHashMap.newKeySet() : current;
+            matched.add(subscriber);
+            return matched;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        return Optional.of(emitter);
+    }
+
+    @EventListener
+    public void onSessionEvent(StudySessionEvent event) {
+        if (event.type() == StudySessionEvent.Type.FRAME_ANALYZED || event.matchId() == null) {
+            return; // 판정 자체는 프레임 소켓으로만 보냄 (감지된 딴짓은 LOGGED 로 옴)
+        }
+        Set<Subscriber> matched = subscribers.get(event.matchId());
+        if (matched == null || matched.isEmpty()) {
+            return;
+        }
+        // 한 번만 만들어 모든 구독자 버퍼에 공유
+        Set<ResponseBodyEmitter.DataWithMediaType> message = SseEmitter.event()
+                .name(event.type().name())
+                .data(ApiResponse.ok(SessionLiveMessageDTO.from(event)), MediaType.APPLICATION_JSON)
+                .build();
+        matched.forEach(subscriber -> subscriber.offer(message));
+    }
+
+    @Scheduled(fixedDelayString = "${session.live.heartbeat-interval:15s}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment(HEARTBEAT).build();
+        subscribers.values().forEach(matched -> matched.forEach(subscriber -> subscriber.offer(ping)));
+    }
+
+    /**
+     * 전송이 send-time-limit 를 넘겨 막혀 있는 구독자를 끊습니다.
+     */
+    @Scheduled(fixedDelay = 1, timeUnit = TimeUnit.SECONDS)
+    public void evictStalledSenders() {
+        long limitNanos = properties.getSendTimeLimit().toNanos();
+        long now = System.nanoTime();
+        subscribers.values().forEach(matched -> matched.forEach(subscriber -> {
+            if (subscriber.isStalled(now, limitNanos)) {
+                evict(subscriber); // 먼저 닫아야 인터럽트된 전송의 실패가 퇴출로 집계됨
+                subscriber.interruptSender();
+            }
+        }));
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    void closeAll() {
+        subscribers.values().forEach(matched -> matched.forEach(subscriber -> subscriber.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    SseEmitter newEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        subscribers.computeIfPresent(subscriber.matchId, (id, matched) -> {
+            matched.remove(subscriber);
+            return matched.isEmpty() ? null : matched;
+        });
+        subscriberCount.decrementAndGet();
+        return true;
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            evictedSubscribers.increment();
+            log.debug("Evicted slow or stalled live subscriber of match {}", subscriber.matchId);
+            // 전송 중인 스레드가 emitter 를 잡고 있을 수 있으므로 발행 스레드에서 기다리지 않음
+            submit(subscriber.emitter::complete);
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            senders.execute(task);
+        } catch (RejectedExecutionException e) {
+            // 종료 중: 남은 연결은 closeAll 에서 닫음
+        }
+    }
+
+    private final class Subscriber {
+        private final String matchId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> buffer;
+        private final int batchSize;
+        // 버퍼에 넣었지만 아직 보내지 않은 이벤트 수. 0 에서 1 이 될 때만 전송 작업을 예약함
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // 지금 이 구독자에게 보내고 있는 스레드와 시작 시각. this 로 잠가서 다른 구독자를 보내는 스레드를 인터럽트하지 않게 함
+        private Thread sendingThread;
+        private long sendingSince;
+
+        private Subscriber(String matchId, SseEmitter emitter, int bufferSize) {
+            this.matchId = matchId;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+            this.batchSize = bufferSize;
+        }
+
+        private void offer(Set<ResponseBodyEmitter.DataWithMediaType> message) {
+            if (closed.get()) {
+                return;
+            }
+            if (!buffer.offer(message)) {
+                evict(this);
+                return;
+            }
+            if (pending.getAndIncrement() == 0) {
+                submit(this::drain);
+            }
+        }
+
+        /**
+         * 최대 buffer-size 개를 보냅니다. 그래도 남아 있으면 다른 구독자 뒤로 다시 줄을 섭니다.
+         */
+        private void drain() {
+            for (int sent = 0; sent < batchSize; sent++) {
+                if (closed.get()) {
+                    return;
+                }
+                // 넣은 쪽이 pending 을 올리기 전에 꺼낼 수 있으므로 비어 있어도 한 건으로 셈
+                Set<ResponseBodyEmitter.DataWithMediaType> next = buffer.poll();
+                if (next != null) {
+                    startSending();
+                    try {
+                        emitter.send(next);
+                    } catch (IOException | IllegalStateException e) {
+                        // 연결이 끊겼거나 이미 닫힌 emitter, 또는 전송 시간 초과로 인터럽트됨
+                        log.debug("Failed to push live event to match {} subscriber: {}", matchId, e.getMessage());
+                        remove(this);
+                        return;
+                    } finally {
+                        finishSending();
+                    }
+                }
+                if (pending.decrementAndGet() == 0) {
+                    return; // 비었음: 다음 이벤트가 들어올 때 다시 예약됨
+                }
+            }
+            submit(this::drain);
+        }
+
+        private synchronized void startSending() {
+            sendingThread = Thread.currentThread();
+            sendingSince = System.nanoTime();
+        }
+
+        private synchronized void finishSending() {
+            sendingThread = null;
+            // 전송이 끝난 직후 도착한 인터럽트가 다음 구독자의 전송을 끊지 않도록 지움
+            Thread.interrupted();
+        }
+
+        private synchronized boolean isStalled(long now, long limitNanos) {
+            return sendingThread != null && now - sendingSince >= limitNanos;
+        }
+
+        private synchronized void interruptSender() {
+            if (sendingThread != null) {
+                sendingThread.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package session.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "session.live")
+public class SessionLiveProperties {
+    /**
+     * 구독자마다 아직 보내지 못한 이벤트를 쌓아 둘 수 있는 최대 개수.
+     * 넘치면 느린 구독자로 보고 연결을 끊습니다. (브라우저 EventSource 가 다시 연결함)
+     */
+    private int bufferSize = 64;
+
+    /**
+     * 연결 하나를 유지하는 최대 시간. 지나면 서버가 연결을 닫고 클라이언트가 다시 연결합니다.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+
+    /**
+     * 이벤트가 없을 때 연결 유지와 끊긴 연결 정리를 위해 보내는 주석(ping) 주기.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * 구독자에게 이벤트를 보내는 스레드 수. 구독자 수와 관계없이 이 개수로 고정됩니다.
+     */
+    private int senderThreads = 8;
+
+    /**
+     * 이벤트 하나를 보내는 데 허용하는 최대 시간. 넘기면 멈춘 구독자로 보고 연결을 끊고 전송 스레드를 돌려받습니다.
+     */
+    private Duration sendTimeLimit = Duration.ofSeconds(10);
+
+    /**
+     * 노드 하나가 받는 최대 구독자 수. 넘치면 새 구독을 거절합니다.
+     */
+    private int maxSubscribers = 2_000;
+}
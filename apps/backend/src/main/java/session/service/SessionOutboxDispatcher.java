@@ -0,0 +1,114 @@
+package session.service;
+
+import board.dto.BoardEntryDraft;
+import board.repository.BoardRepository;
+import board.service.BoardService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import report.domain.MatchStats;
+import report.service.ReportService;
+import session.domain.QuestionLog;
+import session.domain.StudySession;
+import session.repository.StudySessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * 세션 종료 시 함께 기록된 후처리 작업(outbox)을 주기적으로 가져와 리포트 생성과 Q&A 보드 등록을 수행합니다.
+ * 실패하면 지수 백오프로 다시 시도하며, 각 단계는 재실행되어도 결과가 한 번만 반영되도록 멱등하게 처리합니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionOutboxDispatcher {
+
+    private final StudySessionRepository studyRepo;
+    private final ReportService reportService;
+    private final BoardService boardService;
+    private final BoardRepository boardRepository;
+    private final SessionOutboxProperties properties;
+
+    @Scheduled(fixedDelayString = "${session.outbox.poll-interval:1s}")
+    public void dispatch() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (int i = 0; i < properties.getBatchSize(); i++) {
+            Optional<StudySession> claimed = studyRepo.claimOutbox(now(), properties.getLease());
+            if (claimed.isEmpty()) {
+                return;
+            }
+            process(claimed.get());
+        }
+    }
+
+    void process(StudySession claimed) {
+        try {
+            publishArtifacts(studyRepo.loadLogs(claimed));
+            studyRepo.completeOutbox(claimed, now());
+        } catch (RuntimeException e) {
+            int attempts = claimed.getOutbox().getAttempts();
+            Instant nextAttemptAt = attempts >= properties.getMaxAttempts() ? null : now().plus(backoff(attempts));
+            studyRepo.releaseOutbox(claimed, nextAttemptAt, e.getMessage());
+            if (nextAttemptAt == null) {
+                log.error("Session end processing failed permanently: sessionId={}, attempts={}", claimed.getSessionId(), attempts, e);
+            } else {
+                log.warn("Session end processing failed, retrying at {}: sessionId={}, attempts={}, error={}",
+                        nextAttemptAt, claimed.getSessionId(), attempts, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 종료된 세션의 리포트를 만들고, 질문 로그를 Q&A 보드에 추가합니다.
+     */
+    private void publishArtifacts(StudySession session) {
+        MatchStats stats = reportService.createReportFromSession(session);
+
+        List<QuestionLog> questions = session.getQuestionLogs();
+        if (questions == null || questions.isEmpty()) {
+            return;
+        }
+
+        // 제목에 사용할 날짜 포맷 (YYYY.MM.DD)
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy.MM.dd")
+                .withZone(ZoneId.systemDefault());
+        String formattedDate = formatter.format(session.getStartedAt());
+
+        // 몇 번째 세션인지: 이 세션까지 반영된 매칭 통계의 세션 수가 곧 회차
+        long currentSessionNumber = stats.getSessionCount();
+        String title = String.format("[%s %d번째 학습]", formattedDate, currentSessionNumber);
+
+        // 재시도 시 같은 질문이 두 번 들어가지 않도록 세션과 순번으로 entryId 를 고정
+        List<BoardEntryDraft> drafts = IntStream.range(0, questions.size())
+                .mapToObj(i -> new BoardEntryDraft(session.getSessionId() + "-q" + i, questions.get(i).getQuestion()))
+                .toList();
+
+        boardRepository.findByMatchId(session.getMatchId()).ifPresent(board ->
+                boardService.addEntriesToBoard(
+                        board.getId(),
+                        session.getMenteeUserId(), // author == mentee
+                        title,
+                        drafts
+                ));
+    }
+
+    private Duration backoff(int attempts) {
+        Duration delay = properties.getInitialBackoff().multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(properties.getMaxBackoff()) > 0 ? properties.getMaxBackoff() : delay;
+    }
+
+    private Instant now() {
+        // Mongo 는 밀리초까지만 저장하므로 점유 시각 비교가 어긋나지 않도록 맞춰 둠
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
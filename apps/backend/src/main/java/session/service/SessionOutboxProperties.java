@@ -0,0 +1,49 @@
+package session.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "session.outbox")
+public class SessionOutboxProperties {
+    /**
+     * 종료 후처리 작업 디스패처 사용 여부. 끄면 작업은 쌓이기만 하고 처리되지 않습니다.
+     */
+    private boolean enabled = true;
+
+    /**
+     * 작업을 가져오는 주기 (직전 실행이 끝난 뒤부터).
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * 한 번 실행할 때 처리하는 최대 작업 수.
+     */
+    private int batchSize = 20;
+
+    /**
+     * 작업 하나를 점유하는 시간. 이 안에 끝내지 못하면 다른 노드가 다시 가져갈 수 있습니다.
+     */
+    private Duration lease = Duration.ofSeconds(60);
+
+    /**
+     * 최대 시도 횟수. 모두 실패하면 FAILED 로 남깁니다.
+     */
+    private int maxAttempts = 10;
+
+    /**
+     * 첫 재시도 대기 시간. 실패할 때마다 두 배로 늘어납니다.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(5);
+
+    /**
+     * 재시도 대기 시간 상한.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(10);
+}
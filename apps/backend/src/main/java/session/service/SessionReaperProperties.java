@@ -0,0 +1,41 @@
+package session.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "session.reaper")
+public class SessionReaperProperties {
+    /**
+     * 방치된 진행 중 세션 정리 사용 여부.
+     */
+    private boolean enabled = true;
+
+    /**
+     * 정리 주기 (직전 실행이 끝난 뒤부터).
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * 마지막 로그/상태 변경/분석된 프레임 이후 이 시간이 지난 ACTIVE/PAUSED 세션을 방치된 것으로 보고 종료합니다.
+     * 노드 메모리에 모아 둔 변경의 내려쓰기 주기(session.registry.flush-interval)보다 충분히 길어야 합니다.
+     */
+    private Duration idleTimeout = Duration.ofHours(2);
+
+    /**
+     * 분석된 프레임이 세션의 마지막 활동 시각(lastEventAt)을 갱신하는 최소 간격 (세션별).
+     * 로그 없이 프레임만 보내며 공부하는 세션이 방치된 것으로 보이지 않게 하며, idle-timeout 보다 충분히 짧아야 합니다.
+     */
+    private Duration heartbeatInterval = Duration.ofMinutes(1);
+
+    /**
+     * 커서로 한 번에 가져오는 세션 수.
+     */
+    private int batchSize = 100;
+}
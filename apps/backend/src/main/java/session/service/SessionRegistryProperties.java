@@ -0,0 +1,40 @@
+package session.service;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "session.registry")
+public class SessionRegistryProperties {
+    /**
+     * 진행 중 세션을 노드 메모리에 두고 로그/상태 변경을 모아서 내려쓸지 여부. 기본값은 비활성화.
+     * 한 세션의 요청이 항상 같은 노드로 가도록(sticky) 라우팅되는 환경에서만 켜야 합니다.
+     */
+    private boolean enabled = false;
+
+    /**
+     * 모아 둔 변경을 Mongo 에 내려쓰는 주기.
+     */
+    private Duration flushInterval = Duration.ofSeconds(5);
+
+    /**
+     * 이 시간 동안 변경이 없는 세션은 내려쓴 뒤 메모리에서 내립니다.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    /**
+     * 노드 메모리에 둘 수 있는 최대 세션 수. 넘치면 새 세션은 바로 Mongo 에 씁니다.
+     */
+    private int maxSessions = 10_000;
+
+    /**
+     * 세션별 변경을 직렬화하는 락 개수. 세션 ID 해시로 나눠 씁니다.
+     */
+    private int lockStripes = 64;
+}
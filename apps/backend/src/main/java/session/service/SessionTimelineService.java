@@ -0,0 +1,140 @@
+package session.service;
+
+import lombok.RequiredArgsConstructor;
+import match.domain.Match;
+import match.repository.MatchRepository;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import session.domain.*;
+import session.dto.*;
+import session.repository.StudySessionRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 멘토가 긴 세션을 훑어볼 수 있도록 학습/딴짓/질문 로그를 하나의 타임라인으로 페이지 단위로 내려줍니다.
+ * <p>
+ * - 로그의 seq 는 기록된 순서대로 매겨지고 발생 시각도 같은 순서로 늘어나므로, seq 하나로 keyset 페이지를 나눕니다. (afterSeq 다음부터)<br>
+ * - 버킷에 저장된 세션은 요청한 종류와 페이지에 해당하는 로그만 Mongo 에서 읽습니다.<br>
+ * - 버킷 도입 이전 세션은 임베드 배열을 시각 순으로 합친 뒤 그 순서를 seq 로 씁니다.<br>
+ * - 진행 중 세션에서 아직 내려쓰지 않은 로그는 다음 내려쓰기 이후에 보입니다.<br>
+ * - 세션이 속한 매칭의 멘토/멘티만 조회할 수 있습니다.
+ */
+@Service
+@RequiredArgsConstructor
+public class SessionTimelineService {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = SessionEventBucket.CAPACITY;
+
+    private static final Comparator<SessionTimelineItemDTO> BY_TIME =
+            Comparator.comparing(SessionTimelineItemDTO::at, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final StudySessionRepository studyRepo;
+    private final MatchRepository matchRepository;
+
+    /**
+     * afterSeq 다음 로그를 최대 limit 개 반환합니다. 세션이 없으면 빈 Optional.
+     *
+     * @param userId   조회하는 사용자 (세션 매칭의 멘토/멘티가 아니면 {@link AccessDeniedException})
+     * @param types    포함할 로그 종류 (비어 있으면 전부)
+     * @param afterSeq 이 순번 다음부터 (null 이면 처음부터)
+     * @param limit    페이지 크기 (null 이면 기본값, 최대 {@link #MAX_LIMIT})
+     */
+    public Optional<SessionTimelineDTO> getTimeline(String sessionId, String userId,
+                                                    Collection<SessionTimelineItemDTO.Type> types,
+                                                    Long afterSeq, Integer limit) {
+        Set<SessionTimelineItemDTO.Type> included = (types == null || types.isEmpty())
+                ? EnumSet.allOf(SessionTimelineItemDTO.Type.class) : EnumSet.copyOf(types);
+        long after = afterSeq == null ? -1 : afterSeq;
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        return studyRepo.findById(sessionId).map(session -> {
+            checkMatchMembership(session, userId);
+            // 한 개 더 읽어서 다음 페이지가 있는지 확인
+            List<SessionTimelineItemDTO> items = session.hasEventBuckets()
+                    ? bucketed(sessionId, included, after, size + 1)
+                    : embedded(session, included, after, size + 1);
+            boolean hasMore = items.size() > size;
+            List<SessionTimelineItemDTO> page = hasMore ? items.subList(0, size) : items;
+            Long nextAfterSeq = hasMore ? page.get(page.size() - 1).seq() : null;
+            return new SessionTimelineDTO(sessionId, session.getStatus(), List.copyOf(page), nextAfterSeq, hasMore);
+        });
+    }
+
+    private void checkMatchMembership(StudySession session, String userId) {
+        Optional<Match> match = Optional.ofNullable(session.getMatchId()).flatMap(matchRepository::findById);
+        if (match.isEmpty()
+                || (!userId.equals(match.get().getMentorUserId()) && !userId.equals(match.get().getMenteeUserId()))) {
+            throw new AccessDeniedException("User " + userId + " is not a member of the match of session "
+                    + session.getSessionId());
+        }
+    }
+
+    private List<SessionTimelineItemDTO> bucketed(String sessionId, Set<SessionTimelineItemDTO.Type> types,
+                                                  long afterSeq, int limit) {
+        List<Class<? extends SessionEvent>> classes = types.stream().<Class<? extends SessionEvent>>map(type -> switch (type) {
+            case STUDY_LOG -> StudyLog.class;
+            case DISTRACTION -> DistractionLog.class;
+            case QUESTION -> QuestionLog.class;
+        }).toList();
+        return studyRepo.findEventsAfter(sessionId, classes, afterSeq, limit).stream()
+                .map(event -> toItem(event, event.getSeq()))
+                .toList();
+    }
+
+    /**
+     * 버킷 도입 이전 세션: 세 배열을 시각 순으로 합친 순서를 seq 로 씁니다. (종류 필터와 상관없이 같은 번호)
+     */
+    private List<SessionTimelineItemDTO> embedded(StudySession session, Set<SessionTimelineItemDTO.Type> types,
+                                                  long afterSeq, int limit) {
+        List<SessionTimelineItemDTO> merged = new ArrayList<>();
+        addAll(merged, session.getStudyLogs());
+        addAll(merged, session.getDistractionLogs());
+        addAll(merged, session.getQuestionLogs());
+        merged.sort(BY_TIME); // 안정 정렬이므로 같은 시각이면 학습, 딴짓, 질문 순
+
+        List<SessionTimelineItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < merged.size() && items.size() < limit; i++) {
+            SessionTimelineItemDTO item = merged.get(i);
+            if (i > afterSeq && types.contains(item.type())) {
+                items.add(withSeq(item, i));
+            }
+        }
+        return items;
+    }
+
+    private static void addAll(List<SessionTimelineItemDTO> target, List<? extends SessionEvent> logs) {
+        if (logs != null) {
+            logs.forEach(log -> target.add(toItem(log, 0)));
+        }
+    }
+
+    private static SessionTimelineItemDTO toItem(SessionEvent event, long seq) {
+        if (event instanceof StudyLog log) {
+            return new SessionTimelineItemDTO(SessionTimelineItemDTO.Type.STUDY_LOG, seq, log.getTimestamp(),
+                    new StudyLogDTO(log.getContent(), log.getTimestamp()), null, null);
+        }
+        if (event instanceof DistractionLog log) {
+            SelfFeedback feedback = log.getSelfFeedback();
+            return new SessionTimelineItemDTO(SessionTimelineItemDTO.Type.DISTRACTION, seq, log.getDetectedAt(), null,
+                    new DistractionLogDTO(log.getActivity(), log.getDetectionType(), log.getDetectedAt(),
+                            feedback == null ? null : new SelfFeedbackDTO(feedback.getComment(), feedback.getCreatedAt())),
+                    null);
+        }
+        QuestionLog log = (QuestionLog) event;
+        return new SessionTimelineItemDTO(SessionTimelineItemDTO.Type.QUESTION, seq, log.getCreatedAt(), null, null,
+                new QuestionLogDTO(log.getQuestion(), log.getCreatedAt()));
+    }
+
+    private static SessionTimelineItemDTO withSeq(SessionTimelineItemDTO item, long seq) {
+        return new SessionTimelineItemDTO(item.type(), seq, item.at(), item.studyLog(), item.distraction(), item.question());
+    }
+}
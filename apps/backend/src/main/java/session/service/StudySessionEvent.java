@@ -0,0 +1,58 @@
+package session.service;
+
+import session.domain.SessionEvent;
+import session.domain.SessionStatus;
+import session.domain.StudySession;
+
+import java.time.Instant;
+
+/**
+ * 세션에서 일어난 일을 같은 노드의 구독자(WebSocket 등)에게 알리기 위한 애플리케이션 이벤트입니다.
+ *
+ * @param type          이벤트 종류
+ * @param sessionId     세션 ID
+ * @param matchId       매칭 ID (FRAME_ANALYZED 일 때는 null)
+ * @param status        STATUS_CHANGED 일 때 바뀐 상태
+ * @param activity      FRAME_ANALYZED 일 때 감지된 딴짓 (감지되지 않았으면 null)
+ * @param detectionType FRAME_ANALYZED 일 때 감지 주체
+ * @param log           LOGGED 일 때 기록된 학습/딴짓/질문 로그
+ * @param occurredAt    발생 시각
+ */
+public record StudySessionEvent(
+        Type type,
+        String sessionId,
+        String matchId,
+        SessionStatus status,
+        String activity,
+        String detectionType,
+        SessionEvent log,
+        Instant occurredAt
+) {
+
+    public enum Type {
+        FRAME_ANALYZED,
+        STATUS_CHANGED,
+        LOGGED
+    }
+
+    public static StudySessionEvent frameAnalyzed(String sessionId, VisionAiClient.DetectedDistraction verdict) {
+        return new StudySessionEvent(Type.FRAME_ANALYZED, sessionId, null, null,
+                verdict == null ? null : verdict.activity(),
+                verdict == null ? null : verdict.detectionType(),
+                null, Instant.now());
+    }
+
+    public static StudySessionEvent statusChanged(StudySession session, SessionStatus status) {
+        return new StudySessionEvent(Type.STATUS_CHANGED, session.getSessionId(), session.getMatchId(), status,
+                null, null, null, Instant.now());
+    }
+
+    public static StudySessionEvent logged(StudySession session, SessionEvent log) {
+        return new StudySessionEvent(Type.LOGGED, session.getSessionId(), session.getMatchId(), session.getStatus(),
+                null, null, log, Instant.now());
+    }
+
+    public boolean detected() {
+        return activity != null;
+    }
+}
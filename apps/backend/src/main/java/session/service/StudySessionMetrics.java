@@ -4,11 +4,11 @@ import session.domain.DistractionLog;
 import session.domain.SelfFeedback;
 import session.domain.StudySession;
 
-import java.time.Duration;
 import java.util.List;
 
 /**
  * Utility methods for calculating study durations derived from a StudySession and its distraction logs.
+ * 세션 헤더에 누적 지표(distractionMillis)가 있으면 로그를 훑지 않고 그 값을 씁니다.
  */
 public final class StudySessionMetrics {
 
@@ -21,18 +21,24 @@ public final class StudySessionMetrics {
         if (session == null || session.getStartedAt() == null || session.getEndedAt() == null) {
             return 0.0;
         }
-        Duration duration = Duration.between(session.getStartedAt(), session.getEndedAt());
-        if (duration.isNegative() || duration.isZero()) {
-            return 0.0;
-        }
-        return duration.toMillis() / MILLIS_PER_MINUTE;
+        long millis = session.getEndedAt().toEpochMilli() - session.getStartedAt().toEpochMilli();
+        return millis <= 0 ? 0.0 : millis / MILLIS_PER_MINUTE;
     }
 
     public static double calculateDistractionMinutes(StudySession session) {
         if (session == null) {
             return 0.0;
         }
-        List<DistractionLog> logs = session.getDistractionLogs();
+        if (session.hasRunningMetrics()) {
+            return session.getDistractionMillis() / MILLIS_PER_MINUTE;
+        }
+        return calculateDistractionMinutes(session.getDistractionLogs());
+    }
+
+    /**
+     * 세션 헤더와 별도로 읽어 온 딴짓 로그(이벤트 버킷)로 딴짓 시간을 계산합니다.
+     */
+    public static double calculateDistractionMinutes(List<DistractionLog> logs) {
         if (logs == null || logs.isEmpty()) {
             return 0.0;
         }
@@ -47,11 +53,11 @@ public final class StudySessionMetrics {
                 continue;
             }
 
-            Duration distractionDuration = Duration.between(log.getDetectedAt(), feedback.getCreatedAt());
-            if (distractionDuration.isNegative() || distractionDuration.isZero()) {
+            long millis = feedback.getCreatedAt().toEpochMilli() - log.getDetectedAt().toEpochMilli();
+            if (millis <= 0) {
                 continue;
             }
-            total += distractionDuration.toMillis() / MILLIS_PER_MINUTE;
+            total += millis / MILLIS_PER_MINUTE;
         }
         return total;
     }
@@ -61,7 +67,15 @@ public final class StudySessionMetrics {
         if (totalMinutes <= 0) {
             return 0.0;
         }
-        double distractionMinutes = calculateDistractionMinutes(session);
+        return Math.max(0.0, totalMinutes - calculateDistractionMinutes(session));
+    }
+
+    public static double calculateNetMinutes(StudySession session, List<DistractionLog> distractionLogs) {
+        double totalMinutes = calculateTotalMinutes(session);
+        if (totalMinutes <= 0) {
+            return 0.0;
+        }
+        double distractionMinutes = calculateDistractionMinutes(distractionLogs);
         return Math.max(0.0, totalMinutes - distractionMinutes);
     }
 }
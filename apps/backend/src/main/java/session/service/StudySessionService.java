@@ -1,105 +1,90 @@
 package session.service;
 
-import board.repository.BoardRepository;
-import board.service.BoardService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import report.repository.ReportRepository;
-import report.service.ReportService;
 import session.domain.*;
 import session.dto.*;
 import session.repository.StudySessionRepository;
 
+import java.io.IOException;
 import java.time.Instant;
-import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class StudySessionService {
 
+    // 상태 변경이 다른 쓰기와 겹쳤을 때 다시 읽고 시도하는 최대 횟수
+    static final int MAX_TRANSITION_ATTEMPTS = 3;
+
     private final StudySessionRepository studyRepo;
-    private final ReportService reportService;
-    private final BoardService boardService;
-    private final BoardRepository boardRepository;
-    private final ReportRepository reportRepository;
     private final VisionAiClient visionAiClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ActiveSessionRegistry sessionRegistry;
 
-    // 세션 시작
+    // 세션 시작 (이미 진행 중이면 기존 세션 반환)
     @Transactional
     public StudySessionDTO startSession(String matchId, String menteeUserId, String mentorUserId) {
-        return studyRepo.findByMatchIdAndStatus(matchId, SessionStatus.ACTIVE)
-                .map(this::toDto) // 이미 진행 중이면 기존 세션 반환
-                .orElseGet(() -> {
-                    StudySession session = StudySession.builder()
-                            .matchId(matchId)
-                            .menteeUserId(menteeUserId)
-                            .mentorUserId(mentorUserId)
-                            .status(SessionStatus.ACTIVE)
-                            .startedAt(Instant.now())
-                            .build();
-                    return toDto(studyRepo.save(session));
-                });
+        Instant startedAt = Instant.now();
+        StudySession fresh = StudySession.builder()
+                .matchId(matchId)
+                .menteeUserId(menteeUserId)
+                .mentorUserId(mentorUserId)
+                .status(SessionStatus.ACTIVE)
+                .startedAt(startedAt)
+                .eventCount(0L) // 로그는 이벤트 버킷에 저장
+                .studyLogCount(0)
+                .distractionCount(0)
+                .questionCount(0)
+                .distractionMillis(0L) // 지표는 쓰기 경로에서 누적
+                .pauseCount(0)
+                .lastTransitionAt(startedAt)
+                .lastEventAt(startedAt)
+                .version(0L)
+                .build();
+        // 조회와 생성을 upsert 한 번으로 처리해 동시에 시작해도 진행 중 세션이 하나만 만들어지도록 함
+        StudySession session = studyRepo.startOrGetOpen(fresh);
+        return toDto(sessionRegistry.find(session.getSessionId())
+                .orElseGet(() -> studyRepo.loadLogs(session)));
     }
 
+    /**
+     * 세션을 종료합니다. 리포트 생성과 Q&A 보드 등록은 종료와 함께 기록된 후처리 작업으로 넘기고
+     * {@link SessionOutboxDispatcher} 가 비동기로 처리하므로, 여기서는 종료 상태만 반영하고 바로 반환합니다.
+     */
     @Transactional
     public StudySession endSession(String sessionId) {
-        StudySession session = studyRepo.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다."));
-        if (session.getStatus() == SessionStatus.ENDED)
-            throw new IllegalStateException("이미 종료된 세션입니다.");
-
-        session.setEndedAt(Instant.now());
-        session.setStatus(SessionStatus.ENDED);
-
-        // ✅ ReportService 호출 (기존 로직)
-        reportService.createReportFromSession(session);
-
-        // ✅ 2. 세션의 질문 로그를 Q&A 보드에 자동으로 추가하는 로직
-        if (session.getQuestionLogs() != null && !session.getQuestionLogs().isEmpty()) {
-
-            // 3. 제목에 사용할 날짜 포맷 지정 (YYYY.MM.DD)
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy.MM.dd")
-                    .withZone(ZoneId.systemDefault());
-            String formattedDate = formatter.format(session.getStartedAt());
-
-            // 4. 몇 번째 세션인지 계산 (기존 리포트 개수 + 1)
-            long sessionCount = reportRepository.findByMatchId(session.getMatchId()).size();
-            long currentSessionNumber = sessionCount; // createReportFromSession이 먼저 호출되었으므로 +1 하지 않음
-
-            String title = String.format("[%s %d번째 학습]", formattedDate, currentSessionNumber);
-
-            // 5. 해당 매칭의 보드를 찾아서 질문들을 추가
-            boardRepository.findByMatchId(session.getMatchId()).ifPresent(board -> {
-                for (QuestionLog qLog : session.getQuestionLogs()) {
-                    boardService.addEntryToBoard(
-                            board.getId(),
-                            session.getMenteeUserId(), //author == mentee -> session의 mentee id만 가져오면 됨!
-                            title, // 새로 생성한 제목
-                            qLog.getQuestion() // 질문 내용
-                    );
-                }
-            });
-        }
-
-        StudySession ended = studyRepo.save(session);
-        return ended;
+        sessionRegistry.flushAndEvict(sessionId); // 메모리에 모아 둔 로그를 먼저 내려씀
+        // 종료와 후처리 작업 등록을 조건부 갱신 한 번으로 반영해 같은 세션의 리포트가 두 번 만들어지지 않도록 함
+        StudySession session = studyRepo.loadLogs(
+                requireUpdated(studyRepo.endUnlessEnded(sessionId, Instant.now()), sessionId));
+
+        visionAiClient.forgetSession(sessionId);
+        eventPublisher.publishEvent(StudySessionEvent.statusChanged(session, SessionStatus.ENDED));
+        return session;
     }
 
-
     /**
      * 딴짓 감지 후 자기 피드백 포함해서 로그 추가
+     *
+     * @param clientSeq 클라이언트가 붙인 순번. 이미 반영된 순번이면 다시 기록하지 않고 현재 세션을 반환합니다. (null 이면 검사 안 함)
      */
     @Transactional
-    public StudySession addDistraction(String sessionId, String activity, String detectionType) {
-        StudySession session = studyRepo.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다."));
+    public StudySession addDistraction(String sessionId, String activity, String detectionType, Long clientSeq) {
+        return withLogs(appendDistraction(sessionId, distractionLog(activity, detectionType, clientSeq)));
+    }
 
-        appendDistraction(session, activity, detectionType);
-        return studyRepo.save(session);
+    @Transactional
+    public SessionAckDTO addDistractionAck(String sessionId, String activity, String detectionType, Long clientSeq) {
+        return ack(appendDistraction(sessionId, distractionLog(activity, detectionType, clientSeq)));
     }
 
     /**
@@ -107,39 +92,75 @@ public class StudySessionService {
      */
     @Transactional
     public StudySession analyzeFrameAndAddDistraction(String sessionId, MultipartFile frame) {
-        StudySession session = studyRepo.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다."));
-
-        boolean detected = visionAiClient.detectDistraction(sessionId, frame)
-                .map(result -> {
-                    appendDistraction(session, result.activity(), result.detectionType());
-                    return true;
-                })
-                .orElse(false);
-
-        return detected ? studyRepo.save(session) : session;
+        return withLogs(analyzeAndAppend(sessionId, frame));
     }
 
     @Transactional
-    public StudySession addSelfFeedback(String sessionId, SelfFeedback selfFeedback) {
-        StudySession session = studyRepo.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다."));
+    public SessionAckDTO analyzeFrameAndAddDistractionAck(String sessionId, MultipartFile frame) {
+        return ack(analyzeAndAppend(sessionId, frame));
+    }
 
-        List<DistractionLog> logs = session.getDistractionLogs();
-        if (logs.isEmpty()) {
-            // 예외를 던져서 클라이언트에게 잘못된 요청임을 알림
-            throw new IllegalStateException("피드백을 추가할 딴짓 기록이 없습니다.");
+    /**
+     * 연속으로 찍은 프레임 여러 장을 한 번에 분석합니다. Vision AI 는 한 번만 호출하고,
+     * 감지된 딴짓은 찍은 순서대로 한 번의 쓰기로 기록합니다.
+     */
+    @Transactional
+    public StudySession analyzeFramesAndAddDistractions(String sessionId, List<MultipartFile> frames) {
+        List<byte[]> contents = new ArrayList<>(frames.size());
+        List<String> filenames = new ArrayList<>(frames.size());
+        for (MultipartFile frame : frames) {
+            try {
+                contents.add(FrameNormalizer.read(frame));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("프레임을 읽을 수 없습니다.", e);
+            }
+            filenames.add(frame.getOriginalFilename());
+        }
+        List<Optional<VisionAiClient.DetectedDistraction>> verdicts =
+                visionAiClient.detectDistractions(sessionId, contents, filenames);
+
+        List<DistractionLog> logs = verdicts.stream()
+                .flatMap(Optional::stream)
+                .map(result -> distractionLog(result.activity(), result.detectionType(), null))
+                .toList();
+        StudySession session = logs.isEmpty()
+                ? sessionRegistry.find(sessionId)
+                        .orElseGet(() -> studyRepo.loadLogs(studyRepo.findById(sessionId)
+                                .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다."))))
+                : appendDistractions(sessionId, logs);
+
+        verdicts.forEach(verdict -> eventPublisher.publishEvent(
+                StudySessionEvent.frameAnalyzed(sessionId, verdict.orElse(null))));
+        if (!logs.isEmpty()) {
+            logs.forEach(log -> eventPublisher.publishEvent(StudySessionEvent.logged(session, log)));
+            if (pausedBy(session, logs)) {
+                eventPublisher.publishEvent(StudySessionEvent.statusChanged(session, SessionStatus.PAUSED));
+            }
         }
+        return session;
+    }
 
-        DistractionLog lastLog = logs.get(logs.size() - 1);
+    /**
+     * 이미 메모리에 올라온 프레임을 분석하고, 딴짓이 감지되면 세션에 기록한 뒤 판정을 반환합니다.
+     * (비동기 파이프라인, WebSocket 스트리밍용)
+     */
+    @Transactional
+    public Optional<VisionAiClient.DetectedDistraction> analyzeFrame(String sessionId, byte[] frame, String filename) {
+        Optional<VisionAiClient.DetectedDistraction> verdict = visionAiClient.detectDistraction(sessionId, frame, filename);
+        verdict.ifPresent(result -> appendDistraction(sessionId,
+                distractionLog(result.activity(), result.detectionType(), null)));
+        eventPublisher.publishEvent(StudySessionEvent.frameAnalyzed(sessionId, verdict.orElse(null)));
+        return verdict;
+    }
 
-        // 이미 피드백이 작성되었는지 확인하는 로직도 추가하면 더 좋습니다.
-        if (lastLog.getSelfFeedback() != null) {
-            throw new IllegalStateException("이미 피드백이 작성된 딴짓 기록입니다.");
-        }
+    @Transactional
+    public StudySession addSelfFeedback(String sessionId, SelfFeedback selfFeedback) {
+        return withLogs(attachSelfFeedback(sessionId, selfFeedback));
+    }
 
-        lastLog.setSelfFeedback(selfFeedback);
-        return studyRepo.save(session);
+    @Transactional
+    public SessionAckDTO addSelfFeedbackAck(String sessionId, SelfFeedback selfFeedback) {
+        return ack(attachSelfFeedback(sessionId, selfFeedback));
     }
 
     /**
@@ -147,55 +168,208 @@ public class StudySessionService {
      */
     @Transactional
     public StudySession resumeSession(String sessionId) {
-        StudySession session = studyRepo.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("스터디 세션을 찾을 수 없습니다."));
+        return withLogs(resume(sessionId));
+    }
 
-        // 상태를 ACTIVE로 변경(Enum)
-        session.setStatus(SessionStatus.ACTIVE);
-        return studyRepo.save(session);
+    @Transactional
+    public SessionAckDTO resumeSessionAck(String sessionId) {
+        return ack(resume(sessionId));
     }
 
-    // 학습 내용 추가
+    // 학습 내용 추가 (clientSeq 가 이미 반영된 순번이면 다시 기록하지 않음)
     @Transactional
-    public StudySession addStudyLog(String sessionId, String content) {
-        StudySession session = studyRepo.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("세션 없음"));
-        session.getStudyLogs().add(
-                StudyLog.builder()
-                        .content(content)
-                        .timestamp(Instant.now())
-                        .build()
-        );
-        return studyRepo.save(session);
+    public StudySession addStudyLog(String sessionId, String content, Long clientSeq) {
+        return withLogs(appendStudyLog(sessionId, content, clientSeq));
     }
 
-    //질문 내용 추가
     @Transactional
-    public StudySession addQuestionLog(String sessionId, String question) {
-        StudySession session = studyRepo.findById(sessionId)
-                .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다."));
+    public SessionAckDTO addStudyLogAck(String sessionId, String content, Long clientSeq) {
+        return ack(appendStudyLog(sessionId, content, clientSeq));
+    }
 
-        session.getQuestionLogs().add(
-                QuestionLog.builder()
-                        .question(question)
-                        .createdAt(Instant.now())
-                        .build()
-        );
+    //질문 내용 추가 (clientSeq 가 이미 반영된 순번이면 다시 기록하지 않음)
+    @Transactional
+    public StudySession addQuestionLog(String sessionId, String question, Long clientSeq) {
+        return withLogs(appendQuestionLog(sessionId, question, clientSeq));
+    }
 
-        return studyRepo.save(session);
+    @Transactional
+    public SessionAckDTO addQuestionLogAck(String sessionId, String question, Long clientSeq) {
+        return ack(appendQuestionLog(sessionId, question, clientSeq));
     }
 
-    private void appendDistraction(StudySession session, String activity, String detectionType) {
-        String source = (detectionType == null || detectionType.isBlank()) ? "UNKNOWN" : detectionType;
+    private Mutation analyzeAndAppend(String sessionId, MultipartFile frame) {
+        Optional<VisionAiClient.DetectedDistraction> verdict = visionAiClient.detectDistraction(sessionId, frame);
+        Mutation mutation = verdict
+                .map(result -> appendDistraction(sessionId, distractionLog(result.activity(), result.detectionType(), null)))
+                .orElseGet(() -> sessionRegistry.find(sessionId)
+                        .map(Mutation::buffered)
+                        .orElseGet(() -> Mutation.header(studyRepo.findById(sessionId)
+                                .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다.")), null)));
+        eventPublisher.publishEvent(StudySessionEvent.frameAnalyzed(sessionId, verdict.orElse(null)));
+        return mutation;
+    }
+
+    private Mutation attachSelfFeedback(String sessionId, SelfFeedback selfFeedback) {
+        sessionRegistry.flushAndEvict(sessionId); // 마지막 딴짓 로그가 버킷에 있어야 조건부로 피드백을 붙일 수 있음
+        return studyRepo.attachSelfFeedbackToLastDistraction(sessionId, selfFeedback)
+                .map(header -> Mutation.header(header, selfFeedback))
+                .orElseThrow(() -> {
+                    int count = studyRepo.countDistractionLogs(sessionId);
+                    if (count < 0) {
+                        return new IllegalArgumentException("세션을 찾을 수 없습니다.");
+                    }
+                    if (count == 0) {
+                        // 예외를 던져서 클라이언트에게 잘못된 요청임을 알림
+                        return new IllegalStateException("피드백을 추가할 딴짓 기록이 없습니다.");
+                    }
+                    return new IllegalStateException("이미 피드백이 작성된 딴짓 기록입니다.");
+                });
+    }
+
+    private Mutation resume(String sessionId) {
+        // 상태를 ACTIVE로 변경(Enum)
+        Mutation resumed = sessionRegistry.updateStatus(sessionId, SessionStatus.ACTIVE)
+                .map(Mutation::buffered)
+                .orElseGet(() -> Mutation.header(transition(sessionId, SessionStatus.ACTIVE), null));
+        eventPublisher.publishEvent(StudySessionEvent.statusChanged(resumed.session(), SessionStatus.ACTIVE));
+        return resumed;
+    }
 
-        DistractionLog log = DistractionLog.builder()
+    /**
+     * 헤더를 읽고, 읽은 상태와 version 이 그대로일 때만 상태를 바꿉니다. (compare-and-set)
+     * 그사이 다른 쓰기가 있었으면 다시 읽어 {@link #MAX_TRANSITION_ATTEMPTS} 번까지 시도합니다.
+     * 이미 next 상태면 쓰지 않고 읽은 헤더를 반환합니다. (재전송된 재개 요청 등)
+     *
+     * @throws IllegalStateException 상태 전이 규칙상 next 로 바꿀 수 없는 경우 (종료된 세션 등)
+     * @throws OptimisticLockingFailureException 재시도해도 계속 다른 쓰기와 겹친 경우
+     */
+    private StudySession transition(String sessionId, SessionStatus next) {
+        for (int attempt = 1; ; attempt++) {
+            StudySession current = studyRepo.findById(sessionId)
+                    .orElseThrow(() -> new IllegalArgumentException("세션을 찾을 수 없습니다."));
+            if (current.getStatus() == next) {
+                return current;
+            }
+            if (!current.getStatus().canTransitionTo(next)) {
+                throw current.getStatus() == SessionStatus.ENDED
+                        ? new IllegalStateException("이미 종료된 세션입니다.")
+                        : new IllegalStateException(current.getStatus() + " 상태의 세션은 " + next + " 로 바꿀 수 없습니다.");
+            }
+            Optional<StudySession> updated = studyRepo.compareAndSetStatus(current, next, Instant.now());
+            if (updated.isPresent()) {
+                return updated.get();
+            }
+            if (attempt >= MAX_TRANSITION_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("세션 상태를 바꾸는 중 다른 변경과 계속 겹쳤습니다: " + sessionId);
+            }
+        }
+    }
+
+    private Mutation appendStudyLog(String sessionId, String content, Long clientSeq) {
+        StudyLog log = StudyLog.builder()
+                .content(content)
+                .timestamp(Instant.now())
+                .clientSeq(clientSeq)
+                .build();
+        return append(sessionId, log, null, () -> studyRepo.appendStudyLog(sessionId, log));
+    }
+
+    private Mutation appendQuestionLog(String sessionId, String question, Long clientSeq) {
+        QuestionLog log = QuestionLog.builder()
+                .question(question)
+                .createdAt(Instant.now())
+                .clientSeq(clientSeq)
+                .build();
+        return append(sessionId, log, null, () -> studyRepo.appendQuestionLog(sessionId, log));
+    }
+
+    private Mutation appendDistraction(String sessionId, DistractionLog log) {
+        Mutation paused = append(sessionId, log, SessionStatus.PAUSED, // 학습 일시정지
+                () -> studyRepo.appendDistraction(sessionId, log));
+        if (pausedBy(paused.session(), List.of(log))) {
+            eventPublisher.publishEvent(StudySessionEvent.statusChanged(paused.session(), SessionStatus.PAUSED));
+        }
+        return paused;
+    }
+
+    /**
+     * 이번에 기록한 딴짓으로 세션이 일시정지되었는지. 이미 PAUSED 였으면 상태 변경을 다시 알리지 않기 위함입니다.
+     * 상태가 실제로 바뀔 때만 lastTransitionAt 이 감지 시각으로 찍히므로 그것으로 구분합니다. (저장하며 밀리초로 잘리므로 밀리초로 비교)
+     */
+    private static boolean pausedBy(StudySession session, List<DistractionLog> logs) {
+        Instant transitionAt = session.getLastTransitionAt();
+        return session.getStatus() == SessionStatus.PAUSED && transitionAt != null
+                && logs.stream().map(DistractionLog::getDetectedAt).filter(Objects::nonNull)
+                        .anyMatch(detectedAt -> detectedAt.toEpochMilli() == transitionAt.toEpochMilli());
+    }
+
+    /**
+     * 메모리에 올라온 세션이면 거기에 모으고, 아니면 저장소에 조건부 갱신으로 바로 씁니다.
+     * 기록한 로그는 실시간 구독자에게 알립니다. (재전송된 요청이면 같은 로그를 한 번 더 알릴 수 있음)
+     */
+    private Mutation append(String sessionId, SessionEvent log, SessionStatus status,
+                            Supplier<Optional<StudySession>> write) {
+        Mutation mutation = sessionRegistry.append(sessionId, log, status)
+                .map(buffered -> new Mutation(buffered, log, true))
+                .orElseGet(() -> Mutation.header(requireAppended(write.get(), sessionId, log), log));
+        eventPublisher.publishEvent(StudySessionEvent.logged(mutation.session(), log));
+        return mutation;
+    }
+
+    private StudySession appendDistractions(String sessionId, List<DistractionLog> logs) {
+        Instant pausedAt = logs.get(logs.size() - 1).getDetectedAt();
+        return sessionRegistry.appendAll(sessionId, logs, SessionStatus.PAUSED)
+                .or(() -> studyRepo.appendEvents(sessionId, List.<SessionEvent>copyOf(logs), SessionStatus.PAUSED, pausedAt))
+                .map(studyRepo::loadLogs)
+                .orElseGet(() -> {
+                    // 이벤트 버킷으로 옮기기 전의 세션은 로그를 하나씩 추가
+                    StudySession session = null;
+                    for (DistractionLog log : logs) {
+                        session = requireUpdated(studyRepo.appendDistraction(sessionId, log), sessionId);
+                    }
+                    return studyRepo.loadLogs(session);
+                });
+    }
+
+    private static DistractionLog distractionLog(String activity, String detectionType, Long clientSeq) {
+        String source = (detectionType == null || detectionType.isBlank()) ? "UNKNOWN" : detectionType;
+        return DistractionLog.builder()
                 .activity(activity)
                 .detectedAt(Instant.now())
                 .detectionType(source)
+                .clientSeq(clientSeq)
                 .build();
+    }
 
-        session.getDistractionLogs().add(log);
-        session.setStatus(SessionStatus.PAUSED); // 학습 일시정지
+    private StudySession withLogs(Mutation mutation) {
+        return mutation.loaded() ? mutation.session() : studyRepo.loadLogs(mutation.session());
+    }
+
+    private static SessionAckDTO ack(Mutation mutation) {
+        return SessionAckDTO.of(mutation.session(), mutation.appended());
+    }
+
+    /**
+     * 로그 추가가 적용되지 않았을 때, 클라이언트 순번이 이미 반영된 재전송이면 현재 세션을 그대로 반환합니다.
+     * 정상 경로에서는 조건부 갱신 하나로 끝나고, 조회는 갱신이 거절된 경우에만 합니다.
+     */
+    private StudySession requireAppended(Optional<StudySession> updated, String sessionId, SessionEvent log) {
+        if (updated.isPresent() || log.getClientSeq() == null) {
+            return requireUpdated(updated, sessionId);
+        }
+        return requireUpdated(studyRepo.findById(sessionId)
+                .filter(session -> session.getStatus() != SessionStatus.ENDED && session.hasAccepted(log.getClientSeq())),
+                sessionId);
+    }
+
+    /**
+     * 조건부 갱신이 적용되지 않은 경우, 세션이 없는지 이미 종료되었는지 구분해 예외를 던집니다.
+     */
+    private StudySession requireUpdated(Optional<StudySession> updated, String sessionId) {
+        return updated.orElseThrow(() -> studyRepo.existsById(sessionId)
+                ? new IllegalStateException("이미 종료된 세션입니다.")
+                : new IllegalArgumentException("세션을 찾을 수 없습니다."));
     }
 
     private StudySessionDTO toDto(StudySession s) {
@@ -247,4 +421,20 @@ public class StudySessionService {
                 questionLogDTOs
         );
     }
+
+    /**
+     * 쓰기 결과. 간단 응답은 헤더와 추가된 항목만 쓰고, 전체 응답일 때만 버킷의 로그를 채웁니다.
+     *
+     * @param appended 이번 쓰기로 추가된 로그나 피드백 (없으면 null)
+     * @param loaded   세션에 로그가 이미 채워져 있는지 (메모리에 모아 둔 세션의 사본)
+     */
+    private record Mutation(StudySession session, Object appended, boolean loaded) {
+        private static Mutation header(StudySession header, Object appended) {
+            return new Mutation(header, appended, false);
+        }
+
+        private static Mutation buffered(StudySession snapshot) {
+            return new Mutation(snapshot, null, true);
+        }
+    }
 }
@@ -0,0 +1,162 @@
+package session.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 프레임별 Vision AI 판정을 세션별 최근 n 개의 링 버퍼에 모아, 같은 딴짓이 k 번 이상 나왔을 때만 딴짓으로 확정합니다.
+ * <p>
+ * - 노이즈성 단일 프레임 판정으로 세션이 멈추고 자기 피드백을 요구하는 일을 막습니다.<br>
+ * - 확정되면 창을 비우므로, 같은 장면이 계속되어도 다시 k 번 모여야 다음 딴짓이 기록됩니다.<br>
+ * - maxVoteAge 보다 오래된 판정은 세지 않습니다.<br>
+ * - 중복 프레임에 재사용한 판정은 세지 않습니다. 한 번의 감지가 같은 프레임 여러 장으로 부풀어 확정되지 않게 하기 위함입니다.
+ */
+@Component
+public class VerdictSmoother {
+
+    private final VisionAiProperties.Smoothing properties;
+    private final Clock clock;
+    private final Counter suppressedVerdicts;
+    private final ConcurrentHashMap<String, VoteWindow> windows = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VerdictSmoother(VisionAiProperties visionAiProperties, MeterRegistry meterRegistry) {
+        this(visionAiProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    VerdictSmoother(VisionAiProperties visionAiProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = visionAiProperties.getSmoothing();
+        this.clock = clock;
+        this.suppressedVerdicts = Counter.builder("vision.verdicts.suppressed")
+                .description("Frame verdicts that detected a distraction but were not confirmed by the vote window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 탐지 서버가 이번 프레임을 새로 분석한 판정만 창에 넣습니다.
+     * 중복 프레임에 재사용한 판정은 같은 관측을 다시 센 것에 불과하므로 표로 치지 않고, 실패한 프레임은 판정이 없으므로 넣지 않습니다.
+     */
+    public Optional<VisionAiClient.DetectedDistraction> vote(String sessionId, VisionAiClient.FrameVerdict verdict) {
+        if (verdict.source() != VisionAiClient.FrameVerdict.Source.REMOTE) {
+            return Optional.empty();
+        }
+        return vote(sessionId, verdict.detection());
+    }
+
+    /**
+     * 이번 프레임의 판정을 창에 넣고, 창이 같은 딴짓에 동의하면 그 판정을 반환합니다.
+     */
+    public Optional<VisionAiClient.DetectedDistraction> vote(String sessionId,
+                                                             Optional<VisionAiClient.DetectedDistraction> verdict) {
+        if (!properties.isEnabled()) {
+            return verdict;
+        }
+
+        Instant now = clock.instant();
+        VoteWindow window = windowOf(sessionId, now);
+        if (window == null) {
+            return verdict; // 창을 만들 수 없으면 평활화 없이 그대로 통과
+        }
+
+        String activity = verdict.map(VisionAiClient.DetectedDistraction::activity).orElse(null);
+        synchronized (window) {
+            window.add(activity, now);
+            if (activity == null) {
+                return Optional.empty();
+            }
+            if (window.count(activity, now.minus(properties.getMaxVoteAge())) >= thresholdOf(activity)) {
+                window.clear();
+                return verdict;
+            }
+        }
+        suppressedVerdicts.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * 세션이 끝났을 때 판정 창을 지웁니다.
+     */
+    public void forget(String sessionId) {
+        windows.remove(sessionId);
+    }
+
+    int trackedSessions() {
+        return windows.size();
+    }
+
+    private int thresholdOf(String activity) {
+        int window = Math.max(1, properties.getWindow());
+        int threshold = properties.getThresholds().getOrDefault(activity, properties.getThreshold());
+        return Math.min(Math.max(1, threshold), window);
+    }
+
+    private VoteWindow windowOf(String sessionId, Instant now) {
+        VoteWindow window = windows.get(sessionId);
+        if (window != null) {
+            return window;
+        }
+        if (windows.size() >= properties.getMaxSessions()) {
+            // 최근 판정이 모두 오래된 창부터 정리하고, 그래도 가득 차 있으면 평활화하지 않음
+            Instant staleBefore = now.minus(properties.getMaxVoteAge());
+            windows.values().removeIf(entry -> entry.isStale(staleBefore));
+            if (windows.size() >= properties.getMaxSessions()) {
+                return null;
+            }
+        }
+        return windows.computeIfAbsent(sessionId, key -> new VoteWindow(Math.max(1, properties.getWindow())));
+    }
+
+    /**
+     * 최근 n 개 판정의 링 버퍼. 접근은 창 단위로 동기화합니다.
+     */
+    private static final class VoteWindow {
+        private final String[] activities;
+        private final Instant[] votedAt;
+        private int next;
+        private int size;
+
+        private VoteWindow(int capacity) {
+            this.activities = new String[capacity];
+            this.votedAt = new Instant[capacity];
+        }
+
+        private void add(String activity, Instant at) {
+            activities[next] = activity;
+            votedAt[next] = at;
+            next = (next + 1) % activities.length;
+            size = Math.min(size + 1, activities.length);
+        }
+
+        private int count(String activity, Instant notBefore) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (Objects.equals(activities[i], activity) && !votedAt[i].isBefore(notBefore)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private void clear() {
+            next = 0;
+            size = 0;
+        }
+
+        private synchronized boolean isStale(Instant staleBefore) {
+            for (int i = 0; i < size; i++) {
+                if (!votedAt[i].isBefore(staleBefore)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
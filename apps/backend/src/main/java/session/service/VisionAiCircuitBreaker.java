@@ -0,0 +1,121 @@
+package session.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Vision AI 서버 하나의 최근 n 개 결과로 실패율을 보고, 서버가 망가졌을 때 그 서버로의 호출을 건너뛰게 하는 서킷 브레이커입니다.
+ * 서버마다 하나씩 두므로({@link VisionAiEndpoints.Endpoint}) 한 서버의 장애가 다른 서버로 가는 호출까지 막지 않습니다.
+ * <p>
+ * - CLOSED: 모든 호출을 허용하고, 최근 호출의 실패율이 기준을 넘으면 OPEN 으로 바뀝니다.<br>
+ * - OPEN: openDuration 동안 호출을 바로 거절합니다. (프레임마다 타임아웃을 기다리지 않음)<br>
+ * - HALF_OPEN: 시험 호출 몇 개만 허용해, 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN 으로 돌아갑니다.
+ */
+@Slf4j
+public class VisionAiCircuitBreaker {
+
+    public enum State { CLOSED, HALF_OPEN, OPEN }
+
+    private final VisionAiProperties.Breaker properties;
+    private final Clock clock;
+    private final String name;
+    private final OutcomeWindow window;
+    private State state = State.CLOSED;
+    private Instant openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    VisionAiCircuitBreaker(VisionAiProperties.Breaker properties, Clock clock, String name) {
+        this.properties = properties;
+        this.clock = clock;
+        this.name = name;
+        this.window = new OutcomeWindow(properties.getSlidingWindow());
+    }
+
+    /**
+     * 호출해도 되는지 확인합니다. true 를 받았으면 결과를 onSuccess/onFailure 로 반드시 알려야 합니다.
+     */
+    public synchronized boolean tryAcquire() {
+        if (!permitsCalls()) {
+            return false;
+        }
+        if (state == State.OPEN) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            probesIssued++;
+        }
+        return true;
+    }
+
+    /**
+     * 지금 호출을 허용할지 상태를 바꾸지 않고 확인합니다. (서버를 고를 때 후보에서 빼는 용도)
+     */
+    public synchronized boolean permitsCalls() {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> !clock.instant().isBefore(openedAt.plus(properties.getOpenDuration()));
+            case HALF_OPEN -> probesIssued < properties.getHalfOpenProbes();
+        };
+    }
+
+    public synchronized void onSuccess() {
+        if (!properties.isEnabled() || state == State.OPEN) {
+            return; // 열리기 전에 보낸 호출의 결과는 세지 않음
+        }
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= properties.getHalfOpenProbes()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        window.record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (!properties.isEnabled() || state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        window.record(true);
+        if (window.failureRateReached(properties.getMinimumCalls(), properties.getFailureRateThreshold())) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * 실패율과 관계없이 회로를 엽니다. (응답이 계속 느린 서버 등)
+     */
+    public synchronized void trip() {
+        if (properties.isEnabled() && state != State.OPEN) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    private void transitionTo(State target) {
+        log.info("Vision AI circuit breaker of {} {} -> {} (failures {}/{})", name, state, target,
+                window.failures(), window.recorded());
+        state = target;
+        probesIssued = 0;
+        probesSucceeded = 0;
+        if (target == State.OPEN) {
+            openedAt = clock.instant();
+        }
+        if (target == State.CLOSED) {
+            // 닫힐 때는 이전 실패 이력을 버리고 새로 셈
+            window.clear();
+        }
+    }
+}
@@ -2,84 +2,337 @@ package session.service;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
+import io.netty.buffer.ByteBufAllocator;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Component;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.util.StringUtils;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
+/**
+ * Vision AI 서버 전용 HTTP 클라이언트입니다.
+ * <p>
+ * - 공용 RestTemplate 대신 keep-alive 연결 풀을 가진 WebClient(Reactor Netty)로 호출합니다.
+ * 연결 재사용을 위한 교체일 뿐 비동기 처리는 아니며, 호출한 스레드(요청 스레드, 파이프라인 워커)가 응답까지 기다립니다.<br>
+ * - 동시 호출 수를 벌크헤드로 제한하고, 넘치면 기다리지 않고 판정 없이 넘어갑니다.<br>
+ * - 탐지 서버가 망가지면 그 서버의 서킷 브레이커가 열려 다른 서버로 보내고, 모두 열려 있으면 호출을 바로 거절해 프레임마다 타임아웃을 기다리지 않습니다.<br>
+ * - 탐지 서버가 여러 대면 {@link VisionAiEndpoints} 가 세션 친화성과 부하를 보고 보낼 서버를 고릅니다.<br>
+ * - 정규화와 중복 생략은 프레임 전체 바이트가 필요하므로 part 는 딱 맞는 크기의 byte[] 로 한 번만 읽고,
+ * 보낼 때는 Netty 버퍼로 감싸기만 해 multipart 본문을 만들며 다시 복사하지 않습니다.<br>
+ * 연결 풀 지표는 reactor.netty.connection.provider.* 로 노출됩니다.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class VisionAiClient {
 
-    private final RestTemplate restTemplate;
+    private static final NettyDataBufferFactory BUFFER_FACTORY = new NettyDataBufferFactory(ByteBufAllocator.DEFAULT);
+
     private final VisionAiProperties properties;
+    private final FrameNormalizer frameNormalizer;
+    private final FrameDeduplicator frameDeduplicator;
+    private final VerdictSmoother verdictSmoother;
+    private final VisionAiEndpoints endpoints;
+    private final FrameSamplingAdvisor samplingAdvisor;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final Semaphore bulkhead;
+    private final Timer callTimer;
+    private final Counter failedCalls;
+    private final Counter bulkheadRejected;
+    private final Counter breakerRejected;
+
+    public VisionAiClient(WebClient.Builder webClientBuilder,
+                          VisionAiProperties properties,
+                          FrameNormalizer frameNormalizer,
+                          FrameDeduplicator frameDeduplicator,
+                          VerdictSmoother verdictSmoother,
+                          VisionAiEndpoints endpoints,
+                          FrameSamplingAdvisor samplingAdvisor,
+                          MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.frameNormalizer = frameNormalizer;
+        this.frameDeduplicator = frameDeduplicator;
+        this.verdictSmoother = verdictSmoother;
+        this.endpoints = endpoints;
+        this.samplingAdvisor = samplingAdvisor;
+
+        VisionAiProperties.Client client = properties.getClient();
+        this.connectionProvider = ConnectionProvider.builder("vision-ai")
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+                .maxIdleTime(client.getMaxIdleTime())
+                .maxLifeTime(client.getMaxLifeTime())
+                .evictInBackground(client.getMaxIdleTime())
+                .metrics(true)
+                .build();
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) client.getConnectTimeout().toMillis())
+                .responseTimeout(client.getResponseTimeout());
+        this.webClient = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+
+        this.bulkhead = new Semaphore(Math.max(1, client.getMaxConcurrentCalls()));
+        this.callTimer = Timer.builder("vision.calls")
+                .description("Completed Vision AI detection calls")
+                .register(meterRegistry);
+        this.failedCalls = Counter.builder("vision.calls.failed")
+                .description("Vision AI detection calls that failed or timed out")
+                .register(meterRegistry);
+        this.bulkheadRejected = Counter.builder("vision.calls.rejected")
+                .tag("reason", "bulkhead")
+                .description("Vision AI detection calls skipped without contacting the server")
+                .register(meterRegistry);
+        this.breakerRejected = Counter.builder("vision.calls.rejected")
+                .tag("reason", "breaker")
+                .description("Vision AI detection calls skipped without contacting the server")
+                .register(meterRegistry);
+        Gauge.builder("vision.calls.in_flight", bulkhead, b -> client.getMaxConcurrentCalls() - b.availablePermits())
+                .description("Vision AI detection calls currently in flight")
+                .register(meterRegistry);
+    }
 
     /**
      * Vision AI 서버에 프레임을 전달해 딴짓 여부를 판별합니다.
      * 감지된 경우 activity/detectionType을 반환하고, 감지되지 않았거나 연동이 비활성화된 경우 빈 Optional을 반환합니다.
      */
     public Optional<DetectedDistraction> detectDistraction(String sessionId, MultipartFile frame) {
-        if (!properties.isEnabled() || !StringUtils.hasText(properties.getBaseUrl())) {
+        if (!isAvailable()) {
             return Optional.empty();
         }
 
         try {
-            ByteArrayResource resource = new ByteArrayResource(frame.getBytes()) {
-                @Override
-                public String getFilename() {
-                    String original = frame.getOriginalFilename();
-                    return (original != null && !original.isBlank()) ? original : "frame.jpg";
-                }
-            };
-
-            MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", resource);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.MULTIPART_FORM_DATA);
-            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-            HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
-
-            String url = buildAnalyzeUrl(sessionId);
-            ResponseEntity<VisionAiResponse> response = restTemplate.postForEntity(url, request, VisionAiResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return response.getBody()
-                        .detectedActivity()
-                        .map(activity -> new DetectedDistraction(activity, "VISION_AI"));
-            }
+            return detectDistraction(sessionId, FrameNormalizer.read(frame), frame.getOriginalFilename());
         } catch (IOException e) {
             log.warn("Failed to read frame for Vision AI detection", e);
-        } catch (Exception e) {
-            log.warn("Vision AI detection failed for session {}", sessionId, e);
+            return Optional.empty();
         }
+    }
 
-        return Optional.empty();
+    /**
+     * 이미 메모리에 올라온 프레임 바이트로 딴짓 여부를 판별합니다. (비동기 파이프라인용)
+     * 프레임은 탐지 서버의 작업 해상도로 줄여 보내고, 직전 프레임과 거의 같으면 원격 호출 없이 직전 판정을 재사용하고,
+     * 최근 판정들이 같은 딴짓에 동의할 때만 감지 결과를 반환합니다.
+     */
+    public Optional<DetectedDistraction> detectDistraction(String sessionId, byte[] frame, String filename) {
+        if (!isAvailable()) {
+            return Optional.empty();
+        }
+
+        // 호출 스레드는 응답까지만 기다리고, 벌크헤드/브레이커에 막히면 바로 돌아옴
+        FrameNormalizer.NormalizedFrame normalized = frameNormalizer.normalize(frame, filename);
+        FrameVerdict verdict = frameDeduplicator.analyze(sessionId, normalized.content(),
+                () -> requestDetection(sessionId, normalized.content(), normalized.filename()).block());
+        return smooth(sessionId, verdict);
     }
 
-    private String buildAnalyzeUrl(String sessionId) {
-        String raw = properties.getBaseUrl().trim();
-        String base = raw.endsWith("/") ? raw.substring(0, raw.length() - 1) : raw;
-        return base + "/analyze-frame/" + sessionId;
+    /**
+     * 연속으로 찍은 프레임 여러 장을 한 번의 원격 호출로 판별합니다. (배치 업로드용)
+     * 서로 거의 같은 프레임은 한 장만 보내고, 판정은 찍은 순서대로 평활화 창에 넣어 프레임마다 평활화된 결과를 반환합니다.
+     */
+    public List<Optional<DetectedDistraction>> detectDistractions(String sessionId, List<byte[]> frames,
+                                                                  List<String> filenames) {
+        if (!isAvailable()) {
+            return Collections.nCopies(frames.size(), Optional.empty());
+        }
+
+        List<byte[]> contents = new ArrayList<>(frames.size());
+        List<String> names = new ArrayList<>(frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            FrameNormalizer.NormalizedFrame normalized = frameNormalizer.normalize(frames.get(i), filenames.get(i));
+            contents.add(normalized.content());
+            names.add(normalized.filename());
+        }
+        List<FrameVerdict> verdicts = frameDeduplicator.analyzeBatch(sessionId, contents,
+                toSend -> requestBatchDetection(sessionId, toSend, filenamesOf(toSend, contents, names)).block());
+
+        List<Optional<DetectedDistraction>> smoothed = new ArrayList<>(verdicts.size());
+        for (FrameVerdict verdict : verdicts) {
+            smoothed.add(smooth(sessionId, verdict));
+        }
+        return smoothed;
+    }
+
+    /**
+     * 판정을 전송 간격 조절과 평활화에 반영합니다. 원격 호출이 실패한 프레임은 판정이 없으므로 어느 쪽에도 넣지 않고,
+     * 재사용한 판정은 전송 간격 조절에만 반영합니다. (평활화에는 새로 분석한 판정만 표로 들어감)
+     */
+    private Optional<DetectedDistraction> smooth(String sessionId, FrameVerdict verdict) {
+        if (verdict.failed()) {
+            return Optional.empty();
+        }
+        samplingAdvisor.recordVerdict(sessionId, verdict.detection()); // 평활화 전 판정으로 전송 간격을 조절
+        return verdictSmoother.vote(sessionId, verdict);
+    }
+
+    /**
+     * 종료된 세션의 직전 프레임 정보와 판정 창을 정리합니다.
+     */
+    public void forgetSession(String sessionId) {
+        frameDeduplicator.forget(sessionId);
+        verdictSmoother.forget(sessionId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connectionProvider.dispose();
+    }
+
+    /**
+     * Vision AI 서버에 프레임 하나를 보냅니다. 실패, 타임아웃, 거절은 모두 {@link FrameVerdict#UNAVAILABLE} 로 끝납니다.
+     */
+    private Mono<FrameVerdict> requestDetection(String sessionId, byte[] frame, String filename) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        addFramePart(body, "file", frame, filename);
+        return exchange(sessionId, "/analyze-frame/", body, 1, VisionAiResponse.class,
+                response -> FrameVerdict.remote(response.toDetection()), FrameVerdict.UNAVAILABLE);
+    }
+
+    /**
+     * 프레임 여러 장을 한 번의 호출로 보냅니다. 실패하면 모든 프레임이 {@link FrameVerdict#UNAVAILABLE} 로 끝납니다.
+     */
+    private Mono<List<FrameVerdict>> requestBatchDetection(String sessionId, List<byte[]> frames, List<String> filenames) {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        for (int i = 0; i < frames.size(); i++) {
+            addFramePart(body, "files", frames.get(i), filenames.get(i));
+        }
+        List<FrameVerdict> none = Collections.nCopies(frames.size(), FrameVerdict.UNAVAILABLE);
+        return exchange(sessionId, "/analyze-frames/", body, frames.size(), VisionAiBatchResponse.class,
+                response -> response.toDetections(frames.size()).stream().map(FrameVerdict::remote).toList(), none);
+    }
+
+    // 중복 생략 후 남은 프레임의 파일 이름을 같은 배열을 기준으로 찾음
+    private static List<String> filenamesOf(List<byte[]> toSend, List<byte[]> contents, List<String> names) {
+        List<String> result = new ArrayList<>(toSend.size());
+        int from = 0;
+        for (byte[] content : toSend) {
+            while (contents.get(from) != content) {
+                from++;
+            }
+            result.add(names.get(from++));
+        }
+        return result;
+    }
+
+    private static void addFramePart(MultipartBodyBuilder body, String name, byte[] frame, String filename) {
+        // 배열을 감싸기만 하고 복사하지 않음
+        body.asyncPart(name, Mono.fromSupplier(() -> BUFFER_FACTORY.wrap(frame)), DataBuffer.class)
+                .filename((filename != null && !filename.isBlank()) ? filename : "frame.jpg")
+                .contentType(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    /**
+     * 벌크헤드, 서버 선택(서버별 서킷 브레이커)을 거쳐 multipart 요청 하나를 보냅니다.
+     * 실패, 타임아웃, 거절, 응답 해석 실패는 모두 fallback 으로 끝납니다.
+     * 벌크헤드 자리와 서버는 구독할 때 잡으므로, 만들기만 하고 구독하지 않은 호출이 자리를 차지하지 않습니다.
+     */
+    private <R, T> Mono<T> exchange(String sessionId, String path, MultipartBodyBuilder body, int frameCount,
+                                    Class<R> responseType, Function<R, T> mapper, T fallback) {
+        return Mono.defer(() -> send(sessionId, path, body, frameCount, responseType, mapper, fallback));
+    }
+
+    private <R, T> Mono<T> send(String sessionId, String path, MultipartBodyBuilder body, int frameCount,
+                                Class<R> responseType, Function<R, T> mapper, T fallback) {
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejected.increment();
+            return Mono.just(fallback);
+        }
+        VisionAiEndpoints.Endpoint endpoint = endpoints.acquire(sessionId);
+        if (endpoint == null) {
+            // 모든 서버의 회로가 열려 있음
+            bulkhead.release();
+            breakerRejected.increment();
+            return Mono.just(fallback);
+        }
+        long startedAt = System.nanoTime();
+        return webClient.post()
+                .uri(endpoint.baseUrl() + path + sessionId)
+                .contentType(MediaType.MULTIPART_FORM_DATA)
+                .accept(MediaType.APPLICATION_JSON)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .retrieve()
+                .bodyToMono(responseType)
+                .timeout(properties.getClient().getResponseTimeout())
+                .map(mapper)
+                .defaultIfEmpty(fallback)
+                .doOnSuccess(verdict -> endpoint.complete(true, elapsedMillis(startedAt)))
+                .onErrorResume(e -> {
+                    // 4xx 는 요청 문제이지 서버 장애가 아님
+                    boolean serverHealthy = e instanceof WebClientResponseException response
+                            && response.getStatusCode().is4xxClientError();
+                    endpoint.complete(serverHealthy, elapsedMillis(startedAt));
+                    failedCalls.increment();
+                    log.warn("Vision AI detection failed for session {} on {}: {}", sessionId, endpoint.baseUrl(), e.toString());
+                    return Mono.just(fallback);
+                })
+                .doFinally(signal -> {
+                    bulkhead.release();
+                    callTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    samplingAdvisor.recordLatency(elapsedMillis(startedAt) / frameCount); // 프레임 한 장 기준
+                });
+    }
+
+    private boolean isAvailable() {
+        return properties.isEnabled() && !endpoints.isEmpty();
+    }
+
+    private static long elapsedMillis(long startedAtNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAtNanos);
     }
 
     public record DetectedDistraction(String activity, String detectionType) {}
 
+    /**
+     * 프레임 한 장의 판정과 그 출처입니다.
+     * 원격 호출이 실패, 타임아웃, 거절로 끝나면 FAILED 로 두어 "감지 없음"과 구분합니다.
+     */
+    public record FrameVerdict(Optional<DetectedDistraction> detection, Source source) {
+
+        public enum Source {
+            REMOTE,  // 탐지 서버가 이번 프레임을 분석함
+            REUSED,  // 거의 같은 프레임의 직전 판정을 재사용함
+            FAILED   // 판정을 받지 못함
+        }
+
+        static final FrameVerdict UNAVAILABLE = new FrameVerdict(Optional.empty(), Source.FAILED);
+
+        static FrameVerdict remote(Optional<DetectedDistraction> detection) {
+            return new FrameVerdict(detection, Source.REMOTE);
+        }
+
+        static FrameVerdict reused(Optional<DetectedDistraction> detection) {
+            return new FrameVerdict(detection, Source.REUSED);
+        }
+
+        public boolean failed() {
+            return source == Source.FAILED;
+        }
+    }
+
     @JsonIgnoreProperties(ignoreUnknown = true)
     public record VisionAiResponse(
             boolean phone,
@@ -87,6 +340,10 @@ public class VisionAiClient {
             @JsonProperty("left_seat") boolean leftSeat,
             String activity
     ) {
+        Optional<DetectedDistraction> toDetection() {
+            return detectedActivity().map(detected -> new DetectedDistraction(detected, "VISION_AI"));
+        }
+
         public Optional<String> detectedActivity() {
             if (activity != null && !activity.isBlank()) {
                 return Optional.of(activity);
@@ -103,4 +360,17 @@ public class VisionAiClient {
             return Optional.empty();
         }
     }
+
+    /**
+     * /analyze-frames 응답. results 는 보낸 프레임 순서와 같습니다.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record VisionAiBatchResponse(List<VisionAiResponse> results) {
+        List<Optional<DetectedDistraction>> toDetections(int expected) {
+            if (results == null || results.size() != expected) {
+                throw new IllegalStateException("Vision AI 배치 응답의 프레임 수가 요청과 다릅니다.");
+            }
+            return results.stream().map(VisionAiResponse::toDetection).toList();
+        }
+    }
 }
@@ -0,0 +1,250 @@
+package session.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 Vision AI 서버 중 프레임을 보낼 서버를 고릅니다.
+ * <p>
+ * - 세션 친화성: 탐지 서버가 세션별 상태(졸음 EAR 이력 등)를 들고 있으므로, sessionId 의 일관된 해시로 서버를 정합니다.
+ * 서버가 늘거나 줄어도 대부분의 세션은 같은 서버에 남습니다.<br>
+ * - 부하 상한: 배정된 서버의 진행 중 호출 수가 평균보다 많이 높으면 링의 다음 서버로 넘깁니다.
+ * 맞는 서버가 없으면 진행 중 호출이 가장 적은 서버를 씁니다.<br>
+ * - 수동적 제외: 서버마다 서킷 브레이커({@link VisionAiCircuitBreaker})를 두고, 회로가 열린 서버는 고르지 않습니다.
+ * 최근 실패율이 기준을 넘거나 응답 시간 이동 평균이 ejectionLatency 를 넘으면 회로가 열립니다.
+ * 모든 서버의 회로가 열려 있으면 고를 서버가 없으므로 호출하지 않습니다.
+ */
+@Slf4j
+@Component
+public class VisionAiEndpoints {
+
+    private static final double LATENCY_EWMA_WEIGHT = 0.2;
+
+    private final VisionAiProperties.Balancing properties;
+    private final VisionAiProperties.Breaker breakerProperties;
+    private final Clock clock;
+    private final List<Endpoint> endpoints;
+    private final TreeMap<Long, Endpoint> ring = new TreeMap<>();
+
+    @Autowired
+    public VisionAiEndpoints(VisionAiProperties visionAiProperties, MeterRegistry meterRegistry) {
+        this(visionAiProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    VisionAiEndpoints(VisionAiProperties visionAiProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = visionAiProperties.getBalancing();
+        this.breakerProperties = visionAiProperties.getBreaker();
+        this.clock = clock;
+
+        List<String> urls = new ArrayList<>(visionAiProperties.getBaseUrls());
+        if (urls.isEmpty() && StringUtils.hasText(visionAiProperties.getBaseUrl())) {
+            urls.add(visionAiProperties.getBaseUrl());
+        }
+        List<Endpoint> built = new ArrayList<>();
+        for (String url : urls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            Endpoint endpoint = new Endpoint(normalize(url));
+            built.add(endpoint);
+            for (int i = 0; i < Math.max(1, properties.getVirtualNodes()); i++) {
+                ring.put(hash(endpoint.baseUrl + "#" + i), endpoint);
+            }
+            Gauge.builder("vision.endpoint.outstanding", endpoint.outstanding, AtomicInteger::get)
+                    .tag("endpoint", endpoint.baseUrl)
+                    .description("Vision AI calls in flight per detector endpoint")
+                    .register(meterRegistry);
+            Gauge.builder("vision.breaker.state", endpoint.breaker, breaker -> breaker.state().ordinal())
+                    .tag("endpoint", endpoint.baseUrl)
+                    .description("Vision AI circuit breaker state per detector endpoint (0=closed, 1=half-open, 2=open)")
+                    .register(meterRegistry);
+        }
+        this.endpoints = Collections.unmodifiableList(built);
+    }
+
+    public boolean isEmpty() {
+        return endpoints.isEmpty();
+    }
+
+    /**
+     * 세션의 프레임을 보낼 서버를 고르고 진행 중 호출 수를 올립니다. 호출이 끝나면 반드시 {@link Endpoint#complete} 를 불러야 합니다.
+     *
+     * @return 고른 서버. 모든 서버의 회로가 열려 있으면 null
+     */
+    public Endpoint acquire(String sessionId) {
+        List<Endpoint> refused = new ArrayList<>(0);
+        while (refused.size() < endpoints.size()) {
+            Endpoint chosen = choose(sessionId, refused);
+            if (chosen == null) {
+                return null;
+            }
+            // 고른 사이 다른 호출이 마지막 시험 호출을 가져갔을 수 있으므로 다시 확인
+            if (chosen.breaker.tryAcquire()) {
+                chosen.outstanding.incrementAndGet();
+                return chosen;
+            }
+            refused.add(chosen);
+        }
+        return null;
+    }
+
+    /**
+     * 서버가 있지만 호출을 받을 수 있는 서버가 하나도 없는지 여부. (모든 서버의 회로가 열려 있음)
+     */
+    public boolean isUnavailable() {
+        if (endpoints.isEmpty()) {
+            return false;
+        }
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.breaker.permitsCalls()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    List<Endpoint> endpoints() {
+        return endpoints;
+    }
+
+    private Endpoint choose(String sessionId, List<Endpoint> refused) {
+        List<Endpoint> healthy = new ArrayList<>(endpoints.size());
+        int totalOutstanding = 0;
+        for (Endpoint endpoint : endpoints) {
+            if (!refused.contains(endpoint) && endpoint.breaker.permitsCalls()) {
+                healthy.add(endpoint);
+                totalOutstanding += endpoint.outstanding.get();
+            }
+        }
+        if (healthy.size() <= 1) {
+            return healthy.isEmpty() ? null : healthy.get(0);
+        }
+
+        // 이 호출을 더한 평균의 (1 + loadFactor) 배까지를 서버 하나의 상한으로 봄
+        double limit = Math.ceil((totalOutstanding + 1) * (1 + properties.getLoadFactor()) / healthy.size());
+        long key = hash(sessionId);
+        for (Endpoint endpoint : walkRing(key)) {
+            if (healthy.contains(endpoint) && endpoint.outstanding.get() + 1 <= limit) {
+                return endpoint;
+            }
+        }
+        return leastOutstanding(healthy);
+    }
+
+    /**
+     * key 이후로 링을 돌며 만나는 서버를 중복 없이 순서대로 반환합니다.
+     */
+    private List<Endpoint> walkRing(long key) {
+        List<Endpoint> order = new ArrayList<>(endpoints.size());
+        for (Map<Long, Endpoint> part : List.of(ring.tailMap(key), ring.headMap(key))) {
+            for (Endpoint endpoint : part.values()) {
+                if (!order.contains(endpoint)) {
+                    order.add(endpoint);
+                    if (order.size() == endpoints.size()) {
+                        return order;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    private static Endpoint leastOutstanding(List<Endpoint> candidates) {
+        Endpoint best = candidates.get(0);
+        for (Endpoint endpoint : candidates) {
+            if (endpoint.outstanding.get() < best.outstanding.get()) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+    private static String normalize(String url) {
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    /**
+     * FNV-1a 64 비트 해시에 splitmix64 마무리를 더해 링 위에 고르게 퍼뜨립니다.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    /**
+     * Vision AI 서버 하나. 호출 결과와 응답 시간을 이 서버의 서킷 브레이커에 알립니다.
+     */
+    public final class Endpoint {
+        private final String baseUrl;
+        private final AtomicInteger outstanding = new AtomicInteger();
+        private final VisionAiCircuitBreaker breaker;
+        private final OutcomeWindow latencySamples; // 이동 평균을 믿을 만큼 호출이 모였는지 세는 용도
+        private double latencyEwmaMillis = -1;
+
+        private Endpoint(String baseUrl) {
+            this.baseUrl = baseUrl;
+            this.breaker = new VisionAiCircuitBreaker(breakerProperties, clock, baseUrl);
+            this.latencySamples = new OutcomeWindow(breakerProperties.getMinimumCalls());
+        }
+
+        public String baseUrl() {
+            return baseUrl;
+        }
+
+        int outstanding() {
+            return outstanding.get();
+        }
+
+        VisionAiCircuitBreaker breaker() {
+            return breaker;
+        }
+
+        /**
+         * 호출이 끝났음을 알립니다. 실패율이 기준을 넘거나 응답 시간이 계속 느리면 이 서버의 회로가 열립니다.
+         */
+        public void complete(boolean success, long latencyMillis) {
+            outstanding.decrementAndGet();
+            if (success) {
+                breaker.onSuccess();
+            } else {
+                breaker.onFailure();
+            }
+            synchronized (this) {
+                latencySamples.record(false);
+                latencyEwmaMillis = latencyEwmaMillis < 0 ? latencyMillis
+                        : LATENCY_EWMA_WEIGHT * latencyMillis + (1 - LATENCY_EWMA_WEIGHT) * latencyEwmaMillis;
+                if (latencySamples.hasAtLeast(breakerProperties.getMinimumCalls())
+                        && latencyEwmaMillis > properties.getEjectionLatency().toMillis()) {
+                    log.warn("Vision AI endpoint {} is slow ({} ms on average); opening its circuit", baseUrl,
+                            Math.round(latencyEwmaMillis));
+                    breaker.trip();
+                    // 돌아오면 새로 셈
+                    latencySamples.clear();
+                    latencyEwmaMillis = -1;
+                }
+            }
+        }
+    }
+}
@@ -5,6 +5,12 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Getter
 @Setter
 @Component
@@ -15,8 +21,341 @@ public class VisionAiProperties {
      */
     private String baseUrl;
 
+    /**
+     * 여러 Vision AI 서버 주소. 비어 있으면 baseUrl 하나만 씁니다.
+     */
+    private List<String> baseUrls = new ArrayList<>();
+
     /**
      * Vision AI 연동 사용 여부. 기본값은 비활성화.
      */
     private boolean enabled = false;
+
+    /**
+     * 프레임 비동기 분석 파이프라인 설정.
+     */
+    private Pipeline pipeline = new Pipeline();
+
+    /**
+     * 거의 같은 프레임의 원격 호출을 생략하는 설정.
+     */
+    private Dedup dedup = new Dedup();
+
+    /**
+     * 프레임 스트리밍 WebSocket 설정.
+     */
+    private Socket socket = new Socket();
+
+    /**
+     * 최근 판정들의 다수결로 딴짓을 확정하는 설정.
+     */
+    private Smoothing smoothing = new Smoothing();
+
+    /**
+     * Vision AI 전용 HTTP 클라이언트(연결 풀, 동시 호출 제한) 설정.
+     */
+    private Client client = new Client();
+
+    /**
+     * Vision AI 호출 서킷 브레이커 설정.
+     */
+    private Breaker breaker = new Breaker();
+
+    /**
+     * 여러 Vision AI 서버 사이의 분산 설정.
+     */
+    private Balancing balancing = new Balancing();
+
+    /**
+     * 세션별 프레임 전송 간격 안내(nextFrameAfterMs) 설정.
+     */
+    private Sampling sampling = new Sampling();
+
+    /**
+     * Vision AI 로 보내기 전 프레임 정규화(축소, JPEG 재인코딩) 설정.
+     */
+    private Normalize normalize = new Normalize();
+
+    /**
+     * 프레임 여러 장을 한 번에 분석하는 배치 업로드 설정.
+     */
+    private Batch batch = new Batch();
+
+    @Getter
+    @Setter
+    public static class Pipeline {
+        /**
+         * 비동기 수집 모드 사용 여부. 켜져 있으면 Prefer: respond-async 요청을 큐에 넣고 202 로 응답합니다.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Prefer 헤더가 없어도 비동기 모드로 처리할지 여부.
+         */
+        private boolean asyncByDefault = false;
+
+        /**
+         * 노드 전체에서 대기할 수 있는 최대 프레임 수.
+         */
+        private int queueCapacity = 256;
+
+        /**
+         * 세션별로 대기할 수 있는 최대 프레임 수. 넘치면 해당 세션의 가장 오래된 프레임을 버립니다.
+         */
+        private int perSessionCapacity = 2;
+
+        /**
+         * Vision AI 를 호출하는 워커 스레드 수.
+         */
+        private int workers = 4;
+
+        /**
+         * 종료 시 남은 프레임을 처리하기 위해 기다리는 최대 시간.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class Dedup {
+        /**
+         * 지각 해시(dHash) 기반 중복 프레임 생략 사용 여부.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 직전 분석 프레임과의 해밍 거리(0~64)가 이 값보다 작으면 같은 장면으로 봅니다.
+         */
+        private int hammingThreshold = 6;
+
+        /**
+         * 직전 판정을 재사용할 수 있는 최대 시간.
+         */
+        private Duration verdictTtl = Duration.ofSeconds(5);
+
+        /**
+         * 노드에서 직전 프레임을 기억하는 최대 세션 수.
+         */
+        private int maxSessions = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Socket {
+        /**
+         * 소켓 하나에 이벤트를 보내는 데 허용하는 최대 시간. 넘기면 느린 소켓으로 보고 연결을 끊습니다.
+         */
+        private Duration sendTimeLimit = Duration.ofSeconds(5);
+
+        /**
+         * 소켓 하나에 쌓아 둘 수 있는 미전송 메시지 최대 바이트.
+         */
+        private int sendBufferBytes = 64 * 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class Smoothing {
+        /**
+         * 판정 평활화 사용 여부. 끄면 프레임 하나의 판정으로 바로 딴짓을 기록합니다.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 세션별로 기억하는 최근 판정 수 (n).
+         */
+        private int window = 5;
+
+        /**
+         * 최근 n 개 중 같은 딴짓이 이 수(k) 이상이면 딴짓으로 확정합니다.
+         */
+        private int threshold = 3;
+
+        /**
+         * 딴짓 종류(activity)별 k. 없으면 threshold 를 씁니다. (예: 자리 이탈은 더 엄격하게)
+         */
+        private Map<String, Integer> thresholds = new HashMap<>();
+
+        /**
+         * 이보다 오래된 판정은 투표에서 제외합니다.
+         */
+        private Duration maxVoteAge = Duration.ofSeconds(30);
+
+        /**
+         * 노드에서 판정 창을 기억하는 최대 세션 수.
+         */
+        private int maxSessions = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Client {
+        /**
+         * 연결 수립 제한 시간.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 요청 하나의 응답 제한 시간.
+         */
+        private Duration responseTimeout = Duration.ofSeconds(3);
+
+        /**
+         * 연결 풀의 최대 연결 수.
+         */
+        private int maxConnections = 32;
+
+        /**
+         * 풀에서 연결을 얻기까지 기다리는 최대 시간.
+         */
+        private Duration pendingAcquireTimeout = Duration.ofMillis(500);
+
+        /**
+         * 이 시간 동안 쓰이지 않은 keep-alive 연결은 닫습니다.
+         */
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+
+        /**
+         * 연결 하나를 재사용하는 최대 시간.
+         */
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+
+        /**
+         * 노드에서 동시에 진행할 수 있는 최대 호출 수(벌크헤드). 넘치면 기다리지 않고 판정 없이 넘어갑니다.
+         */
+        private int maxConcurrentCalls = 16;
+    }
+
+    @Getter
+    @Setter
+    public static class Breaker {
+        /**
+         * 서킷 브레이커 사용 여부. 브레이커는 서버마다 따로 두며, 끄면 장애 서버도 제외하지 않습니다.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 실패율을 계산하는 최근 호출 수.
+         */
+        private int slidingWindow = 20;
+
+        /**
+         * 실패율을 계산하기 위한 최소 호출 수.
+         */
+        private int minimumCalls = 10;
+
+        /**
+         * 최근 호출의 실패율(%)이 이 값 이상이면 회로를 엽니다.
+         */
+        private int failureRateThreshold = 50;
+
+        /**
+         * 회로가 열린 뒤 시험 호출을 허용하기까지 기다리는 시간.
+         */
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        /**
+         * 반열림 상태에서 허용하는 시험 호출 수. 모두 성공하면 회로를 닫습니다.
+         */
+        private int halfOpenProbes = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Balancing {
+        /**
+         * 일관된 해시 링에 서버 하나당 올리는 가상 노드 수.
+         */
+        private int virtualNodes = 160;
+
+        /**
+         * 세션이 해시로 배정된 서버의 진행 중 호출 수가 평균의 (1 + loadFactor) 배를 넘으면 링의 다음 서버로 넘깁니다.
+         */
+        private double loadFactor = 0.25;
+
+        /**
+         * 응답 시간 이동 평균이 이 값을 넘으면 그 서버의 회로를 엽니다. (다시 쓰기까지는 breaker.open-duration)
+         * 실패율에 따른 제외는 서버별 서킷 브레이커(breaker.*) 설정을 따릅니다.
+         */
+        private Duration ejectionLatency = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Sampling {
+        /**
+         * 간격 안내 사용 여부. 끄면 항상 baseInterval 을 안내합니다.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 평소 프레임 전송 간격.
+         */
+        private Duration baseInterval = Duration.ofSeconds(1);
+
+        /**
+         * 딴짓 판정 직후나 PAUSED 상태(자리 복귀 대기)에서 쓰는 짧은 간격.
+         */
+        private Duration minInterval = Duration.ofMillis(500);
+
+        /**
+         * 안내할 수 있는 가장 긴 간격.
+         */
+        private Duration maxInterval = Duration.ofSeconds(5);
+
+        /**
+         * 깨끗한 프레임이 이 수만큼 연속될 때마다 간격을 두 배로 늘립니다.
+         */
+        private int cleanFramesPerStep = 5;
+
+        /**
+         * 딴짓 판정 후 짧은 간격을 유지하는 시간.
+         */
+        private Duration boostDuration = Duration.ofSeconds(10);
+
+        /**
+         * Vision AI 응답 시간 이동 평균이 이 값을 넘으면 그 비율만큼 모든 세션의 간격을 늘립니다.
+         */
+        private Duration latencyTarget = Duration.ofMillis(500);
+
+        /**
+         * 노드에서 간격 상태를 기억하는 최대 세션 수.
+         */
+        private int maxSessions = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Normalize {
+        /**
+         * 정규화 사용 여부. 끄면 받은 프레임을 그대로 보냅니다.
+         */
+        private boolean enabled = true;
+
+        /**
+         * 받을 수 있는 프레임 최대 크기(바이트). 넘으면 디코딩하지 않고 거절합니다.
+         */
+        private int maxInputBytes = 1024 * 1024;
+
+        /**
+         * 탐지 서버가 실제로 쓰는 해상도. 이 상자에 들어가도록 비율을 유지해 축소합니다.
+         */
+        private int targetWidth = 640;
+
+        private int targetHeight = 480;
+
+        /**
+         * 재인코딩 JPEG 품질 (0.0~1.0).
+         */
+        private float jpegQuality = 0.8f;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * 요청 하나에 담을 수 있는 최대 프레임 수. 넘으면 400 으로 거절합니다.
+         */
+        private int maxFrames = 8;
+    }
 }
@@ -0,0 +1,89 @@
+package session.websocket;
+
+import common.security.jwt.JwtTokenAuthenticator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriTemplate;
+import session.domain.StudySession;
+import session.repository.StudySessionRepository;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 프레임 스트리밍 소켓의 핸드셰이크에서 한 번만 인증/인가를 수행합니다.
+ * <p>
+ * - 토큰은 Authorization: Bearer 헤더 또는 access_token 쿼리 파라미터로 받습니다. (브라우저 WebSocket 은 헤더를 못 붙임)<br>
+ * - 세션의 멘티/멘토만 연결할 수 있고, 이미 종료된 세션에는 연결할 수 없습니다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SessionFrameHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String PATH = "/ws/sessions/{sessionId}/frames";
+    static final String SESSION_ID = "sessionId";
+    static final String USER_ID = "userId";
+    static final String MENTEE = "mentee";
+
+    private static final UriTemplate PATH_TEMPLATE = new UriTemplate(PATH);
+
+    private final JwtTokenAuthenticator jwtTokenAuthenticator;
+    private final StudySessionRepository studySessionRepository;
+
+    @Override
+    public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Map<String, Object> attributes) {
+        Optional<String> userId = jwtTokenAuthenticator.authenticate(resolveToken(request))
+                .map(auth -> auth.getName());
+        if (userId.isEmpty()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        Map<String, String> variables = PATH_TEMPLATE.match(request.getURI().getPath());
+        Optional<StudySession> session = Optional.ofNullable(variables.get(SESSION_ID))
+                .flatMap(studySessionRepository::findById);
+        if (session.isEmpty()) {
+            response.setStatusCode(HttpStatus.NOT_FOUND);
+            return false;
+        }
+
+        StudySession found = session.get();
+        boolean mentee = userId.get().equals(found.getMenteeUserId());
+        if (!mentee && !userId.get().equals(found.getMentorUserId())) {
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+        if (found.getStatus() == null || !found.getStatus().isOpen()) {
+            response.setStatusCode(HttpStatus.CONFLICT); // 종료되었거나 가져오는 중인 세션
+            return false;
+        }
+
+        attributes.put(SESSION_ID, found.getSessionId());
+        attributes.put(USER_ID, userId.get());
+        attributes.put(MENTEE, mentee);
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                               WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String resolveToken(ServerHttpRequest request) {
+        String bearer = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (StringUtils.hasText(bearer) && bearer.startsWith("Bearer ")) {
+            return bearer.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build()
+                .getQueryParams().getFirst("access_token");
+    }
+}
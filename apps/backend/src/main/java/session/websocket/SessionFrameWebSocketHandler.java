@@ -0,0 +1,189 @@
+package session.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import common.dto.ApiError;
+import common.dto.ApiResponse;
+import common.dto.ErrorCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import session.domain.SessionStatus;
+import session.dto.SessionSocketMessageDTO;
+import session.service.FrameAnalysisPipeline;
+import session.service.FrameNormalizer;
+import session.service.FrameSamplingAdvisor;
+import session.service.StudySessionEvent;
+import session.service.StudySessionService;
+import session.service.VisionAiProperties;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * /ws/sessions/{sessionId}/frames 소켓으로 들어오는 바이너리 JPEG 프레임을 분석하고,
+ * 판정과 세션 상태 변경을 같은 소켓으로 돌려보냅니다.
+ * <p>
+ * - 인증/인가는 {@link SessionFrameHandshakeInterceptor} 에서 연결 시 한 번만 수행합니다.<br>
+ * - 프레임은 멘티만 보낼 수 있고, 멘토는 같은 세션의 이벤트만 받습니다.<br>
+ * - 비동기 파이프라인이 켜져 있으면 큐에 넣고, 아니면 소켓 스레드에서 바로 분석합니다.<br>
+ * - 이벤트마다 다음 프레임을 보내기까지 기다릴 시간(nextFrameAfterMs)을 함께 보냅니다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SessionFrameWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final String FRAME_FILENAME = "frame.jpg";
+
+    private final StudySessionService studySessionService;
+    private final FrameAnalysisPipeline frameAnalysisPipeline;
+    private final FrameSamplingAdvisor frameSamplingAdvisor;
+    private final FrameNormalizer frameNormalizer;
+    private final VisionAiProperties visionAiProperties;
+    private final ObjectMapper objectMapper;
+
+    // sessionId -> (소켓 ID -> 스레드 안전한 소켓)
+    private final Map<String, Map<String, WebSocketSession>> subscribers = new ConcurrentHashMap<>();
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession socket) {
+        VisionAiProperties.Socket properties = visionAiProperties.getSocket();
+        WebSocketSession concurrent = new ConcurrentWebSocketSessionDecorator(socket,
+                (int) properties.getSendTimeLimit().toMillis(), properties.getSendBufferBytes());
+        subscribers.computeIfAbsent(sessionId(socket), id -> new ConcurrentHashMap<>())
+                .put(socket.getId(), concurrent);
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession socket, BinaryMessage message) throws IOException {
+        String sessionId = sessionId(socket);
+        if (!Boolean.TRUE.equals(socket.getAttributes().get(SessionFrameHandshakeInterceptor.MENTEE))) {
+            sendError(sessionId, socket, ErrorCode.FORBIDDEN);
+            return;
+        }
+
+        if (frameNormalizer.isOversized(message.getPayloadLength())) {
+            sendError(sessionId, socket, ErrorCode.FRAME_TOO_LARGE);
+            return;
+        }
+
+        byte[] frame = toBytes(message.getPayload());
+        if (frameAnalysisPipeline.isEnabled()) {
+            if (!frameAnalysisPipeline.submit(sessionId, frame, FRAME_FILENAME)) {
+                sendError(sessionId, socket, ErrorCode.FRAME_QUEUE_FULL);
+            }
+            return;
+        }
+
+        try {
+            // 판정은 StudySessionEvent 로 이 소켓을 포함한 구독자 모두에게 전달됨
+            studySessionService.analyzeFrame(sessionId, frame, FRAME_FILENAME);
+        } catch (IllegalStateException e) {
+            sendError(sessionId, socket, ErrorCode.SESSION_ALREADY_ENDED);
+            socket.close(CloseStatus.NORMAL);
+        } catch (IllegalArgumentException e) {
+            sendError(sessionId, socket, ErrorCode.SESSION_NOT_FOUND);
+            socket.close(CloseStatus.POLICY_VIOLATION);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession socket, CloseStatus status) {
+        subscribers.computeIfPresent(sessionId(socket), (id, sockets) -> {
+            sockets.remove(socket.getId());
+            return sockets.isEmpty() ? null : sockets;
+        });
+    }
+
+    @EventListener
+    public void onSessionEvent(StudySessionEvent event) {
+        if (event.type() == StudySessionEvent.Type.LOGGED) {
+            return; // 로그 내용은 SSE(/api/sessions/live)로만 보냄
+        }
+        Map<String, WebSocketSession> sockets = subscribers.get(event.sessionId());
+        if (sockets == null || sockets.isEmpty()) {
+            return;
+        }
+
+        boolean ended = event.type() == StudySessionEvent.Type.STATUS_CHANGED
+                && event.status() == SessionStatus.ENDED;
+        Long nextFrameAfterMs = ended ? null : frameSamplingAdvisor.nextFrameAfterMs(event.sessionId());
+        TextMessage message = toMessage(ApiResponse.ok(SessionSocketMessageDTO.from(event, nextFrameAfterMs)));
+        for (WebSocketSession socket : sockets.values()) {
+            send(event.sessionId(), socket, message);
+            if (ended) {
+                closeQuietly(socket, CloseStatus.NORMAL);
+            }
+        }
+    }
+
+    int subscriberCount(String sessionId) {
+        Map<String, WebSocketSession> sockets = subscribers.get(sessionId);
+        return sockets == null ? 0 : sockets.size();
+    }
+
+    private void sendError(String sessionId, WebSocketSession socket, ErrorCode errorCode) {
+        // 등록된 데코레이터로 보내야 이벤트 전송과 동시에 써도 안전함
+        WebSocketSession concurrent = subscribers.getOrDefault(sessionId, Map.of())
+                .getOrDefault(socket.getId(), socket);
+        send(sessionId, concurrent, toMessage(ApiResponse.error(new ApiError(errorCode))));
+    }
+
+    /**
+     * 이벤트 발행 스레드(세션 변경 요청, 분석 워커)에서 호출되므로 어떤 전송 실패도 밖으로 던지지 않습니다.
+     */
+    private void send(String sessionId, WebSocketSession socket, TextMessage message) {
+        if (!socket.isOpen()) {
+            return;
+        }
+        try {
+            socket.sendMessage(message);
+        } catch (SessionLimitExceededException e) {
+            // 데코레이터는 한도를 넘긴 소켓을 닫지 않으므로 직접 닫고 구독에서 뺌
+            log.debug("Dropping slow socket {}: {}", socket.getId(), e.getMessage());
+            subscribers.computeIfPresent(sessionId, (id, sockets) -> {
+                sockets.remove(socket.getId());
+                return sockets.isEmpty() ? null : sockets;
+            });
+            closeQuietly(socket, CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to push session event to socket {}: {}", socket.getId(), e.getMessage());
+        }
+    }
+
+    private void closeQuietly(WebSocketSession socket, CloseStatus status) {
+        try {
+            socket.close(status);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Failed to close socket {}", socket.getId(), e);
+        }
+    }
+
+    private TextMessage toMessage(ApiResponse<?> payload) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException("소켓 메시지 직렬화에 실패했습니다.", e);
+        }
+    }
+
+    private static String sessionId(WebSocketSession socket) {
+        return (String) socket.getAttributes().get(SessionFrameHandshakeInterceptor.SESSION_ID);
+    }
+
+    private static byte[] toBytes(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return bytes;
+    }
+}
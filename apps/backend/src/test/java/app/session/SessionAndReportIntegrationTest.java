@@ -9,10 +9,13 @@ import org.springframework.http.MediaType;
 import report.domain.Report;
 import user.domain.Role;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -96,15 +99,18 @@ class qSessionAndReportIntegrationTest extends IntegrationTestSupport {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.status").value("ENDED"));
 
-        Report report = reportRepository.findAll().stream()
-                .findFirst()
+        // 리포트와 보드 등록은 종료 후처리 디스패처가 비동기로 수행
+        Report report = await().atMost(Duration.ofSeconds(10))
+                .until(() -> reportRepository.findByMatchId(matchId).stream().findFirst(), Optional::isPresent)
                 .orElseThrow(() -> new AssertionError("리포트가 생성되지 않았습니다."));
         assertThat(report.getMatchId()).isEqualTo(matchId);
         assertThat(report.getAiSummary()).isEqualTo("요약 결과");
         assertThat(report.getDistractionLogs()).isNotEmpty();
 
-        Board updatedBoard = boardRepository.findById(board.getId())
-                .orElseThrow(() -> new AssertionError("보드를 다시 조회할 수 없습니다."));
+        Board updatedBoard = await().atMost(Duration.ofSeconds(10))
+                .until(() -> boardRepository.findById(board.getId())
+                                .orElseThrow(() -> new AssertionError("보드를 다시 조회할 수 없습니다.")),
+                        b -> b.getEntries() != null && !b.getEntries().isEmpty());
         assertThat(updatedBoard.getEntries()).isNotEmpty();
         assertThat(updatedBoard.getEntries().get(updatedBoard.getEntries().size() - 1).getStatus())
                 .isEqualTo(EntryStatus.INCOMPLETE);
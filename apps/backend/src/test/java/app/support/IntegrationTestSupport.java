@@ -27,6 +27,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import report.repository.MatchStatsRepository;
 import report.repository.ReportRepository;
 import report.service.AiSummaryService;
 import session.repository.StudySessionRepository;
@@ -79,6 +80,9 @@ public abstract class IntegrationTestSupport {
     @Autowired
     protected ReportRepository reportRepository;
 
+    @Autowired
+    protected MatchStatsRepository matchStatsRepository;
+
     @Autowired
     protected StudySessionRepository studySessionRepository;
 
@@ -102,6 +106,7 @@ public abstract class IntegrationTestSupport {
     @BeforeEach
     void resetState() {
         reportRepository.deleteAll();
+        matchStatsRepository.deleteAll();
         studySessionRepository.deleteAll();
         boardRepository.deleteAll();
         matchRepository.deleteAll();
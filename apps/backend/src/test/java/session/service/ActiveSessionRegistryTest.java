@@ -0,0 +1,207 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import session.domain.*;
+import session.repository.StudySessionRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActiveSessionRegistryTest {
+
+    @Mock
+    private StudySessionRepository studySessionRepository;
+
+    private SessionRegistryProperties properties;
+    private ActiveSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SessionRegistryProperties();
+        properties.setEnabled(true);
+        registry = new ActiveSessionRegistry(studySessionRepository, properties, new SimpleMeterRegistry());
+        lenient().when(studySessionRepository.loadLogs(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void mutationsAreBufferedAndFlushedInOneWrite() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession()));
+        when(studySessionRepository.appendEvents(eq("session-1"), anyList(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("session-1").eventCount(3L).build()));
+
+        registry.append("session-1", studyLog("첫 번째"), null);
+        registry.append("session-1", studyLog("두 번째"), null);
+        StudySession paused = registry.append("session-1", distraction(), SessionStatus.PAUSED).orElseThrow();
+        StudySession resumed = registry.updateStatus("session-1", SessionStatus.ACTIVE).orElseThrow();
+
+        assertEquals(SessionStatus.PAUSED, paused.getStatus());
+        assertEquals(SessionStatus.ACTIVE, resumed.getStatus());
+        assertEquals(2, resumed.getStudyLogs().size());
+        assertEquals(3L, resumed.getEventCount());
+        verify(studySessionRepository, never()).appendEvents(any(), any(), any(), any(), anyInt(), anyInt());
+
+        registry.flushAll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SessionEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(studySessionRepository).appendEvents(eq("session-1"), events.capture(), eq(SessionStatus.ACTIVE), any(), anyInt(), anyInt());
+        assertEquals(3, events.getValue().size());
+        assertInstanceOf(DistractionLog.class, events.getValue().get(2));
+
+        registry.flushAll(); // 쌓인 변경이 없으면 쓰지 않음
+        verify(studySessionRepository, times(1)).appendEvents(any(), any(), any(), any(), anyInt(), anyInt());
+        verify(studySessionRepository, times(1)).findById("session-1");
+    }
+
+    @Test
+    void flushAndEvictWritesPendingChangesAndForgetsSession() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession()));
+        when(studySessionRepository.appendEvents(eq("session-1"), anyList(), isNull(), any(), anyInt(), anyInt()))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("session-1").eventCount(1L).build()));
+        registry.append("session-1", studyLog("내용"), null);
+
+        registry.flushAndEvict("session-1");
+
+        verify(studySessionRepository).appendEvents(eq("session-1"), anyList(), isNull(), any(), anyInt(), anyInt());
+        assertEquals(0, registry.size());
+        assertTrue(registry.find("session-1").isEmpty());
+    }
+
+    @Test
+    void failedFlushKeepsChangesForNextAttempt() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession()));
+        when(studySessionRepository.appendEvents(eq("session-1"), anyList(), isNull(), any(), anyInt(), anyInt()))
+                .thenThrow(new IllegalStateException("mongo down"))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("session-1").eventCount(1L).build()));
+        registry.append("session-1", studyLog("내용"), null);
+
+        registry.flushAll();
+        registry.flushAll();
+
+        verify(studySessionRepository, times(2)).appendEvents(eq("session-1"), argThat(list -> list.size() == 1), isNull(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void retriedClientSeqIsAppliedOnce() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession()));
+        when(studySessionRepository.appendEvents(eq("session-1"), anyList(), isNull(), any(), anyInt(), anyInt()))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("session-1").eventCount(2L).build()));
+
+        registry.append("session-1", studyLog("첫 번째", 1L), null);
+        registry.append("session-1", studyLog("첫 번째", 1L), null); // 재전송
+        registry.append("session-1", studyLog("두 번째", 2L), null);
+        StudySession retried = registry.append("session-1", studyLog("첫 번째", 1L), null).orElseThrow();
+
+        assertEquals(2, retried.getStudyLogs().size());
+        assertEquals(2L, retried.getClientSeqHwm());
+
+        registry.flushAll();
+        verify(studySessionRepository).appendEvents(eq("session-1"), argThat(list -> list.size() == 2), isNull(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void versionCountsBufferedMutationsAndMatchesHeaderAfterFlush() {
+        StudySession loaded = activeSession();
+        loaded.setVersion(3L);
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(loaded));
+        when(studySessionRepository.appendEvents(eq("session-1"), anyList(), eq(SessionStatus.ACTIVE), any(), eq(2), eq(1)))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("session-1").eventCount(2L).version(7L).build()));
+
+        assertEquals(4L, registry.append("session-1", studyLog("첫 번째"), null).orElseThrow().getVersion());
+        assertEquals(6L, registry.append("session-1", distraction(), SessionStatus.PAUSED).orElseThrow().getVersion());
+        assertEquals(7L, registry.updateStatus("session-1", SessionStatus.ACTIVE).orElseThrow().getVersion());
+
+        registry.flushAll(); // 일시정지와 재개를 한 번에 내려쓰면서 상태 변경 두 번만큼 version 을 올림
+        assertEquals(7L, registry.find("session-1").orElseThrow().getVersion());
+    }
+
+    @Test
+    void distractionWhilePausedKeepsTransitionAndPauseCount() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession()));
+        when(studySessionRepository.appendEvents(eq("session-1"), anyList(), eq(SessionStatus.PAUSED), any(), eq(1), eq(1)))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("session-1").eventCount(2L).build()));
+
+        StudySession first = registry.append("session-1", distraction(), SessionStatus.PAUSED).orElseThrow();
+        StudySession second = registry.append("session-1", distraction(), SessionStatus.PAUSED).orElseThrow();
+
+        // 이미 PAUSED 인 세션에 딴짓이 더해져도 새 일시정지가 아님
+        assertEquals(1, second.getPauseCount());
+        assertEquals(first.getLastTransitionAt(), second.getLastTransitionAt());
+        assertEquals(first.getVersion() + 1, second.getVersion());
+
+        registry.flushAll();
+        verify(studySessionRepository).appendEvents(eq("session-1"), argThat(list -> list.size() == 2),
+                eq(SessionStatus.PAUSED), eq(first.getLastTransitionAt()), eq(1), eq(1));
+    }
+
+    @Test
+    void resumingActiveSessionChangesNothing() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(activeSession()));
+
+        StudySession resumed = registry.updateStatus("session-1", SessionStatus.ACTIVE).orElseThrow();
+        registry.flushAll();
+
+        assertEquals(SessionStatus.ACTIVE, resumed.getStatus());
+        assertEquals(0L, resumed.getVersion());
+        verify(studySessionRepository, never()).appendEvents(any(), any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void legacyEndedOrDisabledSessionsAreNotHeld() {
+        StudySession legacy = activeSession();
+        legacy.setEventCount(null);
+        when(studySessionRepository.findById("legacy")).thenReturn(Optional.of(legacy));
+        StudySession ended = activeSession();
+        ended.setStatus(SessionStatus.ENDED);
+        when(studySessionRepository.findById("ended")).thenReturn(Optional.of(ended));
+
+        assertTrue(registry.append("legacy", studyLog("내용"), null).isEmpty());
+        assertTrue(registry.append("ended", studyLog("내용"), null).isEmpty());
+
+        properties.setEnabled(false);
+        assertTrue(registry.append("session-1", studyLog("내용"), null).isEmpty());
+        verify(studySessionRepository, never()).findById("session-1");
+        assertEquals(0, registry.size());
+    }
+
+    private StudySession activeSession() {
+        return StudySession.builder()
+                .sessionId("session-1")
+                .matchId("match-1")
+                .status(SessionStatus.ACTIVE)
+                .startedAt(Instant.now())
+                .eventCount(0L)
+                .studyLogCount(0)
+                .distractionCount(0)
+                .questionCount(0)
+                .studyLogs(new ArrayList<>())
+                .distractionLogs(new ArrayList<>())
+                .questionLogs(new ArrayList<>())
+                .build();
+    }
+
+    private StudyLog studyLog(String content) {
+        return studyLog(content, null);
+    }
+
+    private StudyLog studyLog(String content, Long clientSeq) {
+        return StudyLog.builder().content(content).timestamp(Instant.now()).clientSeq(clientSeq).build();
+    }
+
+    private DistractionLog distraction() {
+        return DistractionLog.builder().activity("휴대폰 사용").detectedAt(Instant.now()).detectionType("VISION_AI").build();
+    }
+}
@@ -0,0 +1,126 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FrameAnalysisPipelineTest {
+
+    @Mock
+    private StudySessionService studySessionService;
+
+    private VisionAiProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VisionAiProperties();
+        properties.getPipeline().setEnabled(true);
+        properties.getPipeline().setQueueCapacity(3);
+        properties.getPipeline().setPerSessionCapacity(2);
+        properties.getPipeline().setWorkers(2);
+        properties.getPipeline().setShutdownTimeout(Duration.ofSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void dropsOldestFrameOfSameSessionWhenSessionCapacityExceeded() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FrameAnalysisPipeline pipeline = startWithBlockedWorker(release);
+
+        assertTrue(pipeline.submit("s1", new byte[]{1}, "b.jpg"));
+        assertTrue(pipeline.submit("s1", new byte[]{2}, "c.jpg"));
+        assertTrue(pipeline.submit("s1", new byte[]{3}, "d.jpg"));
+
+        assertEquals(2, pipeline.queueDepth());
+        assertEquals(1.0, meterRegistry.get("vision.frames.dropped").counter().count());
+
+        release.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void rejectsNewSessionWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FrameAnalysisPipeline pipeline = startWithBlockedWorker(release);
+
+        assertTrue(pipeline.submit("s1", new byte[]{1}, null));
+        assertTrue(pipeline.submit("s2", new byte[]{1}, null));
+        assertTrue(pipeline.submit("s3", new byte[]{1}, null));
+
+        assertFalse(pipeline.submit("s4", new byte[]{1}, null));
+        assertTrue(pipeline.submit("s1", new byte[]{2}, null)); // 기존 세션은 자기 프레임을 밀어내고 들어감
+
+        assertEquals(3, pipeline.queueDepth());
+        assertEquals(1.0, meterRegistry.get("vision.frames.rejected").counter().count());
+        assertEquals(3.0, meterRegistry.get("vision.frames.queue.depth").gauge().value());
+
+        release.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void drainsPendingFramesOnStopAndRecordsVerdicts() {
+        FrameAnalysisPipeline pipeline = newPipeline();
+        pipeline.start();
+        assertTrue(pipeline.submit("s1", new byte[]{1}, "a.jpg"));
+        assertTrue(pipeline.submit("s2", new byte[]{1}, "b.jpg"));
+        pipeline.stop();
+
+        assertEquals(0, pipeline.queueDepth());
+        verify(studySessionService).analyzeFrame(eq("s1"), any(byte[].class), eq("a.jpg"));
+        verify(studySessionService).analyzeFrame(eq("s2"), any(byte[].class), eq("b.jpg"));
+        assertFalse(pipeline.submit("s1", new byte[]{1}, "c.jpg"));
+    }
+
+    @Test
+    void ignoresVerdictForEndedSession() {
+        when(studySessionService.analyzeFrame(eq("s1"), any(byte[].class), any()))
+                .thenThrow(new IllegalStateException("이미 종료된 세션입니다."));
+
+        FrameAnalysisPipeline pipeline = newPipeline();
+        pipeline.start();
+        assertTrue(pipeline.submit("s1", new byte[]{1}, "a.jpg"));
+        pipeline.stop();
+
+        assertEquals(1.0, meterRegistry.get("vision.frames.processed").counter().count());
+    }
+
+    private FrameAnalysisPipeline newPipeline() {
+        return new FrameAnalysisPipeline(studySessionService, properties, meterRegistry);
+    }
+
+    /**
+     * 워커 하나가 s1 의 첫 프레임을 처리하는 도중 멈춰 있는 상태를 만듭니다.
+     */
+    private FrameAnalysisPipeline startWithBlockedWorker(CountDownLatch release) throws InterruptedException {
+        properties.getPipeline().setWorkers(1);
+        CountDownLatch taken = new CountDownLatch(1);
+        when(studySessionService.analyzeFrame(anyString(), any(byte[].class), any())).thenAnswer(invocation -> {
+            taken.countDown();
+            release.await();
+            return Optional.empty();
+        });
+
+        FrameAnalysisPipeline pipeline = newPipeline();
+        pipeline.start();
+        assertTrue(pipeline.submit("s1", new byte[]{0}, "a.jpg"));
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+        return pipeline;
+    }
+}
@@ -0,0 +1,223 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameDeduplicatorTest {
+
+    private static final Optional<VisionAiClient.DetectedDistraction> PHONE =
+            Optional.of(new VisionAiClient.DetectedDistraction("스마트폰 사용", "VISION_AI"));
+
+    private VisionAiProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private AtomicInteger remoteCalls;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VisionAiProperties();
+        properties.getDedup().setVerdictTtl(Duration.ofSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        remoteCalls = new AtomicInteger();
+    }
+
+    @Test
+    void reusesVerdictForNearlyIdenticalFrame() throws IOException {
+        FrameDeduplicator deduplicator = newDeduplicator();
+
+        assertEquals(PHONE, deduplicator.analyze("s1", frame(Color.WHITE, 20), remote()).detection());
+        clock.advance(Duration.ofSeconds(1));
+        VisionAiClient.FrameVerdict reused = deduplicator.analyze("s1", frame(Color.WHITE, 21), remote());
+        assertEquals(PHONE, reused.detection());
+        assertEquals(VisionAiClient.FrameVerdict.Source.REUSED, reused.source());
+
+        assertEquals(1, remoteCalls.get());
+        assertEquals(1.0, meterRegistry.get("vision.frames.deduplicated").counter().count());
+    }
+
+    @Test
+    void analyzesAgainWhenSceneChanges() throws IOException {
+        FrameDeduplicator deduplicator = newDeduplicator();
+
+        deduplicator.analyze("s1", frame(Color.WHITE, 10), remote());
+        deduplicator.analyze("s1", frame(Color.BLACK, 60), remote());
+
+        assertEquals(2, remoteCalls.get());
+    }
+
+    @Test
+    void doesNotRememberFailedAnalysis() throws IOException {
+        FrameDeduplicator deduplicator = newDeduplicator();
+
+        VisionAiClient.FrameVerdict failed = deduplicator.analyze("s1", frame(Color.WHITE, 20), () -> {
+            remoteCalls.incrementAndGet();
+            return VisionAiClient.FrameVerdict.UNAVAILABLE;
+        });
+        VisionAiClient.FrameVerdict next = deduplicator.analyze("s1", frame(Color.WHITE, 21), remote());
+
+        assertTrue(failed.failed());
+        assertEquals(VisionAiClient.FrameVerdict.Source.REMOTE, next.source());
+        assertEquals(PHONE, next.detection());
+        assertEquals(2, remoteCalls.get());
+        assertEquals(0.0, meterRegistry.get("vision.frames.deduplicated").counter().count());
+    }
+
+    @Test
+    void analyzesAgainAfterVerdictTtl() throws IOException {
+        FrameDeduplicator deduplicator = newDeduplicator();
+        byte[] frame = frame(Color.WHITE, 20);
+
+        deduplicator.analyze("s1", frame, remote());
+        clock.advance(Duration.ofSeconds(5));
+        deduplicator.analyze("s1", frame, remote());
+
+        assertEquals(2, remoteCalls.get());
+    }
+
+    @Test
+    void keepsSessionsSeparateAndPassesThroughUndecodableFrames() throws IOException {
+        FrameDeduplicator deduplicator = newDeduplicator();
+        byte[] frame = frame(Color.WHITE, 20);
+
+        deduplicator.analyze("s1", frame, remote());
+        deduplicator.analyze("s2", frame, remote());
+        deduplicator.analyze("s1", new byte[]{1, 2, 3}, remote());
+        deduplicator.analyze("s1", new byte[]{1, 2, 3}, remote());
+
+        assertEquals(4, remoteCalls.get());
+        assertEquals(2, deduplicator.trackedSessions());
+
+        deduplicator.forget("s1");
+        assertEquals(1, deduplicator.trackedSessions());
+    }
+
+    @Test
+    void callsRemoteEveryTimeWhenDisabled() throws IOException {
+        properties.getDedup().setEnabled(false);
+        FrameDeduplicator deduplicator = newDeduplicator();
+        byte[] frame = frame(Color.WHITE, 20);
+
+        deduplicator.analyze("s1", frame, remote());
+        deduplicator.analyze("s1", frame, remote());
+
+        assertEquals(2, remoteCalls.get());
+    }
+
+    @Test
+    void batchSendsOnlyDistinctFramesAndKeepsFrameOrder() throws IOException {
+        FrameDeduplicator deduplicator = newDeduplicator();
+        List<byte[]> frames = List.of(frame(Color.WHITE, 20), frame(Color.WHITE, 21),
+                frame(Color.BLACK, 60), frame(Color.BLACK, 61));
+        List<Integer> batchSizes = new ArrayList<>();
+
+        List<VisionAiClient.FrameVerdict> verdicts = deduplicator.analyzeBatch("s1", frames, toSend -> {
+            batchSizes.add(toSend.size());
+            return List.of(VisionAiClient.FrameVerdict.remote(Optional.empty()), VisionAiClient.FrameVerdict.remote(PHONE));
+        });
+
+        assertEquals(List.of(2), batchSizes);
+        assertEquals(List.of(Optional.empty(), Optional.empty(), PHONE, PHONE), detections(verdicts));
+        assertEquals(VisionAiClient.FrameVerdict.Source.REUSED, verdicts.get(1).source());
+
+        // 다음 배치는 직전 배치에서 마지막으로 보낸 프레임과 비교
+        clock.advance(Duration.ofSeconds(1));
+        verdicts = deduplicator.analyzeBatch("s1", List.of(frame(Color.BLACK, 62)), toSend -> {
+            batchSizes.add(toSend.size());
+            return List.of(VisionAiClient.FrameVerdict.remote(Optional.empty()));
+        });
+        assertEquals(List.of(2), batchSizes);
+        assertEquals(List.of(PHONE), detections(verdicts));
+    }
+
+    @Test
+    void failedBatchMarksDuplicateFramesFailedAndIsNotRemembered() throws IOException {
+        FrameDeduplicator deduplicator = newDeduplicator();
+        List<byte[]> frames = List.of(frame(Color.WHITE, 20), frame(Color.WHITE, 21));
+
+        List<VisionAiClient.FrameVerdict> verdicts = deduplicator.analyzeBatch("s1", frames,
+                toSend -> List.of(VisionAiClient.FrameVerdict.UNAVAILABLE));
+
+        assertTrue(verdicts.stream().allMatch(VisionAiClient.FrameVerdict::failed));
+        assertEquals(0, deduplicator.trackedSessions());
+    }
+
+    private static List<Optional<VisionAiClient.DetectedDistraction>> detections(List<VisionAiClient.FrameVerdict> verdicts) {
+        return verdicts.stream().map(VisionAiClient.FrameVerdict::detection).toList();
+    }
+
+    private FrameDeduplicator newDeduplicator() {
+        return new FrameDeduplicator(properties, meterRegistry, clock);
+    }
+
+    private Supplier<VisionAiClient.FrameVerdict> remote() {
+        return () -> {
+            remoteCalls.incrementAndGet();
+            return VisionAiClient.FrameVerdict.remote(PHONE);
+        };
+    }
+
+    /**
+     * 배경색 위에 회색 사각형 하나를 그린 PNG. offset 이 조금 다르면 거의 같은 장면이 됩니다.
+     */
+    private static byte[] frame(Color background, int offset) throws IOException {
+        BufferedImage image = new BufferedImage(160, 120, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(background);
+        graphics.fillRect(0, 0, 160, 120);
+        graphics.setColor(Color.GRAY);
+        graphics.fillRect(offset, 30, 60, 60);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameNormalizerTest {
+
+    private VisionAiProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private FrameNormalizer normalizer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VisionAiProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        normalizer = new FrameNormalizer(properties, meterRegistry);
+    }
+
+    @Test
+    void largePngIsDownscaledToJpegWithinTargetBox() throws IOException {
+        byte[] png = image(1920, 1080, BufferedImage.TYPE_INT_ARGB, "png");
+
+        FrameNormalizer.NormalizedFrame normalized = normalizer.normalize(png, "frame.png");
+
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(normalized.content()));
+        assertEquals("frame.jpg", normalized.filename());
+        assertEquals(640, decoded.getWidth());
+        assertEquals(360, decoded.getHeight());
+        assertTrue(normalized.content().length < png.length);
+        assertEquals(png.length, meterRegistry.get("vision.frames.bytes").tag("stage", "in").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("vision.frames.normalize").timer().count());
+    }
+
+    @Test
+    void smallJpegIsForwardedWithoutDecoding() throws IOException {
+        byte[] jpeg = image(320, 240, BufferedImage.TYPE_3BYTE_BGR, "jpeg");
+
+        FrameNormalizer.NormalizedFrame normalized = normalizer.normalize(jpeg, "camera.jpg");
+
+        assertSame(jpeg, normalized.content());
+        assertEquals("camera.jpg", normalized.filename());
+    }
+
+    @Test
+    void undecodableFrameIsForwardedAsIs() {
+        byte[] garbage = {1, 2, 3, 4};
+
+        assertSame(garbage, normalizer.normalize(garbage, "frame.webp").content());
+    }
+
+    @Test
+    void readsUploadedFrameIntoExactlySizedArray() throws IOException {
+        byte[] jpeg = image(320, 240, BufferedImage.TYPE_3BYTE_BGR, "jpeg");
+
+        byte[] read = FrameNormalizer.read(new MockMultipartFile("file", "frame.jpg", "image/jpeg", jpeg));
+
+        assertArrayEquals(jpeg, read);
+    }
+
+    @Test
+    void oversizedFramesAreCounted() {
+        properties.getNormalize().setMaxInputBytes(100);
+
+        assertFalse(normalizer.isOversized(100));
+        assertTrue(normalizer.isOversized(101));
+        assertEquals(1.0, meterRegistry.get("vision.frames.rejected").tag("reason", "too_large").counter().count());
+    }
+
+    private static byte[] image(int width, int height, int type, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        try {
+            graphics.setColor(Color.DARK_GRAY);
+            graphics.fillRect(0, 0, width, height);
+            graphics.setColor(Color.ORANGE);
+            graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
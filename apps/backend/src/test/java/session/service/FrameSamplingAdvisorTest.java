@@ -0,0 +1,139 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import session.domain.SessionStatus;
+import session.domain.StudySession;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameSamplingAdvisorTest {
+
+    private static final Optional<VisionAiClient.DetectedDistraction> PHONE =
+            Optional.of(new VisionAiClient.DetectedDistraction("스마트폰 사용", "VISION_AI"));
+
+    private VisionAiProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VisionAiProperties();
+        properties.getSampling().setBaseInterval(Duration.ofSeconds(1));
+        properties.getSampling().setMinInterval(Duration.ofMillis(500));
+        properties.getSampling().setMaxInterval(Duration.ofSeconds(5));
+        properties.getSampling().setCleanFramesPerStep(2);
+        properties.getSampling().setBoostDuration(Duration.ofSeconds(10));
+        properties.getSampling().setLatencyTarget(Duration.ofMillis(500));
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void backsOffWhileFramesStayClean() {
+        FrameSamplingAdvisor advisor = newAdvisor(newEndpoints());
+        assertEquals(1000, advisor.nextFrameAfterMs("session-1"));
+
+        clean(advisor, 2);
+        assertEquals(2000, advisor.nextFrameAfterMs("session-1"));
+        clean(advisor, 2);
+        assertEquals(4000, advisor.nextFrameAfterMs("session-1"));
+        clean(advisor, 20);
+        assertEquals(5000, advisor.nextFrameAfterMs("session-1"));
+    }
+
+    @Test
+    void speedsUpAfterDetectionUntilBoostExpires() {
+        FrameSamplingAdvisor advisor = newAdvisor(newEndpoints());
+        clean(advisor, 10);
+
+        advisor.recordVerdict("session-1", PHONE);
+        assertEquals(500, advisor.nextFrameAfterMs("session-1"));
+
+        clock.advance(Duration.ofSeconds(10));
+        assertEquals(1000, advisor.nextFrameAfterMs("session-1"));
+    }
+
+    @Test
+    void speedsUpWhilePausedAndForgetsOnEnd() {
+        FrameSamplingAdvisor advisor = newAdvisor(newEndpoints());
+        clean(advisor, 10);
+
+        advisor.onSessionEvent(StudySessionEvent.statusChanged(StudySession.builder().sessionId("session-1").build(), SessionStatus.PAUSED));
+        assertEquals(500, advisor.nextFrameAfterMs("session-1"));
+
+        advisor.onSessionEvent(StudySessionEvent.statusChanged(StudySession.builder().sessionId("session-1").build(), SessionStatus.ENDED));
+        assertEquals(0, advisor.trackedSessions());
+    }
+
+    @Test
+    void throttlesGloballyWhenDetectorIsSlow() {
+        FrameSamplingAdvisor advisor = newAdvisor(newEndpoints());
+
+        advisor.recordLatency(1500);
+
+        assertEquals(3000, advisor.nextFrameAfterMs("session-1"));
+        assertEquals(3000, advisor.nextFrameAfterMs("session-2"));
+    }
+
+    @Test
+    void advisesMaxIntervalWhileEveryBreakerIsOpen() {
+        properties.setBaseUrl("http://a:8000");
+        properties.getBreaker().setMinimumCalls(1);
+        VisionAiEndpoints endpoints = newEndpoints();
+        FrameSamplingAdvisor advisor = newAdvisor(endpoints);
+
+        endpoints.acquire("session-1").complete(false, 10);
+
+        assertEquals(5000, advisor.nextFrameAfterMs("session-1"));
+    }
+
+    private void clean(FrameSamplingAdvisor advisor, int frames) {
+        for (int i = 0; i < frames; i++) {
+            advisor.recordVerdict("session-1", Optional.empty());
+        }
+    }
+
+    private VisionAiEndpoints newEndpoints() {
+        return new VisionAiEndpoints(properties, meterRegistry, clock);
+    }
+
+    private FrameSamplingAdvisor newAdvisor(VisionAiEndpoints endpoints) {
+        return new FrameSamplingAdvisor(properties, endpoints, meterRegistry, clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
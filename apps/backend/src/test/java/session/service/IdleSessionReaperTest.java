@@ -0,0 +1,116 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import session.domain.SessionStatus;
+import session.domain.StudySession;
+import session.repository.StudySessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdleSessionReaperTest {
+
+    @Mock
+    private StudySessionRepository studySessionRepository;
+
+    @Mock
+    private ActiveSessionRegistry sessionRegistry;
+
+    @Mock
+    private VisionAiClient visionAiClient;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SessionReaperProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private IdleSessionReaper reaper;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SessionReaperProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        reaper = new IdleSessionReaper(studySessionRepository, sessionRegistry, visionAiClient, eventPublisher,
+                properties, meterRegistry);
+    }
+
+    @Test
+    void flushesBufferedChangesBeforeEndingIdleSessionsAtTheirLastActivity() {
+        Instant lastEventAt = Instant.parse("2024-01-10T09:30:00Z");
+        StudySession idle = StudySession.builder().sessionId("idle").status(SessionStatus.PAUSED).version(7L)
+                .lastEventAt(lastEventAt).build();
+        StudySession touched = StudySession.builder().sessionId("touched").status(SessionStatus.ACTIVE).version(3L)
+                .lastEventAt(lastEventAt).build();
+        when(studySessionRepository.streamIdleOpenSessions(any(), eq(properties.getBatchSize())))
+                .thenReturn(Stream.of(idle, touched));
+        when(studySessionRepository.endIfUnchanged(idle, lastEventAt))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("idle").status(SessionStatus.ENDED).build()));
+        when(studySessionRepository.endIfUnchanged(touched, lastEventAt)).thenReturn(Optional.empty());
+
+        reaper.reap();
+
+        InOrder order = inOrder(sessionRegistry, studySessionRepository);
+        order.verify(sessionRegistry).flushAndEvict("idle");
+        order.verify(studySessionRepository).endIfUnchanged(idle, lastEventAt);
+        verify(eventPublisher).publishEvent(argThat((StudySessionEvent event) ->
+                event.sessionId().equals("idle") && event.status() == SessionStatus.ENDED));
+        verify(eventPublisher, never()).publishEvent(argThat((StudySessionEvent event) ->
+                event.sessionId().equals("touched")));
+        verify(visionAiClient, never()).forgetSession("touched");
+        assertEquals(1.0, meterRegistry.get("session.reaper.ended").counter().count());
+    }
+
+    @Test
+    void legacySessionWithoutLastEventFallsBackToStartTime() {
+        Instant startedAt = Instant.parse("2024-01-10T08:00:00Z");
+        StudySession legacy = StudySession.builder().sessionId("legacy").status(SessionStatus.ACTIVE)
+                .startedAt(startedAt).build();
+        when(studySessionRepository.streamIdleOpenSessions(any(), anyInt())).thenReturn(Stream.of(legacy));
+        when(studySessionRepository.endIfUnchanged(legacy, startedAt)).thenReturn(Optional.of(legacy));
+
+        reaper.reap();
+
+        verify(studySessionRepository).endIfUnchanged(legacy, startedAt);
+    }
+
+    @Test
+    void analyzedFramesAdvanceLastActivityOncePerHeartbeatInterval() {
+        properties.setHeartbeatInterval(Duration.ofMinutes(1));
+        Instant first = Instant.parse("2024-01-10T09:00:00Z");
+
+        reaper.onSessionEvent(frameAnalyzed("s1", first));
+        reaper.onSessionEvent(frameAnalyzed("s1", first.plusSeconds(30)));
+        reaper.onSessionEvent(frameAnalyzed("s1", first.plusSeconds(60)));
+
+        verify(studySessionRepository).touchLastEventAt("s1", first);
+        verify(studySessionRepository).touchLastEventAt("s1", first.plusSeconds(60));
+        verify(studySessionRepository, times(2)).touchLastEventAt(eq("s1"), any());
+    }
+
+    @Test
+    void disabledReaperDoesNotQuery() {
+        properties.setEnabled(false);
+
+        reaper.reap();
+
+        verifyNoInteractions(studySessionRepository);
+    }
+
+    private static StudySessionEvent frameAnalyzed(String sessionId, Instant at) {
+        return new StudySessionEvent(StudySessionEvent.Type.FRAME_ANALYZED, sessionId, null, null, null, null, null, at);
+    }
+}
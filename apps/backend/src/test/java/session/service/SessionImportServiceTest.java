@@ -0,0 +1,169 @@
+package session.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import match.domain.Match;
+import match.repository.MatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import session.domain.*;
+import session.dto.SessionImportResultDTO;
+import session.repository.StudySessionRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionImportServiceTest {
+
+    @Mock
+    private StudySessionRepository studySessionRepository;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SessionImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new SessionImportService(studySessionRepository, matchRepository,
+                new ObjectMapper().registerModule(new JavaTimeModule()), eventPublisher);
+        lenient().when(studySessionRepository.save(any(StudySession.class))).thenAnswer(invocation -> {
+            StudySession session = invocation.getArgument(0);
+            session.setSessionId("imported-1");
+            return session;
+        });
+        lenient().when(matchRepository.findById("match-1")).thenReturn(Optional.of(Match.builder()
+                .matchId("match-1").menteeUserId("mentee-1").mentorUserId("mentor-1").build()));
+    }
+
+    @Test
+    void replaysWholeSessionInOneBatchAndEndsOnce() throws IOException {
+        StudySession header = StudySession.builder().sessionId("imported-1").build();
+        when(studySessionRepository.appendEvents(eq("imported-1"), anyList(), isNull(), isNull())).thenReturn(Optional.of(header));
+        when(studySessionRepository.finishImport(eq("imported-1"), any(), anyInt())).thenReturn(Optional.of(header));
+
+        SessionImportResultDTO result = importService.importSession("mentee-1", ndjson("""
+                {"type":"START","at":"2025-01-01T09:00:00Z","matchId":"match-1","mentorUserId":"mentor-1"}
+                {"type":"STUDY_LOG","at":"2025-01-01T09:10:00Z","content":"정리"}
+                {"type":"DISTRACTION","at":"2025-01-01T09:20:00Z","activity":"스마트폰 사용"}
+                {"type":"FEEDBACK","at":"2025-01-01T09:22:00Z","comment":"급한 연락"}
+                {"type":"RESUME","at":"2025-01-01T09:23:00Z"}
+                {"type":"QUESTION","at":"2025-01-01T09:30:00Z","question":"이건 왜 그런가요?"}
+                {"type":"END","at":"2025-01-01T10:00:00Z"}
+                """));
+
+        assertEquals(new SessionImportResultDTO("imported-1", 3, Instant.parse("2025-01-01T09:00:00Z"),
+                Instant.parse("2025-01-01T10:00:00Z")), result);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SessionEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(studySessionRepository).appendEvents(eq("imported-1"), events.capture(), isNull(), isNull());
+        assertEquals(3, events.getValue().size());
+        DistractionLog distraction = (DistractionLog) events.getValue().get(1);
+        assertEquals("급한 연락", distraction.getSelfFeedback().getComment());
+        verify(studySessionRepository).finishImport("imported-1", Instant.parse("2025-01-01T10:00:00Z"), 1);
+        verify(studySessionRepository, never()).attachSelfFeedbackToLastDistraction(any(), any());
+        verify(eventPublisher).publishEvent(argThat((StudySessionEvent event) ->
+                event.sessionId().equals("imported-1") && event.status() == SessionStatus.ENDED));
+    }
+
+    @Test
+    void headerStaysImportingUntilTheWholeBodyIsReplayed() throws IOException {
+        StudySession header = StudySession.builder().sessionId("imported-1").build();
+        when(studySessionRepository.appendEvents(eq("imported-1"), anyList(), isNull(), isNull())).thenReturn(Optional.of(header));
+        when(studySessionRepository.finishImport(eq("imported-1"), any(), anyInt())).thenReturn(Optional.of(header));
+        // 200 번째 로그(딴짓)에서 버킷 하나만큼 내려쓴 직후 재개
+        StringBuilder body = new StringBuilder("""
+                {"type":"START","at":"2025-01-01T09:00:00Z","matchId":"match-1","mentorUserId":"mentor-1"}
+                """);
+        for (int i = 0; i < SessionEventBucket.CAPACITY - 1; i++) {
+            body.append("{\"type\":\"STUDY_LOG\",\"at\":\"2025-01-01T09:10:00Z\",\"content\":\"c").append(i).append("\"}\n");
+        }
+        body.append("""
+                {"type":"DISTRACTION","at":"2025-01-01T09:20:00Z","activity":"스마트폰 사용"}
+                {"type":"RESUME","at":"2025-01-01T09:23:00Z"}
+                {"type":"END","at":"2025-01-01T10:00:00Z"}
+                """);
+
+        importService.importSession("mentee-1", ndjson(body.toString()));
+
+        verify(studySessionRepository).save(argThat(session -> session.getStatus() == SessionStatus.IMPORTING));
+        verify(studySessionRepository).appendEvents(eq("imported-1"),
+                argThat(events -> events.size() == SessionEventBucket.CAPACITY), isNull(), isNull());
+        verify(studySessionRepository).finishImport("imported-1", Instant.parse("2025-01-01T10:00:00Z"), 1);
+        verify(studySessionRepository, never()).appendEvents(any(), any(), any(), any(), anyInt(), anyInt());
+        verify(studySessionRepository, never()).endUnlessEnded(any(), any());
+    }
+
+    @Test
+    void outOfOrderLineIsRejectedAndPartialSessionDiscarded() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> importService.importSession("mentee-1", ndjson("""
+                        {"type":"START","at":"2025-01-01T09:00:00Z","matchId":"match-1","mentorUserId":"mentor-1"}
+                        {"type":"STUDY_LOG","at":"2025-01-01T09:10:00Z","content":"정리"}
+                        {"type":"QUESTION","at":"2025-01-01T09:05:00Z","question":"시간이 거꾸로"}
+                        """)));
+
+        assertTrue(ex.getMessage().startsWith("3번째 줄"), ex.getMessage());
+        verify(studySessionRepository).deleteWithEvents("imported-1");
+        verify(studySessionRepository, never()).finishImport(any(), any(), anyInt());
+    }
+
+    @Test
+    void linesAfterEndAreRejectedBeforeEnding() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importSession("mentee-1", ndjson("""
+                {"type":"START","at":"2025-01-01T09:00:00Z","matchId":"match-1","mentorUserId":"mentor-1"}
+                {"type":"END","at":"2025-01-01T10:00:00Z"}
+                {"type":"STUDY_LOG","at":"2025-01-01T10:10:00Z","content":"늦은 기록"}
+                """)));
+
+        verify(studySessionRepository, never()).finishImport(any(), any(), anyInt());
+        verify(studySessionRepository).deleteWithEvents("imported-1");
+    }
+
+    @Test
+    void bodyMustStartWithStart() {
+        assertThrows(IllegalArgumentException.class, () -> importService.importSession("mentee-1", ndjson("""
+                {"type":"STUDY_LOG","at":"2025-01-01T09:10:00Z","content":"정리"}
+                """)));
+
+        verify(studySessionRepository, never()).save(any());
+        verify(studySessionRepository, never()).deleteWithEvents(any());
+    }
+
+    @Test
+    void importIntoAMatchTheCallerIsNotMenteeOfIsDenied() {
+        assertThrows(AccessDeniedException.class, () -> importService.importSession("stranger", ndjson("""
+                {"type":"START","at":"2025-01-01T09:00:00Z","matchId":"match-1","mentorUserId":"mentor-1"}
+                {"type":"END","at":"2025-01-01T10:00:00Z"}
+                """)));
+        assertThrows(AccessDeniedException.class, () -> importService.importSession("mentee-1", ndjson("""
+                {"type":"START","at":"2025-01-01T09:00:00Z","matchId":"match-1","mentorUserId":"someone-else"}
+                {"type":"END","at":"2025-01-01T10:00:00Z"}
+                """)));
+
+        verify(studySessionRepository, never()).save(any());
+    }
+
+    private static InputStream ndjson(String lines) {
+        return new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8));
+    }
+}
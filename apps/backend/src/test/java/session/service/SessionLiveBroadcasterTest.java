@@ -0,0 +1,218 @@
+package session.service;
+
+import common.dto.ApiResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import session.domain.SessionStatus;
+import session.domain.StudyLog;
+import session.domain.StudySession;
+import session.dto.SessionLiveMessageDTO;
+import session.dto.SessionTimelineItemDTO;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionLiveBroadcasterTest {
+
+    private static final StudySession SESSION = StudySession.builder()
+            .sessionId("session-1")
+            .matchId("match-1")
+            .status(SessionStatus.ACTIVE)
+            .build();
+
+    private SessionLiveProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private SessionLiveBroadcaster broadcaster;
+    private final List<RecordingEmitter> emitters = new CopyOnWriteArrayList<>();
+    private volatile CountDownLatch sendGate; // null 이면 바로 전송
+
+    @BeforeEach
+    void setUp() {
+        properties = new SessionLiveProperties();
+        properties.setBufferSize(2);
+        meterRegistry = new SimpleMeterRegistry();
+        broadcaster = new SessionLiveBroadcaster(properties, meterRegistry) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(sendGate);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (sendGate != null) {
+            sendGate.countDown();
+        }
+        broadcaster.closeAll();
+    }
+
+    @Test
+    void pushesStatusAndLogEventsOnlyToSubscribersOfTheMatch() throws Exception {
+        broadcaster.subscribe("match-1").orElseThrow();
+        broadcaster.subscribe("match-2").orElseThrow();
+        RecordingEmitter watching = emitters.get(0);
+        RecordingEmitter other = emitters.get(1);
+
+        broadcaster.onSessionEvent(StudySessionEvent.frameAnalyzed("session-1", null));
+        broadcaster.onSessionEvent(StudySessionEvent.logged(SESSION, StudyLog.builder().content("1장 정리").build()));
+        broadcaster.onSessionEvent(StudySessionEvent.statusChanged(SESSION, SessionStatus.ENDED));
+
+        List<SessionLiveMessageDTO> received = watching.awaitMessages(2);
+        assertEquals(SessionTimelineItemDTO.Type.STUDY_LOG, received.get(0).logType());
+        assertEquals("1장 정리", ((StudyLog) received.get(0).log()).getContent());
+        assertEquals(StudySessionEvent.Type.STATUS_CHANGED, received.get(1).type());
+        assertEquals(SessionStatus.ENDED, received.get(1).status());
+        assertTrue(other.messages().isEmpty());
+    }
+
+    @Test
+    void slowSubscriberIsEvictedWhenItsBufferOverflows() throws Exception {
+        sendGate = new CountDownLatch(1);
+        broadcaster.subscribe("match-1").orElseThrow();
+        RecordingEmitter slow = emitters.get(0);
+
+        broadcaster.onSessionEvent(StudySessionEvent.statusChanged(SESSION, SessionStatus.PAUSED));
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS)); // 첫 이벤트 전송에서 막힘
+        for (int i = 0; i < properties.getBufferSize() + 1; i++) {
+            broadcaster.onSessionEvent(StudySessionEvent.statusChanged(SESSION, SessionStatus.ACTIVE));
+        }
+
+        assertEquals(0, broadcaster.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("session.live.evicted").counter().count());
+        sendGate.countDown();
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fewSenderThreadsServeManySubscribersInTurn() throws Exception {
+        broadcaster.closeAll();
+        properties.setSenderThreads(1);
+        properties.setBufferSize(4);
+        broadcaster = new SessionLiveBroadcaster(properties, meterRegistry) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(null);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            broadcaster.subscribe("match-1").orElseThrow();
+        }
+
+        for (int i = 0; i < 3; i++) {
+            broadcaster.onSessionEvent(StudySessionEvent.logged(SESSION, StudyLog.builder().content("log " + i).build()));
+        }
+
+        for (RecordingEmitter emitter : emitters) {
+            assertEquals(List.of("log 0", "log 1", "log 2"), emitter.awaitMessages(3).stream()
+                    .map(message -> ((StudyLog) message.log()).getContent()).toList());
+        }
+        assertEquals(20, broadcaster.subscriberCount());
+    }
+
+    @Test
+    void stalledSendIsCutOffSoHealthySubscribersStillReceive() throws Exception {
+        broadcaster.closeAll();
+        properties.setSenderThreads(1);
+        properties.setSendTimeLimit(Duration.ofMillis(100));
+        broadcaster = new SessionLiveBroadcaster(properties, meterRegistry) {
+            @Override
+            SseEmitter newEmitter(long timeoutMillis) {
+                RecordingEmitter emitter = new RecordingEmitter(sendGate);
+                emitters.add(emitter);
+                return emitter;
+            }
+        };
+        sendGate = new CountDownLatch(1); // 열지 않음: 응답하지 않는 브라우저
+        broadcaster.subscribe("match-1").orElseThrow();
+        sendGate = null;
+        broadcaster.subscribe("match-2").orElseThrow();
+        RecordingEmitter stalled = emitters.get(0);
+        RecordingEmitter healthy = emitters.get(1);
+        StudySession other = StudySession.builder().sessionId("session-2").matchId("match-2").status(SessionStatus.ACTIVE).build();
+
+        broadcaster.onSessionEvent(StudySessionEvent.statusChanged(SESSION, SessionStatus.PAUSED));
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS)); // 하나뿐인 전송 스레드가 막힘
+        broadcaster.onSessionEvent(StudySessionEvent.statusChanged(other, SessionStatus.PAUSED));
+        Thread.sleep(150);
+        assertTrue(healthy.messages().isEmpty()); // 전송 스레드를 돌려받기 전에는 못 받음
+        broadcaster.evictStalledSenders();
+
+        assertEquals(SessionStatus.PAUSED, healthy.awaitMessages(1).get(0).status());
+        assertTrue(stalled.messages().isEmpty());
+        assertEquals(1, broadcaster.subscriberCount());
+        assertEquals(1.0, meterRegistry.get("session.live.evicted").counter().count());
+    }
+
+    @Test
+    void rejectsSubscribersOverTheNodeLimit() {
+        properties.setMaxSubscribers(1);
+
+        assertTrue(broadcaster.subscribe("match-1").isPresent());
+        assertTrue(broadcaster.subscribe("match-2").isEmpty());
+        assertEquals(1, broadcaster.subscriberCount());
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final CountDownLatch gate;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final List<SessionLiveMessageDTO> received = new CopyOnWriteArrayList<>();
+
+        private RecordingEmitter(CountDownLatch gate) {
+            this.gate = gate;
+        }
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+            sending.countDown();
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // 서블릿 컨테이너의 블로킹 쓰기처럼 인터럽트되면 IOException 으로 끝남
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("send interrupted");
+                }
+            }
+            for (DataWithMediaType item : items) {
+                if (item.getData() instanceof ApiResponse<?> response) {
+                    received.add((SessionLiveMessageDTO) response.getData());
+                }
+            }
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed.countDown();
+        }
+
+        private List<SessionLiveMessageDTO> messages() {
+            return received;
+        }
+
+        private List<SessionLiveMessageDTO> awaitMessages(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (received.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(count, received.size());
+            return received;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package session.service;
+
+import board.domain.Board;
+import board.dto.BoardEntryDraft;
+import board.repository.BoardRepository;
+import board.service.BoardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import report.domain.MatchStats;
+import report.service.ReportService;
+import session.domain.*;
+import session.repository.StudySessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionOutboxDispatcherTest {
+
+    @Mock
+    private StudySessionRepository studySessionRepository;
+
+    @Mock
+    private ReportService reportService;
+
+    @Mock
+    private BoardService boardService;
+
+    @Mock
+    private BoardRepository boardRepository;
+
+    private SessionOutboxProperties properties;
+    private SessionOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SessionOutboxProperties();
+        dispatcher = new SessionOutboxDispatcher(studySessionRepository, reportService, boardService,
+                boardRepository, properties);
+        lenient().when(studySessionRepository.loadLogs(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void claimedSessionGetsReportAndBoardEntriesThenCompletes() {
+        StudySession session = claimedSession(1);
+        when(studySessionRepository.claimOutbox(any(Instant.class), any(Duration.class)))
+                .thenReturn(Optional.of(session), Optional.empty());
+        when(reportService.createReportFromSession(session)).thenReturn(MatchStats.builder().matchId("match-1").sessionCount(3).build());
+        Board board = Board.builder()
+                .id("board-1")
+                .matchId("match-1")
+                .memberUserIds(List.of("mentee-1", "mentor-1"))
+                .entries(new ArrayList<>())
+                .build();
+        when(boardRepository.findByMatchId("match-1")).thenReturn(Optional.of(board));
+
+        dispatcher.dispatch();
+
+        verify(reportService).createReportFromSession(session);
+        ArgumentCaptor<String> titleCaptor = ArgumentCaptor.forClass(String.class);
+        verify(boardService).addEntriesToBoard(eq("board-1"), eq("mentee-1"), titleCaptor.capture(),
+                eq(List.of(new BoardEntryDraft("session-1-q0", "다음에는 어떻게 개선하나요?"))));
+        assertTrue(titleCaptor.getValue().startsWith("["));
+        assertTrue(titleCaptor.getValue().contains("3번째 학습]"));
+        verify(studySessionRepository).completeOutbox(eq(session), any(Instant.class));
+        verify(studySessionRepository, never()).releaseOutbox(any(), any(), any());
+    }
+
+    @Test
+    void failedAttemptIsRescheduledWithBackoff() {
+        StudySession session = claimedSession(3);
+        doThrow(new IllegalStateException("AI 요약 실패")).when(reportService).createReportFromSession(session);
+
+        Instant before = Instant.now();
+        dispatcher.process(session);
+
+        ArgumentCaptor<Instant> nextAttempt = ArgumentCaptor.forClass(Instant.class);
+        verify(studySessionRepository).releaseOutbox(eq(session), nextAttempt.capture(), eq("AI 요약 실패"));
+        // 5초 * 2^(3-1)
+        assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(20).minusMillis(1)));
+        verify(studySessionRepository, never()).completeOutbox(any(), any());
+    }
+
+    @Test
+    void lastAttemptFailureLeavesOutboxFailed() {
+        StudySession session = claimedSession(properties.getMaxAttempts());
+        doThrow(new IllegalStateException("AI 요약 실패")).when(reportService).createReportFromSession(session);
+
+        dispatcher.process(session);
+
+        verify(studySessionRepository).releaseOutbox(session, null, "AI 요약 실패");
+    }
+
+    @Test
+    void disabledDispatcherDoesNotClaim() {
+        properties.setEnabled(false);
+
+        dispatcher.dispatch();
+
+        verifyNoInteractions(studySessionRepository);
+    }
+
+    private StudySession claimedSession(int attempts) {
+        SessionOutbox outbox = SessionOutbox.pending(Instant.now());
+        outbox.setStatus(OutboxStatus.PROCESSING);
+        outbox.setAttempts(attempts);
+        outbox.setLockedUntil(Instant.now().plusSeconds(60));
+        return StudySession.builder()
+                .sessionId("session-1")
+                .matchId("match-1")
+                .menteeUserId("mentee-1")
+                .mentorUserId("mentor-1")
+                .status(SessionStatus.ENDED)
+                .startedAt(Instant.parse("2024-01-10T08:00:00Z"))
+                .endedAt(Instant.parse("2024-01-10T09:00:00Z"))
+                .outbox(outbox)
+                .questionLogs(new ArrayList<>(List.of(
+                        QuestionLog.builder()
+                                .question("다음에는 어떻게 개선하나요?")
+                                .createdAt(Instant.now())
+                                .build()
+                )))
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package session.service;
+
+import board.repository.BoardRepository;
+import board.service.BoardService;
+import common.config.SchedulingConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskSchedulingAutoConfiguration;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import report.domain.MatchStats;
+import report.service.ReportService;
+import session.domain.SessionOutbox;
+import session.domain.SessionStatus;
+import session.domain.StudyLog;
+import session.domain.StudySession;
+import session.repository.StudySessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * application.yml 의 스케줄러 설정으로, 후처리 디스패처가 막혀 있어도 다른 @Scheduled 작업이 도는지 확인합니다.
+ */
+class SessionSchedulingTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(new ConfigDataApplicationContextInitializer())
+            .withConfiguration(AutoConfigurations.of(TaskSchedulingAutoConfiguration.class))
+            .withUserConfiguration(SchedulingConfig.class)
+            .withPropertyValues("session.outbox.poll-interval=50ms", "session.registry.flush-interval=50ms");
+
+    @Test
+    void registryFlushKeepsRunningWhileOutboxDispatchIsBlocked() throws Exception {
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        StudySessionRepository outboxRepo = mock(StudySessionRepository.class);
+        StudySession ended = StudySession.builder().sessionId("ended").matchId("match-1")
+                .status(SessionStatus.ENDED).outbox(SessionOutbox.pending(Instant.now())).build();
+        when(outboxRepo.claimOutbox(any(), any())).thenReturn(Optional.of(ended), Optional.empty());
+        when(outboxRepo.loadLogs(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        ReportService reportService = mock(ReportService.class);
+        when(reportService.createReportFromSession(any())).thenAnswer(invocation -> {
+            dispatching.countDown();
+            release.await(10, TimeUnit.SECONDS); // 응답하지 않는 요약 서버
+            return MatchStats.builder().matchId("match-1").sessionCount(1).build();
+        });
+
+        StudySessionRepository registryRepo = mock(StudySessionRepository.class);
+        when(registryRepo.findById("active")).thenReturn(Optional.of(StudySession.builder().sessionId("active")
+                .status(SessionStatus.ACTIVE).eventCount(0L).version(0L).build()));
+        when(registryRepo.loadLogs(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(registryRepo.appendEvents(eq("active"), anyList(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("active").eventCount(1L).version(1L).build()));
+        SessionRegistryProperties registryProperties = new SessionRegistryProperties();
+        registryProperties.setEnabled(true);
+
+        contextRunner
+                .withBean(SessionOutboxDispatcher.class, () -> new SessionOutboxDispatcher(outboxRepo, reportService,
+                        mock(BoardService.class), mock(BoardRepository.class), new SessionOutboxProperties()))
+                .withBean(ActiveSessionRegistry.class, () -> new ActiveSessionRegistry(registryRepo,
+                        registryProperties, new SimpleMeterRegistry()))
+                .run(context -> {
+                    try {
+                        assertTrue(dispatching.await(5, TimeUnit.SECONDS));
+                        context.getBean(ActiveSessionRegistry.class)
+                                .append("active", StudyLog.builder().content("1장 정리").timestamp(Instant.now()).build(), null);
+
+                        verify(registryRepo, timeout(5_000))
+                                .appendEvents(eq("active"), anyList(), any(), any(), anyInt(), anyInt());
+                        assertEquals(1, release.getCount()); // 디스패처는 여전히 막혀 있음
+                    } finally {
+                        release.countDown();
+                    }
+                });
+    }
+}
@@ -0,0 +1,123 @@
+package session.service;
+
+import match.domain.Match;
+import match.repository.MatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+import session.domain.*;
+import session.dto.SessionTimelineDTO;
+import session.dto.SessionTimelineItemDTO;
+import session.repository.StudySessionRepository;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionTimelineServiceTest {
+
+    @Mock
+    private StudySessionRepository studySessionRepository;
+
+    @Mock
+    private MatchRepository matchRepository;
+
+    @InjectMocks
+    private SessionTimelineService timelineService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(matchRepository.findById("match-1")).thenReturn(Optional.of(Match.builder()
+                .matchId("match-1").mentorUserId("mentor").menteeUserId("mentee").build()));
+    }
+
+    @Test
+    void bucketedSessionReadsOneExtraEventToFindNextCursor() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(StudySession.builder()
+                .sessionId("session-1")
+                .matchId("match-1")
+                .status(SessionStatus.PAUSED)
+                .eventCount(10L)
+                .build()));
+        when(studySessionRepository.findEventsAfter(eq("session-1"), argThat(types -> types.size() == 1
+                && types.contains(DistractionLog.class)), eq(4L), eq(3)))
+                .thenReturn(List.of(distraction(5), distraction(7), distraction(9)));
+
+        SessionTimelineDTO page = timelineService.getTimeline("session-1", "mentor",
+                List.of(SessionTimelineItemDTO.Type.DISTRACTION), 4L, 2).orElseThrow();
+
+        assertEquals(2, page.items().size());
+        assertEquals(5L, page.items().get(0).seq());
+        assertEquals("휴대폰 사용", page.items().get(0).distraction().activity());
+        assertTrue(page.hasMore());
+        assertEquals(7L, page.nextAfterSeq());
+    }
+
+    @Test
+    void legacySessionIsMergedByTimeAndPagedByPosition() {
+        Instant start = Instant.parse("2024-01-10T08:00:00Z");
+        StudySession legacy = StudySession.builder()
+                .sessionId("legacy")
+                .matchId("match-1")
+                .status(SessionStatus.ENDED)
+                .studyLogs(new ArrayList<>(List.of(
+                        StudyLog.builder().content("첫 번째").timestamp(start).build(),
+                        StudyLog.builder().content("세 번째").timestamp(start.plusSeconds(20)).build())))
+                .questionLogs(new ArrayList<>(List.of(
+                        QuestionLog.builder().question("두 번째").createdAt(start.plusSeconds(10)).build())))
+                .build();
+        when(studySessionRepository.findById("legacy")).thenReturn(Optional.of(legacy));
+
+        SessionTimelineDTO first = timelineService.getTimeline("legacy", "mentee", null, null, 2).orElseThrow();
+        SessionTimelineDTO rest = timelineService.getTimeline("legacy", "mentee", null, first.nextAfterSeq(), 2).orElseThrow();
+
+        assertEquals(List.of(SessionTimelineItemDTO.Type.STUDY_LOG, SessionTimelineItemDTO.Type.QUESTION),
+                first.items().stream().map(SessionTimelineItemDTO::type).toList());
+        assertEquals(1L, first.nextAfterSeq());
+        assertEquals("세 번째", rest.items().get(0).studyLog().content());
+        assertFalse(rest.hasMore());
+        assertNull(rest.nextAfterSeq());
+        verify(studySessionRepository, never()).findEventsAfter(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    void missingSessionReturnsEmpty() {
+        when(studySessionRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertTrue(timelineService.getTimeline("missing", "mentor", null, null, null).isEmpty());
+    }
+
+    @Test
+    void userOutsideTheSessionMatchIsDenied() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(StudySession.builder()
+                .sessionId("session-1")
+                .matchId("match-1")
+                .status(SessionStatus.ACTIVE)
+                .eventCount(3L)
+                .build()));
+
+        assertThrows(AccessDeniedException.class,
+                () -> timelineService.getTimeline("session-1", "stranger", null, null, null));
+        verify(studySessionRepository, never()).findEventsAfter(any(), any(), anyLong(), anyInt());
+    }
+
+    private static DistractionLog distraction(long seq) {
+        DistractionLog log = DistractionLog.builder()
+                .activity("휴대폰 사용")
+                .detectionType("VISION_AI")
+                .detectedAt(Instant.now())
+                .build();
+        log.setSeq(seq);
+        return log;
+    }
+}
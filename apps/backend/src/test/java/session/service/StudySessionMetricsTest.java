@@ -0,0 +1,61 @@
+package session.service;
+
+import org.junit.jupiter.api.Test;
+import session.domain.DistractionLog;
+import session.domain.SelfFeedback;
+import session.domain.StudySession;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StudySessionMetricsTest {
+
+    private static final Instant START = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Test
+    void usesRunningCounterWithoutScanningLogs() {
+        StudySession session = StudySession.builder()
+                .startedAt(START)
+                .endedAt(START.plusSeconds(3600))
+                .distractionMillis(10 * 60_000L)
+                .distractionLogs(new ArrayList<>()) // 로그가 비어 있어도 카운터를 씀
+                .build();
+
+        assertEquals(60.0, StudySessionMetrics.calculateTotalMinutes(session), 1e-9);
+        assertEquals(10.0, StudySessionMetrics.calculateDistractionMinutes(session), 1e-9);
+        assertEquals(50.0, StudySessionMetrics.calculateNetMinutes(session), 1e-9);
+    }
+
+    @Test
+    void fallsBackToLogsForSessionsWithoutCounter() {
+        DistractionLog answered = DistractionLog.builder()
+                .detectedAt(START.plusSeconds(60))
+                .selfFeedback(SelfFeedback.builder().comment("급한 연락").createdAt(START.plusSeconds(360)).build())
+                .build();
+        DistractionLog unanswered = DistractionLog.builder().detectedAt(START.plusSeconds(600)).build();
+        StudySession session = StudySession.builder()
+                .startedAt(START)
+                .endedAt(START.plusSeconds(1800))
+                .distractionLogs(new ArrayList<>(List.of(answered, unanswered)))
+                .build();
+
+        assertFalse(session.hasRunningMetrics());
+        assertEquals(5.0, StudySessionMetrics.calculateDistractionMinutes(session), 1e-9);
+        assertEquals(25.0, StudySessionMetrics.calculateNetMinutes(session), 1e-9);
+    }
+
+    @Test
+    void nonPositiveDurationsCountAsZero() {
+        StudySession session = StudySession.builder()
+                .startedAt(START)
+                .endedAt(START.minusSeconds(1))
+                .distractionMillis(0L)
+                .build();
+
+        assertEquals(0.0, StudySessionMetrics.calculateTotalMinutes(session));
+        assertEquals(0.0, StudySessionMetrics.calculateNetMinutes(session));
+    }
+}
@@ -1,18 +1,16 @@
 package session.service;
 
-import board.domain.Board;
-import board.repository.BoardRepository;
-import board.service.BoardService;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import report.domain.Report;
-import report.repository.ReportRepository;
-import report.service.ReportService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import session.domain.*;
+import session.dto.SessionAckDTO;
 import session.dto.StudySessionDTO;
 import session.repository.StudySessionRepository;
 
@@ -32,26 +30,26 @@ class StudySessionServiceTest {
     private StudySessionRepository studySessionRepository;
 
     @Mock
-    private ReportService reportService;
-
-    @Mock
-    private BoardService boardService;
-
-    @Mock
-    private BoardRepository boardRepository;
+    private VisionAiClient visionAiClient;
 
     @Mock
-    private ReportRepository reportRepository;
+    private ApplicationEventPublisher eventPublisher;
 
     @Mock
-    private VisionAiClient visionAiClient;
+    private ActiveSessionRegistry sessionRegistry;
 
     @InjectMocks
     private StudySessionService studySessionService;
 
+    @BeforeEach
+    void setUp() {
+        // 버킷 로그 적재는 저장소 단위에서 검증하므로 여기서는 받은 세션을 그대로 돌려줌
+        lenient().when(studySessionRepository.loadLogs(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
     @Test
     void startSessionPersistsActiveSession() {
-        when(studySessionRepository.save(any(StudySession.class))).thenAnswer(invocation -> {
+        when(studySessionRepository.startOrGetOpen(any(StudySession.class))).thenAnswer(invocation -> {
             StudySession toSave = invocation.getArgument(0);
             toSave.setSessionId("generated-session");
             return toSave;
@@ -65,142 +63,332 @@ class StudySessionServiceTest {
         assertEquals(SessionStatus.ACTIVE, dto.status());
         assertNotNull(dto.startedAt());
         assertEquals("generated-session", dto.sessionId());
-        verify(studySessionRepository).save(any(StudySession.class));
+
+        ArgumentCaptor<StudySession> sessionCaptor = ArgumentCaptor.forClass(StudySession.class);
+        verify(studySessionRepository).startOrGetOpen(sessionCaptor.capture());
+        assertTrue(sessionCaptor.getValue().hasEventBuckets());
+        assertEquals(0L, sessionCaptor.getValue().getEventCount());
+        verify(studySessionRepository, never()).save(any(StudySession.class));
     }
 
     @Test
-    void addDistractionAppendsLogAndPausesSession() {
-        StudySession session = StudySession.builder()
+    void startSessionReturnsBufferedCopyOfOpenSession() {
+        StudySession open = StudySession.builder()
+                .sessionId("open-session")
+                .matchId("match-123")
+                .status(SessionStatus.PAUSED)
+                .eventCount(1L)
+                .build();
+        StudySession buffered = StudySession.builder()
+                .sessionId("open-session")
+                .matchId("match-123")
+                .status(SessionStatus.PAUSED)
+                .eventCount(2L)
+                .studyLogs(new ArrayList<>(List.of(StudyLog.builder().content("아직 버퍼에 있음").build())))
+                .build();
+        when(studySessionRepository.startOrGetOpen(any(StudySession.class))).thenReturn(open);
+        when(sessionRegistry.find("open-session")).thenReturn(Optional.of(buffered));
+
+        StudySessionDTO dto = studySessionService.startSession("match-123", "mentee-1", "mentor-1");
+
+        assertEquals("open-session", dto.sessionId());
+        assertEquals(SessionStatus.PAUSED, dto.status());
+        assertEquals(1, dto.studyLogs().size());
+        verify(studySessionRepository, never()).loadLogs(any());
+    }
+
+    @Test
+    void addDistractionAppendsLogAtomicallyAndPausesSession() {
+        StudySession paused = StudySession.builder()
                 .sessionId("session-1")
-                .status(SessionStatus.ACTIVE)
-                .distractionLogs(new ArrayList<>())
+                .status(SessionStatus.PAUSED)
                 .build();
 
-        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(session));
-        when(studySessionRepository.save(any(StudySession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(studySessionRepository.appendDistraction(eq("session-1"), any(DistractionLog.class)))
+                .thenReturn(Optional.of(paused));
 
-        StudySession result = studySessionService.addDistraction("session-1", "휴대폰 사용", "VISION_AI");
+        StudySession result = studySessionService.addDistraction("session-1", "휴대폰 사용", "VISION_AI", null);
 
-        assertEquals(1, result.getDistractionLogs().size());
-        session.domain.DistractionLog log = result.getDistractionLogs().get(0);
+        ArgumentCaptor<DistractionLog> logCaptor = ArgumentCaptor.forClass(DistractionLog.class);
+        verify(studySessionRepository).appendDistraction(eq("session-1"), logCaptor.capture());
+        DistractionLog log = logCaptor.getValue();
         assertEquals("휴대폰 사용", log.getActivity());
         assertEquals("VISION_AI", log.getDetectionType());
         assertNotNull(log.getDetectedAt());
         assertEquals(SessionStatus.PAUSED, result.getStatus());
-        verify(studySessionRepository).save(session);
+        verify(studySessionRepository, never()).save(any(StudySession.class));
+    }
+
+    @Test
+    void addDistractionRejectsEndedSession() {
+        when(studySessionRepository.appendDistraction(eq("session-1"), any(DistractionLog.class)))
+                .thenReturn(Optional.empty());
+        when(studySessionRepository.existsById("session-1")).thenReturn(true);
+
+        assertThrows(IllegalStateException.class,
+                () -> studySessionService.addDistraction("session-1", "휴대폰 사용", "VISION_AI", null));
+    }
+
+    @Test
+    void analyzeFrameRecordsDetectedDistractionAndPublishesEvents() {
+        when(visionAiClient.detectDistraction(eq("session-1"), any(byte[].class), eq("frame.jpg")))
+                .thenReturn(Optional.of(new VisionAiClient.DetectedDistraction("자리 이탈", "VISION_AI")));
+        when(studySessionRepository.appendDistraction(eq("session-1"), any(DistractionLog.class)))
+                .thenAnswer(invocation -> Optional.of(StudySession.builder().sessionId("session-1")
+                        .status(SessionStatus.PAUSED)
+                        .lastTransitionAt(invocation.<DistractionLog>getArgument(1).getDetectedAt())
+                        .build()));
+
+        Optional<VisionAiClient.DetectedDistraction> verdict =
+                studySessionService.analyzeFrame("session-1", new byte[]{1}, "frame.jpg");
+
+        assertEquals("자리 이탈", verdict.orElseThrow().activity());
+        ArgumentCaptor<StudySessionEvent> eventCaptor = ArgumentCaptor.forClass(StudySessionEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(eventCaptor.capture());
+        List<StudySessionEvent> events = eventCaptor.getAllValues();
+        assertEquals(StudySessionEvent.Type.LOGGED, events.get(0).type());
+        assertEquals("자리 이탈", ((DistractionLog) events.get(0).log()).getActivity());
+        assertEquals(SessionStatus.PAUSED, events.get(1).status());
+        assertEquals(StudySessionEvent.Type.FRAME_ANALYZED, events.get(2).type());
+        assertTrue(events.get(2).detected());
+    }
+
+    @Test
+    void distractionOnAlreadyPausedSessionDoesNotRepublishStatusChange() {
+        when(visionAiClient.detectDistraction(eq("session-1"), any(byte[].class), eq("frame.jpg")))
+                .thenReturn(Optional.of(new VisionAiClient.DetectedDistraction("자리 이탈", "VISION_AI")));
+        when(studySessionRepository.appendDistraction(eq("session-1"), any(DistractionLog.class)))
+                .thenReturn(Optional.of(StudySession.builder().sessionId("session-1").status(SessionStatus.PAUSED)
+                        .lastTransitionAt(Instant.parse("2024-01-10T09:00:00Z")).build()));
+
+        studySessionService.analyzeFrame("session-1", new byte[]{1}, "frame.jpg");
+
+        verify(eventPublisher, never()).publishEvent(argThat((StudySessionEvent event) ->
+                event.type() == StudySessionEvent.Type.STATUS_CHANGED));
+        verify(eventPublisher, times(2)).publishEvent(any(StudySessionEvent.class));
     }
 
     @Test
     void addSelfFeedbackAttachesToLatestDistraction() {
-        session.domain.DistractionLog log = session.domain.DistractionLog.builder()
+        SelfFeedback feedback = SelfFeedback.builder()
+                .comment("급한 전화였습니다.")
+                .createdAt(Instant.now())
+                .build();
+
+        DistractionLog log = DistractionLog.builder()
                 .activity("휴대폰 사용")
                 .detectionType("VISION_AI")
                 .detectedAt(Instant.now())
+                .selfFeedback(feedback)
                 .build();
-
         StudySession session = StudySession.builder()
                 .sessionId("session-1")
                 .distractionLogs(new ArrayList<>(List.of(log)))
                 .build();
 
-        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(session));
-        when(studySessionRepository.save(any(StudySession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(studySessionRepository.attachSelfFeedbackToLastDistraction("session-1", feedback))
+                .thenReturn(Optional.of(session));
 
+        StudySession updated = studySessionService.addSelfFeedback("session-1", feedback);
+
+        assertEquals(feedback, updated.getDistractionLogs().get(updated.getDistractionLogs().size() - 1).getSelfFeedback());
+        verify(studySessionRepository, never()).save(any(StudySession.class));
+    }
+
+    @Test
+    void addSelfFeedbackWithoutDistractionIsRejected() {
         SelfFeedback feedback = SelfFeedback.builder()
                 .comment("급한 전화였습니다.")
                 .createdAt(Instant.now())
                 .build();
 
-        StudySession updated = studySessionService.addSelfFeedback("session-1", feedback);
+        when(studySessionRepository.attachSelfFeedbackToLastDistraction("session-1", feedback))
+                .thenReturn(Optional.empty());
+        when(studySessionRepository.countDistractionLogs("session-1")).thenReturn(0);
 
-        assertEquals(feedback, updated.getDistractionLogs().get(updated.getDistractionLogs().size() - 1).getSelfFeedback());
-        verify(studySessionRepository).save(session);
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> studySessionService.addSelfFeedback("session-1", feedback));
+        assertEquals("피드백을 추가할 딴짓 기록이 없습니다.", ex.getMessage());
     }
 
     @Test
     void addStudyLogPersistsContentWithTimestamp() {
-        StudySession session = StudySession.builder()
-                .sessionId("session-1")
-                .studyLogs(new ArrayList<>())
-                .build();
+        when(studySessionRepository.appendStudyLog(eq("session-1"), any(StudyLog.class)))
+                .thenAnswer(invocation -> Optional.of(StudySession.builder()
+                        .sessionId("session-1")
+                        .studyLogs(new ArrayList<>(List.of(invocation.<StudyLog>getArgument(1))))
+                        .build()));
 
-        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(session));
-        when(studySessionRepository.save(any(StudySession.class))).thenAnswer(invocation -> invocation.getArgument(0));
-
-        StudySession updated = studySessionService.addStudyLog("session-1", "정리한 내용");
+        StudySession updated = studySessionService.addStudyLog("session-1", "정리한 내용", null);
 
         assertEquals(1, updated.getStudyLogs().size());
         StudyLog log = updated.getStudyLogs().get(0);
         assertEquals("정리한 내용", log.getContent());
         assertNotNull(log.getTimestamp());
-        verify(studySessionRepository).save(session);
+        verify(studySessionRepository, never()).findById(anyString());
     }
 
     @Test
-    void addQuestionLogPersistsQuestion() {
-        StudySession session = StudySession.builder()
+    void addStudyLogIsBufferedWhenRegistryHoldsSession() {
+        StudySession buffered = StudySession.builder().sessionId("session-1").status(SessionStatus.ACTIVE).build();
+        when(sessionRegistry.append(eq("session-1"), any(StudyLog.class), isNull())).thenReturn(Optional.of(buffered));
+
+        StudySession result = studySessionService.addStudyLog("session-1", "버퍼링된 학습", null);
+
+        assertSame(buffered, result);
+        verify(studySessionRepository, never()).appendStudyLog(any(), any());
+    }
+
+    @Test
+    void addStudyLogAckReturnsCountersAndAppendedLogWithoutLoadingLogs() {
+        when(studySessionRepository.appendStudyLog(eq("session-1"), any(StudyLog.class)))
+                .thenReturn(Optional.of(StudySession.builder()
+                        .sessionId("session-1")
+                        .status(SessionStatus.ACTIVE)
+                        .eventCount(4L)
+                        .version(5L)
+                        .studyLogCount(3)
+                        .distractionCount(1)
+                        .questionCount(0)
+                        .pauseCount(1)
+                        .build()));
+
+        SessionAckDTO ack = studySessionService.addStudyLogAck("session-1", "정리한 내용", null);
+
+        assertEquals(SessionStatus.ACTIVE, ack.status());
+        assertEquals(5L, ack.version());
+        assertEquals(3, ack.studyLogCount());
+        assertEquals("정리한 내용", assertInstanceOf(StudyLog.class, ack.appended()).getContent());
+        verify(studySessionRepository, never()).loadLogs(any());
+    }
+
+    @Test
+    void retriedStudyLogReturnsCurrentSessionWithoutWriting() {
+        StudySession current = StudySession.builder()
                 .sessionId("session-1")
-                .questionLogs(new ArrayList<>())
+                .status(SessionStatus.ACTIVE)
+                .clientSeqHwm(7L)
                 .build();
+        when(studySessionRepository.appendStudyLog(eq("session-1"), argThat(log -> log.getClientSeq() == 7L)))
+                .thenReturn(Optional.empty());
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(current));
 
-        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(session));
-        when(studySessionRepository.save(any(StudySession.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        StudySession result = studySessionService.addStudyLog("session-1", "재전송", 7L);
+
+        assertSame(current, result);
+        verify(studySessionRepository, never()).existsById(any());
+    }
+
+    @Test
+    void rejectedStudyLogWithNewClientSeqStillFailsOnEndedSession() {
+        StudySession ended = StudySession.builder()
+                .sessionId("session-1")
+                .status(SessionStatus.ENDED)
+                .clientSeqHwm(7L)
+                .build();
+        when(studySessionRepository.appendStudyLog(eq("session-1"), any(StudyLog.class))).thenReturn(Optional.empty());
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(ended));
+        when(studySessionRepository.existsById("session-1")).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> studySessionService.addStudyLog("session-1", "늦음", 8L));
+    }
+
+    @Test
+    void addQuestionLogPersistsQuestion() {
+        when(studySessionRepository.appendQuestionLog(eq("session-1"), any(QuestionLog.class)))
+                .thenAnswer(invocation -> Optional.of(StudySession.builder()
+                        .sessionId("session-1")
+                        .questionLogs(new ArrayList<>(List.of(invocation.<QuestionLog>getArgument(1))))
+                        .build()));
 
-        StudySession updated = studySessionService.addQuestionLog("session-1", "이게 왜 그런가요?");
+        StudySession updated = studySessionService.addQuestionLog("session-1", "이게 왜 그런가요?", null);
 
         assertEquals(1, updated.getQuestionLogs().size());
         QuestionLog log = updated.getQuestionLogs().get(0);
         assertEquals("이게 왜 그런가요?", log.getQuestion());
         assertNotNull(log.getCreatedAt());
-        verify(studySessionRepository).save(session);
     }
 
     @Test
-    void endSessionMarksCompletionAndPublishesArtifacts() {
-        Instant startedAt = Instant.parse("2024-01-10T08:00:00Z");
+    void resumeSessionOnMissingSessionFails() {
+        when(studySessionRepository.findById("missing")).thenReturn(Optional.empty());
 
-        StudySession session = StudySession.builder()
-                .sessionId("session-1")
-                .matchId("match-1")
-                .menteeUserId("mentee-1")
-                .mentorUserId("mentor-1")
-                .status(SessionStatus.ACTIVE)
-                .startedAt(startedAt)
-                .studyLogs(new ArrayList<>())
-                .questionLogs(new ArrayList<>(List.of(
-                        QuestionLog.builder()
-                                .question("다음에는 어떻게 개선하나요?")
-                                .createdAt(Instant.now())
-                                .build()
-                )))
-                .distractionLogs(new ArrayList<>())
-                .build();
+        assertThrows(IllegalArgumentException.class, () -> studySessionService.resumeSession("missing"));
+    }
 
-        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(session));
-        when(studySessionRepository.save(any(StudySession.class))).thenAnswer(invocation -> invocation.getArgument(0));
-        when(reportRepository.findByMatchId("match-1")).thenReturn(List.of(mock(Report.class)));
+    @Test
+    void resumeSessionRereadsAndRetriesWhenAnotherWriteWinsTheRace() {
+        StudySession stale = header(SessionStatus.PAUSED, 4L);
+        StudySession fresh = header(SessionStatus.PAUSED, 5L);
+        StudySession resumed = header(SessionStatus.ACTIVE, 6L);
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(stale), Optional.of(fresh));
+        when(studySessionRepository.compareAndSetStatus(same(stale), eq(SessionStatus.ACTIVE), any()))
+                .thenReturn(Optional.empty());
+        when(studySessionRepository.compareAndSetStatus(same(fresh), eq(SessionStatus.ACTIVE), any()))
+                .thenReturn(Optional.of(resumed));
+
+        StudySession result = studySessionService.resumeSession("session-1");
+
+        assertEquals(SessionStatus.ACTIVE, result.getStatus());
+        assertEquals(6L, result.getVersion());
+    }
+
+    @Test
+    void resumeSessionOnEndedSessionIsRejectedWithoutWriting() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(header(SessionStatus.ENDED, 9L)));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> studySessionService.resumeSession("session-1"));
+        assertEquals("이미 종료된 세션입니다.", ex.getMessage());
+        verify(studySessionRepository, never()).compareAndSetStatus(any(), any(), any());
+    }
 
-        Board board = Board.builder()
-                .id("board-1")
+    @Test
+    void resumeSessionGivesUpAfterBoundedRetries() {
+        when(studySessionRepository.findById("session-1")).thenReturn(Optional.of(header(SessionStatus.PAUSED, 1L)));
+        when(studySessionRepository.compareAndSetStatus(any(), eq(SessionStatus.ACTIVE), any())).thenReturn(Optional.empty());
+
+        assertThrows(OptimisticLockingFailureException.class, () -> studySessionService.resumeSession("session-1"));
+        verify(studySessionRepository, times(StudySessionService.MAX_TRANSITION_ATTEMPTS))
+                .compareAndSetStatus(any(), eq(SessionStatus.ACTIVE), any());
+    }
+
+    @Test
+    void endSessionOnlyRecordsEndAndLeavesArtifactsToOutbox() {
+        StudySession session = StudySession.builder()
+                .sessionId("session-1")
                 .matchId("match-1")
-                .memberUserIds(List.of("mentee-1", "mentor-1"))
-                .entries(new ArrayList<>())
+                .status(SessionStatus.ENDED)
+                .startedAt(Instant.parse("2024-01-10T08:00:00Z"))
+                .endedAt(Instant.now())
+                .outbox(SessionOutbox.pending(Instant.now()))
                 .build();
-        when(boardRepository.findByMatchId("match-1")).thenReturn(Optional.of(board));
+        when(studySessionRepository.endUnlessEnded(eq("session-1"), any(Instant.class))).thenReturn(Optional.of(session));
 
         StudySession ended = studySessionService.endSession("session-1");
 
+        verify(sessionRegistry).flushAndEvict("session-1");
         assertEquals(SessionStatus.ENDED, ended.getStatus());
-        assertNotNull(ended.getEndedAt());
-        verify(reportService).createReportFromSession(session);
-        verify(studySessionRepository).save(session);
-        verify(reportRepository).findByMatchId("match-1");
+        assertEquals(OutboxStatus.PENDING, ended.getOutbox().getStatus());
+        verify(studySessionRepository).loadLogs(session);
+        verify(studySessionRepository, never()).save(any(StudySession.class));
+        verify(visionAiClient).forgetSession("session-1");
+        ArgumentCaptor<StudySessionEvent> eventCaptor = ArgumentCaptor.forClass(StudySessionEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(SessionStatus.ENDED, eventCaptor.getValue().status());
+        assertEquals("match-1", eventCaptor.getValue().matchId());
+    }
 
-        ArgumentCaptor<String> titleCaptor = ArgumentCaptor.forClass(String.class);
-        verify(boardService).addEntryToBoard(eq("board-1"), eq("mentee-1"), titleCaptor.capture(), eq("다음에는 어떻게 개선하나요?"));
+    @Test
+    void endSessionTwiceIsRejectedWithoutSecondReport() {
+        when(studySessionRepository.endUnlessEnded(eq("session-1"), any(Instant.class))).thenReturn(Optional.empty());
+        when(studySessionRepository.existsById("session-1")).thenReturn(true);
+
+        assertThrows(IllegalStateException.class, () -> studySessionService.endSession("session-1"));
+        verifyNoInteractions(eventPublisher);
+    }
 
-        String generatedTitle = titleCaptor.getValue();
-        assertTrue(generatedTitle.startsWith("["));
-        assertTrue(generatedTitle.contains("번째 학습]"));
+    private static StudySession header(SessionStatus status, Long version) {
+        return StudySession.builder().sessionId("session-1").status(status).version(version).build();
     }
 }
@@ -0,0 +1,147 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerdictSmootherTest {
+
+    private static final Optional<VisionAiClient.DetectedDistraction> PHONE =
+            Optional.of(new VisionAiClient.DetectedDistraction("스마트폰 사용", "VISION_AI"));
+    private static final Optional<VisionAiClient.DetectedDistraction> LEFT_SEAT =
+            Optional.of(new VisionAiClient.DetectedDistraction("자리 이탈", "VISION_AI"));
+    private static final Optional<VisionAiClient.DetectedDistraction> CLEAN = Optional.empty();
+
+    private VisionAiProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VisionAiProperties();
+        properties.getSmoothing().setWindow(5);
+        properties.getSmoothing().setThreshold(3);
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void singleNoisyFrameIsSuppressed() {
+        VerdictSmoother smoother = newSmoother();
+
+        assertTrue(smoother.vote("s1", PHONE).isEmpty());
+        assertTrue(smoother.vote("s1", CLEAN).isEmpty());
+        assertTrue(smoother.vote("s1", CLEAN).isEmpty());
+
+        assertEquals(1.0, meterRegistry.get("vision.verdicts.suppressed").counter().count());
+    }
+
+    @Test
+    void confirmsWhenKOfNAgreeAndStartsOver() {
+        VerdictSmoother smoother = newSmoother();
+
+        smoother.vote("s1", PHONE);
+        smoother.vote("s1", CLEAN);
+        smoother.vote("s1", PHONE);
+        assertEquals(PHONE, smoother.vote("s1", PHONE));
+
+        // 확정 후에는 창이 비워져 다시 k 번 모여야 함
+        assertTrue(smoother.vote("s1", PHONE).isEmpty());
+    }
+
+    @Test
+    void reusedVerdictsOfDuplicateFramesDoNotVote() {
+        VerdictSmoother smoother = newSmoother();
+
+        assertTrue(smoother.vote("s1", VisionAiClient.FrameVerdict.remote(PHONE)).isEmpty());
+        for (int i = 0; i < 4; i++) {
+            // 같은 장면이 계속 찍혀도 한 번의 감지가 확정으로 부풀지 않음
+            assertTrue(smoother.vote("s1", VisionAiClient.FrameVerdict.reused(PHONE)).isEmpty());
+        }
+        assertTrue(smoother.vote("s1", VisionAiClient.FrameVerdict.UNAVAILABLE).isEmpty());
+
+        // 새로 분석한 판정은 그대로 표가 됨
+        assertTrue(smoother.vote("s1", VisionAiClient.FrameVerdict.remote(PHONE)).isEmpty());
+        assertEquals(PHONE, smoother.vote("s1", VisionAiClient.FrameVerdict.remote(PHONE)));
+    }
+
+    @Test
+    void onlyTheLastNVotesCount() {
+        VerdictSmoother smoother = newSmoother();
+
+        smoother.vote("s1", PHONE);
+        smoother.vote("s1", PHONE);
+        for (int i = 0; i < 4; i++) {
+            smoother.vote("s1", CLEAN);
+        }
+
+        // 앞의 두 표는 창(5)에서 밀려났으므로 하나로는 확정되지 않음
+        assertTrue(smoother.vote("s1", PHONE).isEmpty());
+    }
+
+    @Test
+    void usesPerActivityThresholdAndIgnoresStaleVotes() {
+        properties.getSmoothing().setThresholds(Map.of("자리 이탈", 2));
+        VerdictSmoother smoother = newSmoother();
+
+        smoother.vote("s1", LEFT_SEAT);
+        clock.advance(Duration.ofSeconds(31));
+        assertTrue(smoother.vote("s1", LEFT_SEAT).isEmpty());
+        assertEquals(LEFT_SEAT, smoother.vote("s1", LEFT_SEAT));
+    }
+
+    @Test
+    void keepsSessionsSeparateAndPassesThroughWhenDisabled() {
+        VerdictSmoother smoother = newSmoother();
+        smoother.vote("s1", PHONE);
+        smoother.vote("s1", PHONE);
+        assertTrue(smoother.vote("s2", PHONE).isEmpty());
+
+        smoother.forget("s1");
+        assertEquals(1, smoother.trackedSessions());
+
+        properties.getSmoothing().setEnabled(false);
+        assertEquals(PHONE, newSmoother().vote("s3", PHONE));
+    }
+
+    private VerdictSmoother newSmoother() {
+        return new VerdictSmoother(properties, meterRegistry, clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package session.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionAiCircuitBreakerTest {
+
+    private VisionAiProperties properties;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VisionAiProperties();
+        properties.getBreaker().setSlidingWindow(10);
+        properties.getBreaker().setMinimumCalls(4);
+        properties.getBreaker().setFailureRateThreshold(50);
+        properties.getBreaker().setOpenDuration(Duration.ofSeconds(10));
+        properties.getBreaker().setHalfOpenProbes(2);
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThresholdAndFailsFast() {
+        VisionAiCircuitBreaker breaker = newBreaker();
+
+        call(breaker, true);
+        call(breaker, false);
+        call(breaker, true);
+        assertEquals(VisionAiCircuitBreaker.State.CLOSED, breaker.state()); // 최소 호출 수 미달
+        call(breaker, false);
+        call(breaker, true); // 3/5 실패
+
+        assertEquals(VisionAiCircuitBreaker.State.OPEN, breaker.state());
+        assertFalse(breaker.tryAcquire());
+        assertFalse(breaker.permitsCalls());
+    }
+
+    @Test
+    void tripOpensRegardlessOfFailureRate() {
+        VisionAiCircuitBreaker breaker = newBreaker();
+        call(breaker, false);
+
+        breaker.trip();
+
+        assertEquals(VisionAiCircuitBreaker.State.OPEN, breaker.state());
+        clock.advance(Duration.ofSeconds(10));
+        assertTrue(breaker.permitsCalls());
+    }
+
+    @Test
+    void halfOpenProbesCloseTheCircuitWhenAllSucceed() {
+        VisionAiCircuitBreaker breaker = openedBreaker();
+
+        clock.advance(Duration.ofSeconds(10));
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire()); // 시험 호출은 두 개까지
+        assertEquals(VisionAiCircuitBreaker.State.HALF_OPEN, breaker.state());
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+
+        assertEquals(VisionAiCircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() {
+        VisionAiCircuitBreaker breaker = openedBreaker();
+
+        clock.advance(Duration.ofSeconds(10));
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+
+        assertEquals(VisionAiCircuitBreaker.State.OPEN, breaker.state());
+        clock.advance(Duration.ofSeconds(9));
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void disabledBreakerAlwaysAllowsCalls() {
+        properties.getBreaker().setEnabled(false);
+        VisionAiCircuitBreaker breaker = newBreaker();
+
+        for (int i = 0; i < 10; i++) {
+            call(breaker, true);
+        }
+
+        assertEquals(VisionAiCircuitBreaker.State.CLOSED, breaker.state());
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private VisionAiCircuitBreaker openedBreaker() {
+        VisionAiCircuitBreaker breaker = newBreaker();
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true);
+        }
+        assertEquals(VisionAiCircuitBreaker.State.OPEN, breaker.state());
+        return breaker;
+    }
+
+    private static void call(VisionAiCircuitBreaker breaker, boolean fail) {
+        assertTrue(breaker.tryAcquire());
+        if (fail) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess();
+        }
+    }
+
+    private VisionAiCircuitBreaker newBreaker() {
+        return new VisionAiCircuitBreaker(properties.getBreaker(), clock, "http://a:8000");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package session.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VisionAiEndpointsTest {
+
+    private static final List<String> URLS = List.of("http://a:8000", "http://b:8000/", "http://c:8000");
+
+    private VisionAiProperties properties;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VisionAiProperties();
+        properties.setBaseUrls(URLS);
+        properties.getBreaker().setMinimumCalls(3);
+        properties.getBreaker().setOpenDuration(Duration.ofSeconds(30));
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void sameSessionSticksToSameEndpoint() {
+        VisionAiEndpoints endpoints = newEndpoints();
+
+        String first = call(endpoints, "session-1", true, 10);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(first, call(endpoints, "session-1", true, 10));
+        }
+    }
+
+    @Test
+    void addingEndpointMovesOnlyPartOfSessions() {
+        VisionAiEndpoints before = newEndpoints();
+        properties.setBaseUrls(List.of("http://a:8000", "http://b:8000", "http://c:8000", "http://d:8000"));
+        VisionAiEndpoints after = newEndpoints();
+
+        int moved = 0;
+        for (int i = 0; i < 1000; i++) {
+            String sessionId = "session-" + i;
+            if (!call(before, sessionId, true, 1).equals(call(after, sessionId, true, 1))) {
+                moved++;
+            }
+        }
+
+        assertTrue(moved > 100 && moved < 400, "moved " + moved); // 이상적으로는 약 1/4
+    }
+
+    @Test
+    void overloadedAffinityTargetSpillsToAnotherEndpoint() {
+        VisionAiEndpoints endpoints = newEndpoints();
+        VisionAiEndpoints.Endpoint home = endpoints.acquire("session-1");
+
+        // 배정 서버만 호출이 진행 중이면 평균 대비 상한을 넘으므로 다른 서버로 보냄
+        VisionAiEndpoints.Endpoint spilled = endpoints.acquire("session-1");
+        assertNotEquals(home, spilled);
+
+        home.complete(true, 1);
+        spilled.complete(true, 1);
+        assertEquals(home, endpoints.acquire("session-1"));
+    }
+
+    @Test
+    void failingEndpointOpensOnlyItsOwnCircuitAndIsReadmittedAfterDuration() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VisionAiEndpoints endpoints = new VisionAiEndpoints(properties, meterRegistry, clock);
+        VisionAiEndpoints.Endpoint home = endpoints.acquire("session-1");
+        home.complete(false, 10);
+        endpoints.acquire("session-1").complete(false, 10);
+        endpoints.acquire("session-1").complete(false, 10);
+
+        assertEquals(VisionAiCircuitBreaker.State.OPEN, home.breaker().state());
+        assertEquals(2.0, meterRegistry.get("vision.breaker.state").tag("endpoint", home.baseUrl()).gauge().value());
+        // 장애 서버만 링에서 빠지고 나머지 서버로는 계속 보냄
+        assertNotEquals(home.baseUrl(), call(endpoints, "session-1", true, 10));
+        assertFalse(endpoints.isUnavailable());
+
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals(home.baseUrl(), call(endpoints, "session-1", true, 10)); // 시험 호출
+    }
+
+    @Test
+    void slowEndpointIsEjected() {
+        properties.getBalancing().setEjectionLatency(Duration.ofMillis(500));
+        VisionAiEndpoints endpoints = newEndpoints();
+        String home = call(endpoints, "session-1", true, 2000);
+        call(endpoints, "session-1", true, 2000);
+        call(endpoints, "session-1", true, 2000);
+
+        assertNotEquals(home, call(endpoints, "session-1", true, 10));
+    }
+
+    @Test
+    void rejectsCallsWhenEveryCircuitIsOpen() {
+        properties.setBaseUrls(List.of("http://a:8000", "http://b:8000"));
+        VisionAiEndpoints endpoints = newEndpoints();
+        for (int i = 0; i < 20 && !endpoints.isUnavailable(); i++) {
+            call(endpoints, "session-" + i, false, 10);
+        }
+
+        assertTrue(endpoints.isUnavailable());
+        assertNull(endpoints.acquire("session-1"));
+    }
+
+    @Test
+    void fallsBackToSingleBaseUrl() {
+        properties.setBaseUrls(List.of());
+        properties.setBaseUrl("http://127.0.0.1:8000/");
+        VisionAiEndpoints endpoints = newEndpoints();
+
+        assertEquals("http://127.0.0.1:8000", endpoints.acquire("session-1").baseUrl());
+    }
+
+    private static String call(VisionAiEndpoints endpoints, String sessionId, boolean success, long latencyMillis) {
+        VisionAiEndpoints.Endpoint endpoint = endpoints.acquire(sessionId);
+        endpoint.complete(success, latencyMillis);
+        return endpoint.baseUrl();
+    }
+
+    private VisionAiEndpoints newEndpoints() {
+        return new VisionAiEndpoints(properties, new SimpleMeterRegistry(), clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package session.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import session.domain.SessionStatus;
+import session.domain.StudySession;
+import session.service.FrameAnalysisPipeline;
+import session.service.FrameNormalizer;
+import session.service.FrameSamplingAdvisor;
+import session.service.StudySessionEvent;
+import session.service.StudySessionService;
+import session.service.VisionAiClient;
+import session.service.VisionAiProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionFrameWebSocketHandlerTest {
+
+    @Mock
+    private StudySessionService studySessionService;
+
+    @Mock
+    private FrameAnalysisPipeline frameAnalysisPipeline;
+
+    @Mock
+    private FrameSamplingAdvisor frameSamplingAdvisor;
+
+    @Mock
+    private FrameNormalizer frameNormalizer;
+
+    private SessionFrameWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        handler = new SessionFrameWebSocketHandler(studySessionService, frameAnalysisPipeline,
+                frameSamplingAdvisor, frameNormalizer, new VisionAiProperties(), objectMapper);
+    }
+
+    @Test
+    void menteeFrameIsQueuedWhenPipelineEnabled() throws Exception {
+        WebSocketSession mentee = socket("ws-1", true);
+        handler.afterConnectionEstablished(mentee);
+        when(frameAnalysisPipeline.isEnabled()).thenReturn(true);
+        when(frameAnalysisPipeline.submit(eq("session-1"), any(byte[].class), any())).thenReturn(true);
+
+        handler.handleMessage(mentee, new BinaryMessage(new byte[]{1, 2, 3}));
+
+        verify(frameAnalysisPipeline).submit(eq("session-1"), eq(new byte[]{1, 2, 3}), any());
+        verifyNoInteractions(studySessionService);
+        verify(mentee, never()).sendMessage(any());
+    }
+
+    @Test
+    void menteeFrameIsAnalyzedInlineWhenPipelineDisabled() throws Exception {
+        WebSocketSession mentee = socket("ws-1", true);
+        handler.afterConnectionEstablished(mentee);
+
+        handler.handleMessage(mentee, new BinaryMessage(new byte[]{1}));
+
+        verify(studySessionService).analyzeFrame(eq("session-1"), any(byte[].class), any());
+    }
+
+    @Test
+    void oversizedFrameIsRejectedBeforeAnalysis() throws Exception {
+        WebSocketSession mentee = socket("ws-1", true);
+        handler.afterConnectionEstablished(mentee);
+        when(frameNormalizer.isOversized(3)).thenReturn(true);
+
+        handler.handleMessage(mentee, new BinaryMessage(new byte[]{1, 2, 3}));
+
+        verifyNoInteractions(studySessionService, frameAnalysisPipeline);
+        assertTrue(lastMessage(mentee).contains("FRAME_TOO_LARGE"));
+    }
+
+    @Test
+    void mentorCannotSendFrames() throws Exception {
+        WebSocketSession mentor = socket("ws-2", false);
+        handler.afterConnectionEstablished(mentor);
+
+        handler.handleMessage(mentor, new BinaryMessage(new byte[]{1}));
+
+        verifyNoInteractions(studySessionService, frameAnalysisPipeline);
+        assertTrue(lastMessage(mentor).contains("FORBIDDEN"));
+    }
+
+    @Test
+    void pushesEventsToAllSocketsOfSessionAndClosesOnEnd() throws Exception {
+        WebSocketSession mentee = socket("ws-1", true);
+        WebSocketSession mentor = socket("ws-2", false);
+        handler.afterConnectionEstablished(mentee);
+        handler.afterConnectionEstablished(mentor);
+        when(frameSamplingAdvisor.nextFrameAfterMs("session-1")).thenReturn(500L);
+
+        handler.onSessionEvent(StudySessionEvent.frameAnalyzed("session-1",
+                new VisionAiClient.DetectedDistraction("스마트폰 사용", "VISION_AI")));
+        assertTrue(lastMessage(mentee).contains("\"activity\":\"스마트폰 사용\""));
+        assertTrue(lastMessage(mentee).contains("\"nextFrameAfterMs\":500"));
+        assertTrue(lastMessage(mentor).contains("\"detected\":true"));
+
+        handler.onSessionEvent(StudySessionEvent.statusChanged(StudySession.builder().sessionId("session-1").build(), SessionStatus.ENDED));
+        assertTrue(lastMessage(mentor).contains("\"status\":\"ENDED\""));
+        verify(mentee).close(CloseStatus.NORMAL);
+        verify(mentor).close(CloseStatus.NORMAL);
+
+        handler.afterConnectionClosed(mentee, CloseStatus.NORMAL);
+        handler.afterConnectionClosed(mentor, CloseStatus.NORMAL);
+        assertEquals(0, handler.subscriberCount("session-1"));
+    }
+
+    @Test
+    void slowSocketOverSendBufferIsClosedAndUnregisteredWithoutFailingPublisher() throws Exception {
+        VisionAiProperties properties = new VisionAiProperties();
+        properties.getSocket().setSendBufferBytes(1); // 전송 중에 쌓이는 메시지는 바로 한도를 넘김
+        handler = new SessionFrameWebSocketHandler(studySessionService, frameAnalysisPipeline,
+                frameSamplingAdvisor, frameNormalizer, properties, new ObjectMapper().registerModule(new JavaTimeModule()));
+        WebSocketSession mentor = socket("ws-2", false);
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(mentor).sendMessage(any());
+        handler.afterConnectionEstablished(mentor);
+        StudySession session = StudySession.builder().sessionId("session-1").build();
+
+        // 첫 이벤트 전송이 느린 소켓에서 막혀 있는 동안 다음 이벤트가 발행됨
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() ->
+                handler.onSessionEvent(StudySessionEvent.statusChanged(session, SessionStatus.PAUSED)));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> handler.onSessionEvent(StudySessionEvent.statusChanged(session, SessionStatus.ACTIVE)));
+
+        verify(mentor).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(0, handler.subscriberCount("session-1"));
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+    }
+
+    private WebSocketSession socket(String id, boolean mentee) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SessionFrameHandshakeInterceptor.SESSION_ID, "session-1");
+        attributes.put(SessionFrameHandshakeInterceptor.MENTEE, mentee);
+
+        WebSocketSession socket = mock(WebSocketSession.class);
+        lenient().when(socket.getId()).thenReturn(id);
+        lenient().when(socket.getAttributes()).thenReturn(attributes);
+        lenient().when(socket.isOpen()).thenReturn(true);
+        return socket;
+    }
+
+    private String lastMessage(WebSocketSession socket) throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(socket, atLeastOnce()).sendMessage(captor.capture());
+        return captor.getValue().getPayload();
+    }
+}